@@ -0,0 +1,14 @@
+package info.jab.cli;
+
+/**
+ * Build metadata resolved at build time from the git-commit-id-plugin properties.
+ */
+final class BuildInfo {
+
+    static final String VERSION = "${git.build.version}";
+    static final String COMMIT = "${git.commit.id.abbrev}";
+
+    private BuildInfo() {
+        // Constants only
+    }
+}
@@ -0,0 +1,90 @@
+package info.jab.cli;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.Objects;
+
+import info.jab.cli.io.ExecutionContext;
+import info.jab.cli.io.GitCache;
+import info.jab.cli.io.RunHistory;
+
+/**
+ * Training workload used to record the AOT cache of the CLI (-XX:AOTCacheOutput).
+ *
+ * Every init option is executed once in a scratch directory, so the classes
+ * loaded and linked by a real invocation end up in the cache.
+ * The project generators (Maven, Spring Boot, Quarkus) are only planned: a training run
+ * never spawns mvn, spring or quarkus, the plan looks them up on the PATH instead.
+ */
+public final class AotTraining {
+
+    // Unreachable endpoint: exercises validation and the JGit transport without network access
+    static final String TRAINING_REPOSITORY = "https://127.0.0.1:9/training.git";
+
+    static final List<List<String>> WORKLOAD = List.of(
+        List.of("--help"),
+        List.of("init", "--help"),
+        List.of("init", "--maven", "--plan"),
+        List.of("init", "--spring-boot", "--plan"),
+        List.of("init", "--quarkus", "--plan"),
+        List.of("init", "--cursor", TRAINING_REPOSITORY),
+        List.of("init", "--sdkman"),
+        List.of("init", "--editorconfig"),
+        List.of("init", "--gitignore"),
+        List.of("init", "--github-action"),
+        List.of("init", "--dependabot"),
+        List.of("init", "--devcontainer"),
+        List.of("init", "--visualvm"),
+        List.of("init", "--jmc"),
+        List.of("init", "--plan", "--devcontainer")
+    );
+
+    private AotTraining() {
+        // Entry point only
+    }
+
+    static void train() throws IOException {
+        // Training runs are not real runs, keep them out of the durations of --plan and the git mirrors
+        System.setProperty(RunHistory.PROPERTY, "");
+        System.setProperty(GitCache.PROPERTY, "");
+        for (List<String> args : WORKLOAD) {
+            Path scratch = Files.createTempDirectory("setup-aot-training");
+            try {
+                ExecutionContext context = new ExecutionContext(scratch, System.getenv());
+                ExecutionContext.callWith(context, () -> Setup.runCLI(args.toArray(String[]::new)));
+            } finally {
+                deleteDirectory(scratch);
+            }
+        }
+    }
+
+    private static void deleteDirectory(Path directory) throws IOException {
+        Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                if (Objects.nonNull(exc)) {
+                    throw exc;
+                }
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    public static void main(String[] args) throws IOException {
+        train();
+        // The AOT cache is dumped when the JVM exits
+        Setup.exit(0);
+    }
+}
@@ -0,0 +1,192 @@
+package info.jab.cli;
+
+import java.util.Objects;
+import java.util.function.Consumer;
+
+import picocli.CommandLine.Model.ArgGroupSpec;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Model.ISetter;
+import picocli.CommandLine.Model.OptionSpec;
+
+/**
+ * Picocli command model for Setup and InitCommand built with the programmatic API.
+ *
+ * This is the only declaration of the options: Setup and InitCommand are plain classes
+ * whose fields are bound by the setters below, so picocli neither reflects over them
+ * at runtime nor needs reflection config for them in the native image.
+ */
+final class CommandModel {
+
+    private CommandModel() {
+        // Factory methods only
+    }
+
+    static CommandSpec setup(Setup setup, InitCommand initCommand) {
+        CommandSpec spec = CommandSpec.wrapWithoutInspection(setup)
+            .name("setup");
+        spec.usageMessage()
+            .description("Setup is a CLI utility designed to help developers when they start working with a new repository.")
+            .autoWidth(true);
+        addStandardHelpOptions(spec);
+        spec.addOption(OptionSpec.builder("--daemon")
+            .type(boolean.class)
+            .arity("0")
+            .description("Keep a warm JVM serving requests over a Unix domain socket " +
+                         "($SETUP_DAEMON_SOCKET or ~/.setup/daemon.sock).")
+            .setter(new ISetter() {
+                @Override
+                public <T> T set(T value) {
+                    if (Boolean.TRUE.equals(value)) {
+                        setup.daemon = true;
+                    }
+                    return value;
+                }
+            })
+            .build());
+        spec.addSubcommand("init", init(initCommand));
+        return spec;
+    }
+
+    static CommandSpec init(InitCommand command) {
+        CommandSpec spec = CommandSpec.wrapWithoutInspection(command)
+            .name("init");
+        spec.usageMessage()
+            .description("Setup is a command line utility designed to help developers when initializing new projects using Maven.")
+            .sortOptions(false)
+            .autoWidth(true);
+        addStandardHelpOptions(spec);
+
+        // Mutually exclusive options - only one can be selected at a time
+        spec.addArgGroup(ArgGroupSpec.builder()
+            .exclusive(true)
+            .multiplicity("1")
+            .addArg(flag(command, 2, false, "Create a new Maven project.",
+                options -> options.mavenOption = true, "-m", "--maven"))
+            .addArg(flag(command, 3, false, "Create a new Spring Boot project.",
+                options -> options.springCliOption = true, "-sb", "--spring-boot"))
+            .addArg(flag(command, 4, false, "Create a new Quarkus project.",
+                options -> options.quarkusCliOption = true, "-q", "--quarkus"))
+            .addArg(cursor(command))
+            .addArg(flag(command, 5, false, "Add an initial .sdkmanrc file.",
+                options -> options.sdkmanOption = true, "-s", "--sdkman"))
+            .addArg(flag(command, 6, false, "Add an initial .editorconfig file.",
+                options -> options.editorConfigOption = true, "-ec", "--editorconfig"))
+            .addArg(flag(command, 7, false, "Add an initial .gitignore file.",
+                options -> options.gitignoreOption = true, "-gi", "--gitignore"))
+            .addArg(flag(command, 8, false, "Add an initial GitHub Actions workflow for Maven.",
+                options -> options.githubActionOption = true, "-ga", "--github-action"))
+            .addArg(flag(command, 9, false, "Add an initial Dependabot configuration.",
+                options -> options.dependabotOption = true, "-db", "--dependabot"))
+            .addArg(flag(command, 10, false, "Add an initial Devcontainer support for Java.",
+                options -> options.devcontainerOption = true, "-dc", "--devcontainer"))
+            .addArg(flag(command, 11, true, "Run VisualVM to monitor the application.",
+                options -> options.visualvmOption = true, "-vv", "--visualvm"))
+            .addArg(flag(command, 12, true, "Run JMC to monitor the application.",
+                options -> options.jmcOption = true, "-j", "--jmc"))
+            .build());
+        spec.addOption(OptionSpec.builder("--plan")
+            .type(boolean.class)
+            .arity("0")
+            .order(13)
+            .description("Show the files the feature would create or overwrite and the commands it would run, " +
+                         "with an estimate from previous runs, without running it. " +
+                         "Exits with " + InitCommand.PLANNED_WORK + " when there is work to do, 0 when there is none.")
+            .setter(new ISetter() {
+                @Override
+                public <T> T set(T value) {
+                    if (Boolean.TRUE.equals(value)) {
+                        command.planOption = true;
+                    }
+                    return value;
+                }
+            })
+            .build());
+        spec.addOption(OptionSpec.builder("--update")
+            .type(boolean.class)
+            .arity("0")
+            .order(14)
+            .description("With --cursor, copy the latest commit of the repository and move the pin of .cursor/rules.lock.")
+            .setter(new ISetter() {
+                @Override
+                public <T> T set(T value) {
+                    if (Boolean.TRUE.equals(value)) {
+                        command.updateOption = true;
+                    }
+                    return value;
+                }
+            })
+            .build());
+        return spec;
+    }
+
+    // Equivalent to mixinStandardHelpOptions = true, without the reflective AutoHelpMixin
+    private static void addStandardHelpOptions(CommandSpec spec) {
+        spec.addOption(OptionSpec.builder("-h", "--help")
+            .usageHelp(true)
+            .description("Show this help message and exit.")
+            .build());
+        spec.addOption(OptionSpec.builder("-V", "--version")
+            .versionHelp(true)
+            .description("Print version information and exit.")
+            .build());
+    }
+
+    private static OptionSpec flag(
+        InitCommand command,
+        int order,
+        boolean hidden,
+        String description,
+        Consumer<InitCommand.ExclusiveOptions> selection,
+        String... names
+    ) {
+        return OptionSpec.builder(names)
+            .type(boolean.class)
+            .arity("0")
+            .order(order)
+            .hidden(hidden)
+            .description(description)
+            .setter(new ISetter() {
+                @Override
+                public <T> T set(T value) {
+                    // Picocli also resets options to their initial value, only a match selects the feature
+                    if (Boolean.TRUE.equals(value)) {
+                        selection.accept(exclusiveOptions(command));
+                    }
+                    return value;
+                }
+            })
+            .build();
+    }
+
+    private static OptionSpec cursor(InitCommand command) {
+        return OptionSpec.builder("-c", "--cursor")
+            .type(String[].class)
+            .auxiliaryTypes(String.class)
+            .arity("1..*")
+            .paramLabel("<cursorParameters>")
+            .order(1)
+            .description("Download cursor rules from one or more Git repositories. " +
+                         "The option requires a Https Git repository URL " +
+                         "(append #branch, #tag or #commit to download a given ref), " +
+                         "more URLs merge the rules of several repositories, a later repository replacing " +
+                         "the files of an earlier one, and a last parameter that is not a URL indicates " +
+                         "the path where is located in the repositories the cursor rules, by default ./cursor/rules.")
+            .setter(new ISetter() {
+                @Override
+                public <T> T set(T value) {
+                    if (value instanceof String[] parameters && parameters.length > 0) {
+                        exclusiveOptions(command).cursorParameters = parameters;
+                    }
+                    return value;
+                }
+            })
+            .build();
+    }
+
+    private static InitCommand.ExclusiveOptions exclusiveOptions(InitCommand command) {
+        if (Objects.isNull(command.exclusiveOptions)) {
+            command.exclusiveOptions = new InitCommand.ExclusiveOptions();
+        }
+        return command.exclusiveOptions;
+    }
+}
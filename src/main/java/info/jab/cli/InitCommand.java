@@ -12,148 +12,100 @@ import info.jab.cli.behaviours.QuarkusCli;
 import info.jab.cli.behaviours.Sdkman;
 import info.jab.cli.behaviours.SpringCli;
 import info.jab.cli.behaviours.Visualvm;
-import picocli.CommandLine.Command;
-import picocli.CommandLine.Option;
-import picocli.CommandLine.ArgGroup;
+import info.jab.cli.io.Plan;
+import info.jab.cli.io.RunHistory;
+import picocli.CommandLine.IExitCodeGenerator;
 import io.vavr.control.Either;
 import org.jspecify.annotations.Nullable;
 import org.slf4j.LoggerFactory;
 
 import org.slf4j.Logger;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
 
 /**
  * CLI command for initializing project setup features.
  * This command supports various development tools and configurations.
  * Only one feature can be executed at a time to ensure proper initialization.
+ * With --plan the feature is only planned: nothing is written and no process is spawned,
+ * and the exit code tells whether there is work (PLANNED_WORK) or nothing to do (0).
+ * With --update the cursor rules move to the latest commit instead of the one pinned in their lock file.
  */
-@Command(
-    name = "init",
-    description = "Setup is a command line utility designed to help developers when initializing new projects using Maven.",
-    mixinStandardHelpOptions = true,
-    sortOptions = false,
-    usageHelpAutoWidth = true
-)
-public class InitCommand implements Runnable {
+public class InitCommand implements Runnable, IExitCodeGenerator {
 
     private static final Logger logger = LoggerFactory.getLogger(InitCommand.class);
 
-    // Mutually exclusive options - only one can be selected at a time
-    @ArgGroup(exclusive = true, multiplicity = "1")
+    // Exit code of a plan that would create, overwrite or delete files or run commands
+    public static final int PLANNED_WORK = 3;
+
+    // user@host:path, the scp-like syntax of git remotes (no slash before the colon)
+    private static final Pattern SCP_LIKE_URL = Pattern.compile("[^@/:\\s]+@[^@/:\\s]+:.+");
+
+    // Options bound by CommandModel, only one feature can be selected at a time
     @Nullable
     ExclusiveOptions exclusiveOptions;
 
     static class ExclusiveOptions {
-
-        @Option(
-            names = {"-m", "--maven"},
-            description = "Create a new Maven project.",
-            order = 2)
         boolean mavenOption;
-
-        @Option(
-            names = {"-sb", "--spring-boot"},
-            description = "Create a new Spring Boot project.",
-            order = 3)
         boolean springCliOption;
-
-        @Option(
-            names = {"-q", "--quarkus"},
-            description = "Create a new Quarkus project.",
-            order = 4)
         boolean quarkusCliOption;
-
-        @Option(
-            names = {"-c", "--cursor"},
-            description = "Download cursor rules from a Git repository. " +
-                         "The option accepts 2 parameters, the first parameter requires a Https Git repository URL, " +
-                         "the second parameter is optional and indicates the path where is located in the repository " +
-                         "the cursor rules, by default ./cursor/rules.",
-            arity = "1..2",
-            order = 1)
         @Nullable
         @SuppressWarnings("NullAway") // Optional CLI parameter can be null
         String[] cursorParameters;
-
-        @Option(
-            names = {"-s", "--sdkman"},
-            description = "Add an initial .sdkmanrc file.",
-            order = 5)
         boolean sdkmanOption;
-
-        @Option(
-            names = {"-ec", "--editorconfig"},
-            description = "Add an initial .editorconfig file.",
-            order = 6)
         boolean editorConfigOption;
-
-        @Option(
-            names = {"-gi", "--gitignore"},
-            description = "Add an initial .gitignore file.",
-            order = 7)
         boolean gitignoreOption;
-
-        @Option(
-            names = {"-ga", "--github-action"},
-            description = "Add an initial GitHub Actions workflow for Maven.",
-            order = 8)
         boolean githubActionOption;
-
-        @Option(
-            names = {"-db", "--dependabot"},
-            description = "Add an initial Dependabot configuration.",
-            order = 9)
         boolean dependabotOption;
-
-        @Option(
-            names = {"-dc", "--devcontainer"},
-            description = "Add an initial Devcontainer support for Java.",
-            order = 10)
         boolean devcontainerOption;
-
-        @Option(
-            names = {"-vv", "--visualvm"},
-            description = "Run VisualVM to monitor the application.",
-            order = 11,
-            hidden = true)
         boolean visualvmOption;
-
-        @Option(
-            names = {"-j", "--jmc"},
-            description = "Run JMC to monitor the application.",
-            order = 12,
-            hidden = true)
         boolean jmcOption;
     }
 
-    // Behavior instances
-    private final Maven maven;
-    private final SpringCli springCli;
-    private final QuarkusCli quarkusCli;
-    private final Cursor cursor;
-    private final Sdkman sdkman;
-    private final EditorConfig editorConfig;
-    private final Gitignore gitignore;
-    private final GithubAction githubAction;
-    private final Dependabot dependabot;
-    private final DevContainer devContainer;
-    private final Visualvm visualvm;
-    private final JMC jmc;
+    boolean planOption;
+    boolean updateOption;
+
+    // Exit code of the last run, only a plan sets it
+    private int exitCode;
+
+    // Behaviours created on first use, so an option only loads the classes of its own behaviour
+    private final Supplier<Maven> maven;
+    private final Supplier<SpringCli> springCli;
+    private final Supplier<QuarkusCli> quarkusCli;
+    private final Supplier<Cursor> cursor;
+    private final Supplier<Sdkman> sdkman;
+    private final Supplier<EditorConfig> editorConfig;
+    private final Supplier<Gitignore> gitignore;
+    private final Supplier<GithubAction> githubAction;
+    private final Supplier<Dependabot> dependabot;
+    private final Supplier<DevContainer> devContainer;
+    private final Supplier<Visualvm> visualvm;
+    private final Supplier<JMC> jmc;
+
+    // Durations of previous runs, for the estimate of --plan
+    private final RunHistory history;
 
     public InitCommand() {
-        this.maven = new Maven();
-        this.springCli = new SpringCli();
-        this.quarkusCli = new QuarkusCli();
-        this.cursor = new Cursor();
-        this.sdkman = new Sdkman();
-        this.editorConfig = new EditorConfig();
-        this.gitignore = new Gitignore();
-        this.githubAction = new GithubAction();
-        this.dependabot = new Dependabot();
-        this.devContainer = new DevContainer();
-        this.visualvm = new Visualvm();
-        this.jmc = new JMC();
+        // Lambdas rather than constructor references, which would load every behaviour class when linked
+        this.maven = () -> new Maven();
+        this.springCli = () -> new SpringCli();
+        this.quarkusCli = () -> new QuarkusCli();
+        this.cursor = () -> new Cursor();
+        this.sdkman = () -> new Sdkman();
+        this.editorConfig = () -> new EditorConfig();
+        this.gitignore = () -> new Gitignore();
+        this.githubAction = () -> new GithubAction();
+        this.dependabot = () -> new Dependabot();
+        this.devContainer = () -> new DevContainer();
+        this.visualvm = () -> new Visualvm();
+        this.jmc = () -> new JMC();
+        this.history = RunHistory.load();
     }
 
     public InitCommand(
@@ -170,18 +122,19 @@ public class InitCommand implements Runnable {
         Visualvm visualvm,
         JMC jmc
     ) {
-        this.maven = maven;
-        this.springCli = springCli;
-        this.quarkusCli = quarkusCli;
-        this.cursor = cursor;
-        this.editorConfig = editorConfig;
-        this.sdkman = sdkman;
-        this.gitignore = gitignore;
-        this.githubAction = githubAction;
-        this.dependabot = dependabot;
-        this.devContainer = devContainer;
-        this.visualvm = visualvm;
-        this.jmc = jmc;
+        this.maven = () -> maven;
+        this.springCli = () -> springCli;
+        this.quarkusCli = () -> quarkusCli;
+        this.cursor = () -> cursor;
+        this.editorConfig = () -> editorConfig;
+        this.sdkman = () -> sdkman;
+        this.gitignore = () -> gitignore;
+        this.githubAction = () -> githubAction;
+        this.dependabot = () -> dependabot;
+        this.devContainer = () -> devContainer;
+        this.visualvm = () -> visualvm;
+        this.jmc = () -> jmc;
+        this.history = RunHistory.inMemory();
     }
 
     @Override
@@ -189,69 +142,144 @@ public class InitCommand implements Runnable {
         runInitFeature();
     }
 
-    @SuppressWarnings("NullAway") // CursorOptions.isValidOption handles null internally
     protected Integer runInitFeature() {
+        exitCode = 0;
         if (Objects.isNull(exclusiveOptions)) {
             return processResult(Either.left("No feature selected. Use --help to see available options."));
         }
 
-        if (exclusiveOptions.mavenOption) {
-            return processResult(maven.execute());
+        Optional<Feature> selected = selectedFeature(exclusiveOptions);
+        if (selected.isEmpty()) {
+            return processResult(Either.left("No valid feature option provided."));
+        }
+        Feature feature = selected.get();
+
+        if (updateOption && !"cursor".equals(feature.name())) {
+            return processResult(Either.left("--update only applies to --cursor"));
+        }
+
+        if (planOption) {
+            Either<String, Plan> planned = feature.planning().get();
+            int result = processResult(planned
+                .map(plan -> plan.render("--" + feature.name(), history.estimate(feature.name()))));
+            exitCode = planned.isRight() && !planned.get().isNoOp() ? PLANNED_WORK : result;
+            return exitCode;
+        }
+
+        long start = System.nanoTime();
+        Either<String, String> result = feature.execution().get();
+        if (result.isRight()) {
+            history.record(feature.name(), Duration.ofNanos(System.nanoTime() - start));
+            history.save();
+        }
+        return processResult(result);
+    }
+
+    @Override
+    public int getExitCode() {
+        return exitCode;
+    }
+
+    // The selected option, run or planned
+    private record Feature(
+        String name,
+        Supplier<Either<String, String>> execution,
+        Supplier<Either<String, Plan>> planning
+    ) {}
+
+    private static <T> Feature feature(
+        String name,
+        Supplier<T> behaviour,
+        Function<T, Either<String, String>> execution,
+        Function<T, Either<String, Plan>> planning
+    ) {
+        return new Feature(name, () -> execution.apply(behaviour.get()), () -> planning.apply(behaviour.get()));
+    }
+
+    @SuppressWarnings("NullAway") // CursorOptions.isValidOption handles null internally
+    private Optional<Feature> selectedFeature(ExclusiveOptions options) {
+        if (options.mavenOption) {
+            return Optional.of(feature("maven", maven, Maven::execute, Maven::plan));
         }
 
-        if (exclusiveOptions.springCliOption) {
-            return processResult(springCli.execute());
+        if (options.springCliOption) {
+            return Optional.of(feature("spring-boot", springCli, SpringCli::execute, SpringCli::plan));
         }
 
-        if (exclusiveOptions.quarkusCliOption) {
-            return processResult(quarkusCli.execute());
+        if (options.quarkusCliOption) {
+            return Optional.of(feature("quarkus", quarkusCli, QuarkusCli::execute, QuarkusCli::plan));
         }
 
-        if (Objects.nonNull(exclusiveOptions.cursorParameters) && exclusiveOptions.cursorParameters.length > 0) {
-            if (exclusiveOptions.cursorParameters.length == 1) {
-                String gitRepoUrl = exclusiveOptions.cursorParameters[0];
-                String destinationPath = ".cursor/rules";
-                return processResult(cursor.execute(gitRepoUrl, destinationPath));
-            } else {
-                String gitRepoUrl = exclusiveOptions.cursorParameters[0];
-                String destinationPath = exclusiveOptions.cursorParameters[1];
-                return processResult(cursor.execute(gitRepoUrl, destinationPath));
+        if (Objects.nonNull(options.cursorParameters) && options.cursorParameters.length > 0) {
+            String[] parameters = options.cursorParameters;
+            int last = parameters.length - 1;
+            boolean folderGiven = last > 0 && !isUrl(parameters[last]);
+            List<String> gitRepoUrls = List.of(parameters).subList(0, folderGiven ? last : parameters.length);
+            String destinationPath = folderGiven ? parameters[last] : ".cursor/rules";
+            if (gitRepoUrls.stream().skip(1).anyMatch(parameter -> !isUrl(parameter))) {
+                String error = "Only the last --cursor parameter can be a folder: " + String.join(" ", parameters);
+                return Optional.of(new Feature("cursor", () -> Either.left(error), () -> Either.left(error)));
+            }
+            if (gitRepoUrls.size() > 1 && updateOption) {
+                return Optional.of(feature("cursor", cursor,
+                    cursor -> cursor.update(gitRepoUrls, destinationPath),
+                    cursor -> cursor.planUpdate(gitRepoUrls, destinationPath)));
             }
+            if (gitRepoUrls.size() > 1) {
+                return Optional.of(feature("cursor", cursor,
+                    cursor -> cursor.execute(gitRepoUrls, destinationPath),
+                    cursor -> cursor.plan(gitRepoUrls, destinationPath)));
+            }
+            String gitRepoUrl = gitRepoUrls.get(0);
+            if (updateOption) {
+                return Optional.of(feature("cursor", cursor,
+                    cursor -> cursor.update(gitRepoUrl, destinationPath),
+                    cursor -> cursor.planUpdate(gitRepoUrl, destinationPath)));
+            }
+            return Optional.of(feature("cursor", cursor,
+                cursor -> cursor.execute(gitRepoUrl, destinationPath),
+                cursor -> cursor.plan(gitRepoUrl, destinationPath)));
         }
 
-        if (exclusiveOptions.editorConfigOption) {
-            return processResult(editorConfig.execute());
+        if (options.editorConfigOption) {
+            return Optional.of(feature("editorconfig", editorConfig, EditorConfig::execute, EditorConfig::plan));
         }
 
-        if (exclusiveOptions.sdkmanOption) {
-            return processResult(sdkman.execute());
+        if (options.sdkmanOption) {
+            return Optional.of(feature("sdkman", sdkman, Sdkman::execute, Sdkman::plan));
         }
 
-        if (exclusiveOptions.githubActionOption) {
-            return processResult(githubAction.execute());
+        if (options.githubActionOption) {
+            return Optional.of(feature("github-action", githubAction, GithubAction::execute, GithubAction::plan));
         }
 
-        if (exclusiveOptions.gitignoreOption) {
-            return processResult(gitignore.execute());
+        if (options.gitignoreOption) {
+            return Optional.of(feature("gitignore", gitignore, Gitignore::execute, Gitignore::plan));
         }
 
-        if (exclusiveOptions.devcontainerOption) {
-            return processResult(devContainer.execute());
+        if (options.devcontainerOption) {
+            return Optional.of(feature("devcontainer", devContainer, DevContainer::execute, DevContainer::plan));
         }
 
-        if (exclusiveOptions.dependabotOption) {
-            return processResult(dependabot.execute());
+        if (options.dependabotOption) {
+            return Optional.of(feature("dependabot", dependabot, Dependabot::execute, Dependabot::plan));
         }
 
-        if (exclusiveOptions.visualvmOption) {
-            return processResult(visualvm.execute());
+        if (options.visualvmOption) {
+            return Optional.of(feature("visualvm", visualvm, Visualvm::execute, Visualvm::plan));
         }
 
-        if (exclusiveOptions.jmcOption) {
-            return processResult(jmc.execute());
+        if (options.jmcOption) {
+            return Optional.of(feature("jmc", jmc, JMC::execute, JMC::plan));
         }
 
-        return processResult(Either.left("No valid feature option provided."));
+        return Optional.empty();
+    }
+
+    // The first --cursor parameter is always a repository, the others are told apart by their scheme
+    // or the scp-like form of git remotes, e.g. git@github.com:org/rules.git
+    private static boolean isUrl(String parameter) {
+        return parameter.contains("://") || SCP_LIKE_URL.matcher(parameter).matches();
     }
 
     private Integer processResult(Either<String, String> result) {
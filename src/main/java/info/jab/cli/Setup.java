@@ -1,29 +1,36 @@
 package info.jab.cli;
 
+import java.io.Console;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import picocli.CommandLine;
-import picocli.CommandLine.Command;
+
+import info.jab.cli.daemon.DaemonProtocol;
+import info.jab.cli.daemon.DaemonServer;
+import info.jab.cli.io.GitCache;
 
 import com.diogonunes.jcolor.Attribute;
 import static com.diogonunes.jcolor.Ansi.colorize;
 
-import com.github.lalyos.jfiglet.FigletFont;
-
-@Command(
-    name = "setup",
-    subcommands = {InitCommand.class},
-    description = "Setup is a CLI utility designed to help developers when they start working with a new repository.",
-    mixinStandardHelpOptions = true,
-    usageHelpAutoWidth = true
-)
 public class Setup implements Runnable {
 
     private static final Logger logger = LoggerFactory.getLogger(Setup.class);
 
+    // How long a run waits on exit for its background git work (cache eviction)
+    private static final Duration BACKGROUND_WORK_LIMIT = Duration.ofSeconds(10);
+
+    // --daemon, bound by CommandModel
+    boolean daemon;
+
     // Field for dependency injection in tests
     private final InitCommand initCommand;
 
@@ -39,16 +46,62 @@ public class Setup implements Runnable {
 
     @Override
     public void run() {
+        if (daemon) {
+            runDaemon();
+            return;
+        }
         // Execute the feature, ignore return value as Runnable.run is void
         initCommand.runInitFeature();
     }
 
+    // Serves invocations until the process is stopped, classes stay loaded between requests
+    private static void runDaemon() {
+        DaemonServer server = new DaemonServer(DaemonProtocol.socketPath(), Setup::serve);
+        try {
+            server.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+            server.awaitTermination();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error starting the daemon: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            server.close();
+        }
+    }
+
+    // A request of the daemon, which never starts another daemon in its own process
+    static int serve(List<String> args) {
+        if (args.contains("--daemon")) {
+            System.err.println("The setup daemon is already running, --daemon is not accepted as a request");
+            return CommandLine.ExitCode.USAGE;
+        }
+        return execute(args.toArray(String[]::new));
+    }
+
+    // Scripted invocations (stdout redirected or piped) skip the banner
+    static boolean isInteractive() {
+        Console console = System.console();
+        return Objects.nonNull(console) && console.isTerminal();
+    }
+
+    // The banner is rendered at build time (banner.txt)
+    static String readBanner() throws IOException {
+        try (InputStream input = Setup.class.getClassLoader().getResourceAsStream("banner.txt")) {
+            if (Objects.isNull(input)) {
+                throw new IOException("banner.txt not found");
+            }
+            return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
     //Maintain System.out.println
     private static void printBanner() {
+        if (!isInteractive()) {
+            return;
+        }
         try {
             System.out.println();
-            String asciiArt = FigletFont.convertOneLine("Setup CLI");
-            System.out.println(colorize(asciiArt, Attribute.GREEN_TEXT()));
+            System.out.println(colorize(readBanner(), Attribute.GREEN_TEXT()));
             new GitInfo().print();
         } catch (IOException e) {
             System.out.println("Error printing banner: " + e.getMessage());
@@ -62,11 +115,25 @@ public class Setup implements Runnable {
             return 0; // Return 0 as per original logic
         }
         printBanner();
-        return new CommandLine(new Setup()).execute(args);
+        return execute(args);
+    }
+
+    // One invocation, also used by the daemon for every request
+    static int execute(String[] args) {
+        // Command model built without reflection, see CommandModel
+        InitCommand initCommand = new InitCommand();
+        return new CommandLine(CommandModel.setup(new Setup(initCommand), initCommand)).execute(args);
     }
 
     public static void main(String[] args) {
-        int exitCode = runCLI(args);
+        exit(runCLI(args));
+    }
+
+    // System.exit stops the virtual threads of the background work, they get a bounded wait first
+    static void exit(int exitCode) {
+        if (!GitCache.awaitBackgroundWork(BACKGROUND_WORK_LIMIT)) {
+            logger.debug("Exiting before the background git work finished, a later run completes it");
+        }
         System.exit(exitCode);
     }
 }
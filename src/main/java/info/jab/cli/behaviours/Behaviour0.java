@@ -1,7 +1,11 @@
 package info.jab.cli.behaviours;
 
+import info.jab.cli.io.Plan;
 import io.vavr.control.Either;
 
 interface Behaviour0 {
     Either<String, String> execute();
+
+    // What execute() would do, without writing a file or spawning a process
+    Either<String, Plan> plan();
 }
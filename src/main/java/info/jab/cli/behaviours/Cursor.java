@@ -4,12 +4,15 @@ import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URL;
 import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
 
 import org.jspecify.annotations.NonNull;
 
+import info.jab.cli.io.ExecutionContext;
 import info.jab.cli.io.GitFolderCopy;
+import info.jab.cli.io.Plan;
 import io.vavr.control.Either;
 
 public class Cursor implements Behaviour2 {
@@ -39,6 +42,95 @@ public class Cursor implements Behaviour2 {
         return executeWithOption(gitRepoUrl.trim(), folderPath);
     }
 
+    /**
+     * Copies the cursor rules at the latest commit of the repository, moving the pin of
+     * .cursor/rules.lock that execute() otherwise keeps.
+     *
+     * @param parameter1 the Git repository URL
+     * @param parameter2 the folder of the repository holding the rules
+     * @return Either.left with error message if invalid, Either.right with success message
+     */
+    public Either<String, String> update(@NonNull String parameter1, @NonNull String parameter2) {
+        Either<String, String> urlValidation = validateGitUrl(parameter1);
+        if (urlValidation.isLeft()) {
+            return urlValidation;
+        }
+
+        gitFolderCopy.updateFolderFromRepo(parameter1.trim(), parameter2, rulesPath().toString());
+
+        return Either.right("Cursor rules updated successfully");
+    }
+
+    /**
+     * Copies and merges the cursor rules of several repositories, in order: a file present in
+     * several repositories is copied from the last one.
+     *
+     * @param gitRepoUrls the Git repository URLs, e.g. an organisation baseline, team rules and language packs
+     * @param folderPath the folder of the repositories holding the rules
+     * @return Either.left with error message if a URL is invalid, Either.right with success message
+     */
+    public Either<String, String> execute(List<String> gitRepoUrls, String folderPath) {
+        Either<String, List<String>> urls = validateGitUrls(gitRepoUrls);
+        if (urls.isLeft()) {
+            return Either.left(urls.getLeft());
+        }
+
+        gitFolderCopy.copyFolderFromRepos(urls.get(), folderPath, rulesPath().toString());
+
+        return Either.right("Cursor rules added successfully from " + gitRepoUrls.size() + " repositories");
+    }
+
+    // execute() moving the pins of .cursor/rules.lock to the latest commits
+    public Either<String, String> update(List<String> gitRepoUrls, String folderPath) {
+        Either<String, List<String>> urls = validateGitUrls(gitRepoUrls);
+        if (urls.isLeft()) {
+            return Either.left(urls.getLeft());
+        }
+
+        gitFolderCopy.updateFolderFromRepos(urls.get(), folderPath, rulesPath().toString());
+
+        return Either.right("Cursor rules updated successfully from " + gitRepoUrls.size() + " repositories");
+    }
+
+    // What execute() would do
+    public Either<String, Plan> plan(List<String> gitRepoUrls, String folderPath) {
+        Either<String, List<String>> urls = validateGitUrls(gitRepoUrls);
+        if (urls.isLeft()) {
+            return Either.left(urls.getLeft());
+        }
+        try {
+            return Either.right(gitFolderCopy.planFolderFromRepos(urls.get(), folderPath, rulesPath().toString()));
+        } catch (RuntimeException e) {
+            return Either.left(e.getMessage());
+        }
+    }
+
+    // What update() would do
+    public Either<String, Plan> planUpdate(List<String> gitRepoUrls, String folderPath) {
+        Either<String, List<String>> urls = validateGitUrls(gitRepoUrls);
+        if (urls.isLeft()) {
+            return Either.left(urls.getLeft());
+        }
+        try {
+            return Either.right(gitFolderCopy.planFolderUpdateFromRepos(urls.get(), folderPath, rulesPath().toString()));
+        } catch (RuntimeException e) {
+            return Either.left(e.getMessage());
+        }
+    }
+
+    // Every URL validated and trimmed, or the first error
+    private Either<String, List<String>> validateGitUrls(List<String> gitRepoUrls) {
+        List<String> urls = new ArrayList<>(gitRepoUrls.size());
+        for (String gitRepoUrl : gitRepoUrls) {
+            Either<String, String> urlValidation = validateGitUrl(gitRepoUrl);
+            if (urlValidation.isLeft()) {
+                return Either.left(urlValidation.getLeft());
+            }
+            urls.add(gitRepoUrl.trim());
+        }
+        return Either.right(urls);
+    }
+
     /**
      * Validates if the given string is a valid URL and appears to be a git repository URL.
      *
@@ -77,13 +169,41 @@ public class Cursor implements Behaviour2 {
     }
 
     private Either<String, String> executeWithOption(String url, String folderPath) {
-        //Location where the cursor rules will be copied
-        Path currentPath = Paths.get(System.getProperty("user.dir"));
+        gitFolderCopy.copyFolderFromRepo(url, folderPath, rulesPath().toString());
+
+        return Either.right("Cursor rules added successfully");
+    }
+
+    //Location where the cursor rules will be copied
+    private static Path rulesPath() {
+        Path currentPath = ExecutionContext.current().workingDirectory();
         Path cursorPath = currentPath.resolve(".cursor");
-        Path rulesPath = cursorPath.resolve("rules");
+        return cursorPath.resolve("rules");
+    }
 
-        gitFolderCopy.copyFolderFromRepo(url, folderPath, rulesPath.toString());
+    @Override
+    public Either<String, Plan> plan(@NonNull String parameter1, @NonNull String parameter2) {
+        Either<String, String> urlValidation = validateGitUrl(parameter1);
+        if (urlValidation.isLeft()) {
+            return Either.left(urlValidation.getLeft());
+        }
+        try {
+            return Either.right(gitFolderCopy.planFolderFromRepo(parameter1.trim(), parameter2, rulesPath().toString()));
+        } catch (RuntimeException e) {
+            return Either.left(e.getMessage());
+        }
+    }
 
-        return Either.right("Cursor rules added successfully");
+    // What update() would do
+    public Either<String, Plan> planUpdate(@NonNull String parameter1, @NonNull String parameter2) {
+        Either<String, String> urlValidation = validateGitUrl(parameter1);
+        if (urlValidation.isLeft()) {
+            return Either.left(urlValidation.getLeft());
+        }
+        try {
+            return Either.right(gitFolderCopy.planFolderUpdateFromRepo(parameter1.trim(), parameter2, rulesPath().toString()));
+        } catch (RuntimeException e) {
+            return Either.left(e.getMessage());
+        }
     }
 }
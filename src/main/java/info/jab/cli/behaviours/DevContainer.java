@@ -1,37 +1,51 @@
 package info.jab.cli.behaviours;
 
 import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.util.function.Supplier;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import info.jab.cli.io.CopyFiles;
+import info.jab.cli.io.ExecutionContext;
+import info.jab.cli.io.Plan;
 import io.vavr.control.Either;
 
 public class DevContainer implements Behaviour0 {
 
     private static final Logger logger = LoggerFactory.getLogger(DevContainer.class);
 
-    private final CopyFiles copyFiles;
+    // One CopyFiles per call, closing it releases the jar file system it leased
+    private final Supplier<CopyFiles> copyFiles;
 
     public DevContainer() {
-        this.copyFiles = new CopyFiles();
+        this.copyFiles = CopyFiles::new;
     }
 
     // Constructor for testing with a mock
     DevContainer(CopyFiles copyFiles) {
-        this.copyFiles = copyFiles;
+        this.copyFiles = () -> copyFiles;
     }
 
     @Override
     public Either<String, String> execute() {
         logger.info("Executing command to add Devcontainer support (.devcontainer/devcontainer.json)");
 
-        Path currentPath = Paths.get(System.getProperty("user.dir"));
+        Path currentPath = ExecutionContext.current().workingDirectory();
         Path devcontainerPath = currentPath.resolve(".devcontainer");
-        copyFiles.copyClasspathFolder( "templates/devcontainer/", devcontainerPath);
+        try (CopyFiles files = copyFiles.get()) {
+            files.copyClasspathFolder( "templates/devcontainer/", devcontainerPath);
+        }
 
         return Either.right("Command execution completed successfully");
     }
+
+    @Override
+    public Either<String, Plan> plan() {
+        Path currentPath = ExecutionContext.current().workingDirectory();
+        Path devcontainerPath = currentPath.resolve(".devcontainer");
+        try (CopyFiles files = copyFiles.get()) {
+            return Either.right(files.planClasspathFolder("templates/devcontainer/", devcontainerPath));
+        }
+    }
 }
@@ -1,37 +1,51 @@
 package info.jab.cli.behaviours;
 
 import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.util.function.Supplier;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import info.jab.cli.io.CopyFiles;
+import info.jab.cli.io.ExecutionContext;
+import info.jab.cli.io.Plan;
 import io.vavr.control.Either;
 
 public class GithubAction implements Behaviour0 {
 
     private static final Logger logger = LoggerFactory.getLogger(GithubAction.class);
 
-    private final CopyFiles copyFiles;
+    // One CopyFiles per call, closing it releases the jar file system it leased
+    private final Supplier<CopyFiles> copyFiles;
 
     public GithubAction() {
-        this.copyFiles = new CopyFiles();
+        this.copyFiles = CopyFiles::new;
     }
 
     // Constructor for testing with a mock
     GithubAction(CopyFiles copyFiles) {
-        this.copyFiles = copyFiles;
+        this.copyFiles = () -> copyFiles;
     }
 
     @Override
     public Either<String, String> execute() {
         logger.info("Executing command to add GitHub Actions workflow (.github/workflows/maven.yaml)");
 
-        Path currentPath = Paths.get(System.getProperty("user.dir"));
+        Path currentPath = ExecutionContext.current().workingDirectory();
         Path workflowsPath = currentPath.resolve(".github").resolve("workflows");
-        copyFiles.copyClasspathFolder( "templates/github-action/", workflowsPath);
+        try (CopyFiles files = copyFiles.get()) {
+            files.copyClasspathFolder( "templates/github-action/", workflowsPath);
+        }
 
         return Either.right("Command execution completed successfully");
     }
+
+    @Override
+    public Either<String, Plan> plan() {
+        Path currentPath = ExecutionContext.current().workingDirectory();
+        Path workflowsPath = currentPath.resolve(".github").resolve("workflows");
+        try (CopyFiles files = copyFiles.get()) {
+            return Either.right(files.planClasspathFolder("templates/github-action/", workflowsPath));
+        }
+    }
 }
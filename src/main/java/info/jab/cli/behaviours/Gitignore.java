@@ -1,38 +1,51 @@
 package info.jab.cli.behaviours;
 
 import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.util.function.Supplier;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import info.jab.cli.io.CopyFiles;
+import info.jab.cli.io.ExecutionContext;
+import info.jab.cli.io.Plan;
 import io.vavr.control.Either;
 
 public class Gitignore implements Behaviour0 {
 
     private static final Logger logger = LoggerFactory.getLogger(Gitignore.class);
 
-    private final CopyFiles copyFiles;
+    // One CopyFiles per call, closing it releases the jar file system it leased
+    private final Supplier<CopyFiles> copyFiles;
 
     public Gitignore() {
-        this.copyFiles = new CopyFiles();
+        this.copyFiles = CopyFiles::new;
     }
 
     // Constructor for testing with a mock
     Gitignore(CopyFiles copyFiles) {
-        this.copyFiles = copyFiles;
+        this.copyFiles = () -> copyFiles;
     }
 
     @Override
     public Either<String, String> execute() {
         logger.info("Executing command to add .gitignore file");
 
-        Path currentPath = Paths.get(System.getProperty("user.dir"));
+        Path currentPath = ExecutionContext.current().workingDirectory();
         Path gitignoreFile = currentPath.resolve(".gitignore");
         String resourcePath = "templates/gitignore/gitignore.template";
-        copyFiles.copyClasspathFileWithRename(resourcePath, gitignoreFile);
+        try (CopyFiles files = copyFiles.get()) {
+            files.copyClasspathFileWithRename(resourcePath, gitignoreFile);
+        }
 
         return Either.right("Command execution completed successfully");
     }
+
+    @Override
+    public Either<String, Plan> plan() {
+        Path gitignoreFile = ExecutionContext.current().workingDirectory().resolve(".gitignore");
+        try (CopyFiles files = copyFiles.get()) {
+            return Either.right(files.planClasspathFileWithRename("templates/gitignore/gitignore.template", gitignoreFile));
+        }
+    }
 }
@@ -3,6 +3,7 @@ package info.jab.cli.behaviours;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import info.jab.cli.io.Plan;
 import io.vavr.control.Either;
 
 public class JMC implements Behaviour0 {
@@ -25,4 +26,9 @@ public class JMC implements Behaviour0 {
 
         return Either.right("Command execution completed successfully");
     }
+
+    @Override
+    public Either<String, Plan> plan() {
+        return Either.right(Plan.ofNote("Prints the commands to install and run JMC, nothing is written"));
+    }
 }
@@ -5,14 +5,19 @@ import org.slf4j.LoggerFactory;
 
 import info.jab.cli.io.CommandExecutor;
 import info.jab.cli.io.FileSystemChecker;
+import info.jab.cli.io.Plan;
 import io.vavr.control.Either;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 
 public class Maven implements Behaviour0 {
 
     private static final Logger logger = LoggerFactory.getLogger(Maven.class);
 
+    private static final String VERSION_COMMAND = "mvn --version";
+
     private final CommandExecutor commandExecutor;
     private final FileSystemChecker fileSystemChecker;
 
@@ -86,7 +91,7 @@ public class Maven implements Behaviour0 {
      */
     public boolean isMavenAvailable() {
         logger.debug("Checking if Maven is available...");
-        Either<String, String> result = commandExecutor.execute("mvn --version");
+        Either<String, String> result = commandExecutor.execute(VERSION_COMMAND);
 
         if (result.isRight()) {
             return true;
@@ -110,4 +115,26 @@ public class Maven implements Behaviour0 {
 
         return exists;
     }
+
+    /**
+     * Lists the commands execute() would spawn, the tool is looked up on the PATH instead of run.
+     * @return the commands, or the precondition that would fail the run
+     */
+    @Override
+    public Either<String, Plan> plan() {
+        if (!commandExecutor.isOnPath("mvn")) {
+            return Either.left("Maven (mvn) command not found. Please install Maven with 'sdk install maven' and ensure it's in your PATH.");
+        }
+        if (pomXmlExists()) {
+            return Either.left("A pom.xml file already exists in the current directory");
+        }
+        List<String> spawned = new ArrayList<>();
+        spawned.add(VERSION_COMMAND);
+        commands.lines()
+                .filter(line -> !line.trim().isEmpty())
+                .findFirst()
+                .map(String::trim)
+                .ifPresent(spawned::add);
+        return Either.right(new Plan(List.of(), spawned, List.of("Creates the maven-demo folder with the generated project")));
+    }
 }
@@ -1,37 +1,50 @@
 package info.jab.cli.behaviours;
 
 import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.util.function.Supplier;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import info.jab.cli.io.CopyFiles;
+import info.jab.cli.io.ExecutionContext;
+import info.jab.cli.io.Plan;
 import io.vavr.control.Either;
 
 public class Sdkman implements Behaviour0 {
 
     private static final Logger logger = LoggerFactory.getLogger(Sdkman.class);
 
-    private final CopyFiles copyFiles;
+    // One CopyFiles per call, closing it releases the jar file system it leased
+    private final Supplier<CopyFiles> copyFiles;
 
     public Sdkman() {
-        this.copyFiles = new CopyFiles();
+        this.copyFiles = CopyFiles::new;
     }
 
     // Constructor for testing with a mock
     Sdkman(CopyFiles copyFiles) {
-        this.copyFiles = copyFiles;
+        this.copyFiles = () -> copyFiles;
     }
 
     @Override
     public Either<String, String> execute() {
         logger.info("Executing command to add .sdkmanrc file");
 
-        Path currentPath = Paths.get(System.getProperty("user.dir"));
+        Path currentPath = ExecutionContext.current().workingDirectory();
         String resourcePath = "templates/sdkman/";
-        copyFiles.copyClasspathFolder(resourcePath, currentPath);
+        try (CopyFiles files = copyFiles.get()) {
+            files.copyClasspathFolder(resourcePath, currentPath);
+        }
 
         return Either.right("Command execution completed successfully");
     }
+
+    @Override
+    public Either<String, Plan> plan() {
+        Path currentPath = ExecutionContext.current().workingDirectory();
+        try (CopyFiles files = copyFiles.get()) {
+            return Either.right(files.planClasspathFolder("templates/sdkman/", currentPath));
+        }
+    }
 }
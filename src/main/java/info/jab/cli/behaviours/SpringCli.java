@@ -1,5 +1,7 @@
 package info.jab.cli.behaviours;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 
 import org.slf4j.Logger;
@@ -7,12 +9,15 @@ import org.slf4j.LoggerFactory;
 
 import info.jab.cli.io.CommandExecutor;
 import info.jab.cli.io.FileSystemChecker;
+import info.jab.cli.io.Plan;
 import io.vavr.control.Either;
 
 public class SpringCli implements Behaviour0 {
 
     private static final Logger logger = LoggerFactory.getLogger(SpringCli.class);
 
+    private static final String VERSION_COMMAND = "spring --version";
+
     private final CommandExecutor commandExecutor;
     private final FileSystemChecker fileSystemChecker;
 
@@ -75,7 +80,7 @@ public class SpringCli implements Behaviour0 {
      */
     public boolean isSpringCliAvailable() {
         logger.debug("Checking if Maven is available...");
-        Either<String, String> result = commandExecutor.execute("spring --version");
+        Either<String, String> result = commandExecutor.execute(VERSION_COMMAND);
 
         if (result.isRight()) {
             return true;
@@ -99,4 +104,26 @@ public class SpringCli implements Behaviour0 {
 
         return exists;
     }
+
+    /**
+     * Lists the commands execute() would spawn, the tool is looked up on the PATH instead of run.
+     * @return the commands, or the precondition that would fail the run
+     */
+    @Override
+    public Either<String, Plan> plan() {
+        if (!commandExecutor.isOnPath("spring")) {
+            return Either.left("Spring Boot command not found. Please install Spring Boot with 'sdk install springboot' and ensure it's in your PATH.");
+        }
+        if (pomXmlExists()) {
+            return Either.left("A pom.xml file already exists in the current directory");
+        }
+        List<String> spawned = new ArrayList<>();
+        spawned.add(VERSION_COMMAND);
+        commands.lines()
+                .filter(line -> !line.trim().isEmpty())
+                .findFirst()
+                .map(String::trim)
+                .ifPresent(spawned::add);
+        return Either.right(new Plan(List.of(), spawned, List.of("Generates the project in the current directory, existing files are overwritten (--force)")));
+    }
 }
@@ -1,5 +1,6 @@
 package info.jab.cli.behaviours;
 
+import info.jab.cli.io.Plan;
 import io.vavr.control.Either;
 
 public class Visualvm implements Behaviour0 {
@@ -14,4 +15,9 @@ public class Visualvm implements Behaviour0 {
         commands.lines().forEach(System.out::println);
         return Either.right("VisualVM command completed successfully");
     }
+
+    @Override
+    public Either<String, Plan> plan() {
+        return Either.right(Plan.ofNote("Prints the commands to install and run VisualVM, nothing is written"));
+    }
 }
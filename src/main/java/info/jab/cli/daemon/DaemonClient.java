@@ -0,0 +1,110 @@
+package info.jab.cli.daemon;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import info.jab.cli.Setup;
+
+/**
+ * Thin client for the Setup daemon.
+ *
+ * It forwards argv, the working directory and the environment, streams stdout/stderr back
+ * and exits with the exit code of the invocation. It loads no CLI classes (picocli, logback)
+ * unless no daemon accepts the connection, a socket left by a killed daemon for instance,
+ * then the invocation runs in this process.
+ *
+ * java -cp setup.jar info.jab.cli.daemon.DaemonClient init --gitignore
+ */
+public final class DaemonClient {
+
+    private final Path socket;
+
+    public DaemonClient(Path socket) {
+        this.socket = socket;
+    }
+
+    /**
+     * Sends one invocation to the daemon.
+     *
+     * @param request the invocation
+     * @param out where stdout frames are written
+     * @param err where stderr frames are written
+     * @return the exit code of the invocation
+     * @throws UnavailableException if no daemon accepts the connection, nothing was sent
+     * @throws IOException if the daemon closes the connection early
+     */
+    public int send(DaemonProtocol.Request request, OutputStream out, OutputStream err) throws IOException {
+        try (SocketChannel channel = connect();
+             DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+             DataInputStream input = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)))) {
+
+            DaemonProtocol.writeRequest(output, request);
+            while (true) {
+                byte frame;
+                try {
+                    frame = input.readByte();
+                } catch (EOFException e) {
+                    throw new IOException("Daemon closed the connection before the exit code", e);
+                }
+                switch (frame) {
+                    case DaemonProtocol.STDOUT -> copyFrame(input, out);
+                    case DaemonProtocol.STDERR -> copyFrame(input, err);
+                    case DaemonProtocol.EXIT -> {
+                        return input.readInt();
+                    }
+                    default -> throw new IOException("Unknown daemon frame: " + frame);
+                }
+            }
+        }
+    }
+
+    private SocketChannel connect() throws UnavailableException {
+        try {
+            return SocketChannel.open(UnixDomainSocketAddress.of(socket));
+        } catch (IOException e) {
+            throw new UnavailableException(socket, e);
+        }
+    }
+
+    /**
+     * No daemon listens on the socket, the invocation can safely run elsewhere.
+     */
+    public static final class UnavailableException extends IOException {
+
+        private static final long serialVersionUID = 1L;
+
+        UnavailableException(Path socket, IOException cause) {
+            super("No daemon listening on " + socket + ": " + cause.getMessage(), cause);
+        }
+    }
+
+    private static void copyFrame(DataInputStream input, OutputStream target) throws IOException {
+        int length = input.readInt();
+        target.write(input.readNBytes(length));
+        target.flush();
+    }
+
+    public static void main(String[] args) {
+        DaemonProtocol.Request request = new DaemonProtocol.Request(
+            List.of(args), Paths.get(System.getProperty("user.dir")), System.getenv());
+        try {
+            System.exit(new DaemonClient(DaemonProtocol.socketPath()).send(request, System.out, System.err));
+        } catch (UnavailableException e) {
+            Setup.main(args);
+        } catch (IOException e) {
+            System.err.println("Setup daemon not available: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
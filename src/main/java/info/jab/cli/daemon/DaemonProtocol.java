@@ -0,0 +1,170 @@
+package info.jab.cli.daemon;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Wire format between DaemonClient and DaemonServer.
+ *
+ * The client sends one request (argv, working directory and environment) and the
+ * daemon answers with a sequence of frames: stdout and stderr chunks followed by
+ * a single exit frame carrying the exit code. Strings are length prefixed UTF-8, so an
+ * environment variable is not limited to the 64 KB of writeUTF.
+ */
+public final class DaemonProtocol {
+
+    static final int VERSION = 2;
+
+    static final byte STDOUT = 1;
+    static final byte STDERR = 2;
+    static final byte EXIT = 3;
+
+    static final String SOCKET_ENV = "SETUP_DAEMON_SOCKET";
+
+    // Bounds of a request, a corrupt or hostile count never sizes an allocation
+    static final int MAX_ENTRIES = 1 << 16;
+    static final int MAX_STRING_BYTES = 1 << 21;
+
+    private DaemonProtocol() {
+        // Static helpers only
+    }
+
+    public record Request(List<String> args, Path workingDirectory, Map<String, String> environment) {
+
+        public Request {
+            args = List.copyOf(args);
+            environment = Map.copyOf(environment);
+        }
+    }
+
+    /**
+     * Returns the socket used by the daemon, $SETUP_DAEMON_SOCKET or ~/.setup/daemon.sock.
+     *
+     * @return the Unix domain socket path
+     */
+    public static Path socketPath() {
+        String configured = System.getenv(SOCKET_ENV);
+        if (Objects.nonNull(configured) && !configured.isBlank()) {
+            return Paths.get(configured);
+        }
+        return Paths.get(System.getProperty("user.home"), ".setup", "daemon.sock");
+    }
+
+    static void writeRequest(DataOutputStream output, Request request) throws IOException {
+        output.writeInt(VERSION);
+        output.writeInt(request.args().size());
+        for (String arg : request.args()) {
+            writeString(output, arg);
+        }
+        writeString(output, request.workingDirectory().toString());
+        output.writeInt(request.environment().size());
+        for (Map.Entry<String, String> variable : request.environment().entrySet()) {
+            writeString(output, variable.getKey());
+            writeString(output, variable.getValue());
+        }
+        output.flush();
+    }
+
+    static Request readRequest(DataInputStream input) throws IOException {
+        int version = input.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported daemon protocol version: " + version);
+        }
+        int argCount = readCount(input, "argument");
+        List<String> args = new ArrayList<>(argCount);
+        for (int i = 0; i < argCount; i++) {
+            args.add(readString(input));
+        }
+        Path workingDirectory = Paths.get(readString(input));
+        int variableCount = readCount(input, "environment variable");
+        Map<String, String> environment = new HashMap<>(variableCount);
+        for (int i = 0; i < variableCount; i++) {
+            environment.put(readString(input), readString(input));
+        }
+        return new Request(args, workingDirectory, environment);
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static int readCount(DataInputStream input, String entry) throws IOException {
+        int count = input.readInt();
+        if (count < 0 || count > MAX_ENTRIES) {
+            throw new IOException("Invalid daemon " + entry + " count: " + count);
+        }
+        return count;
+    }
+
+    private static String readString(DataInputStream input) throws IOException {
+        int length = input.readInt();
+        if (length < 0 || length > MAX_STRING_BYTES) {
+            throw new IOException("Invalid daemon string length: " + length);
+        }
+        byte[] bytes = input.readNBytes(length);
+        if (bytes.length != length) {
+            throw new EOFException("Daemon request truncated");
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static void writeExit(DataOutputStream output, int exitCode) throws IOException {
+        synchronized (output) {
+            output.writeByte(EXIT);
+            output.writeInt(exitCode);
+            output.flush();
+        }
+    }
+
+    /**
+     * OutputStream that turns every write into a stdout or stderr frame.
+     */
+    static final class FrameOutputStream extends OutputStream {
+
+        private final DataOutputStream output;
+        private final byte channel;
+
+        FrameOutputStream(DataOutputStream output, byte channel) {
+            this.output = output;
+            this.channel = channel;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            if (length == 0) {
+                return;
+            }
+            // Both channels share the socket, frames must not interleave
+            synchronized (output) {
+                output.writeByte(channel);
+                output.writeInt(length);
+                output.write(bytes, offset, length);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            synchronized (output) {
+                output.flush();
+            }
+        }
+    }
+}
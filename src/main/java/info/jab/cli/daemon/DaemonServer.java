@@ -0,0 +1,201 @@
+package info.jab.cli.daemon;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import info.jab.cli.io.ExecutionContext;
+
+/**
+ * Resident process that serves CLI invocations over a Unix domain socket.
+ *
+ * Every connection is one invocation and runs on its own virtual thread with its
+ * own ExecutionContext, while System.out and System.err are routed back to the client.
+ * Any process allowed to connect runs commands as the user, so a directory created for
+ * the socket is private (rwx------) and the socket itself is rw-------.
+ */
+public final class DaemonServer implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(DaemonServer.class);
+
+    /**
+     * Runs one invocation and returns its exit code.
+     */
+    @FunctionalInterface
+    public interface RequestHandler {
+        int handle(List<String> args);
+    }
+
+    private final Path socket;
+    private final RequestHandler handler;
+    private final CountDownLatch terminated = new CountDownLatch(1);
+
+    private @Nullable ServerSocketChannel server;
+    private @Nullable ExecutorService requests;
+    private @Nullable PrintStream originalOut;
+    private @Nullable PrintStream originalErr;
+
+    public DaemonServer(Path socket, RequestHandler handler) {
+        this.socket = socket;
+        this.handler = handler;
+    }
+
+    /**
+     * Binds the socket and starts accepting requests in the background.
+     *
+     * @throws IOException if the socket cannot be bound or another daemon is listening on it
+     */
+    public synchronized void start() throws IOException {
+        removeStaleSocket();
+        Path parent = socket.toAbsolutePath().getParent();
+        if (Objects.nonNull(parent) && !Files.isDirectory(parent)) {
+            if (isPosix()) {
+                Files.createDirectories(parent, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+            } else {
+                Files.createDirectories(parent);
+            }
+        }
+        ServerSocketChannel channel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        try {
+            channel.bind(UnixDomainSocketAddress.of(socket));
+            if (isPosix()) {
+                Files.setPosixFilePermissions(socket, PosixFilePermissions.fromString("rw-------"));
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        server = channel;
+
+        PrintStream out = System.out;
+        PrintStream err = System.err;
+        originalOut = out;
+        originalErr = err;
+        System.setOut(new PrintStream(RoutingOutputStream.stdout(out), true, out.charset()));
+        System.setErr(new PrintStream(RoutingOutputStream.stderr(err), true, err.charset()));
+
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        requests = executor;
+        Thread.ofVirtual().name("setup-daemon-acceptor").start(() -> accept(channel, executor));
+        logger.info("Setup daemon listening on {}", socket);
+    }
+
+    private boolean isPosix() {
+        return socket.getFileSystem().supportedFileAttributeViews().contains("posix");
+    }
+
+    private void removeStaleSocket() throws IOException {
+        if (!Files.exists(socket)) {
+            return;
+        }
+        if (isListening()) {
+            throw new IOException("A daemon is already listening on " + socket);
+        }
+        // Left behind by a daemon that was killed
+        Files.delete(socket);
+    }
+
+    private boolean isListening() {
+        try (SocketChannel probe = SocketChannel.open(UnixDomainSocketAddress.of(socket))) {
+            return probe.isConnected();
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private void accept(ServerSocketChannel channel, ExecutorService executor) {
+        while (channel.isOpen()) {
+            try {
+                SocketChannel client = channel.accept();
+                executor.execute(() -> serve(client));
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                logger.error("Error accepting daemon request: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void serve(SocketChannel client) {
+        try (client;
+             DataInputStream input = new DataInputStream(new BufferedInputStream(Channels.newInputStream(client)));
+             DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(client)))) {
+
+            DaemonProtocol.Request request = DaemonProtocol.readRequest(input);
+            ExecutionContext context = new ExecutionContext(request.workingDirectory(), request.environment());
+            OutputStream requestOut = new DaemonProtocol.FrameOutputStream(output, DaemonProtocol.STDOUT);
+            OutputStream requestErr = new DaemonProtocol.FrameOutputStream(output, DaemonProtocol.STDERR);
+
+            int exitCode = RoutingOutputStream.callWith(requestOut, requestErr, () ->
+                ExecutionContext.callWith(context, () -> handle(request.args())));
+            DaemonProtocol.writeExit(output, exitCode);
+        } catch (IOException e) {
+            logger.error("Error serving daemon request: {}", e.getMessage());
+        }
+    }
+
+    private int handle(List<String> args) {
+        try {
+            return handler.handle(args);
+        } catch (RuntimeException e) {
+            System.err.println("Unexpected error in daemon: " + e.getMessage());
+            return 1;
+        } finally {
+            System.out.flush();
+            System.err.flush();
+        }
+    }
+
+    /**
+     * Blocks until the daemon is closed.
+     *
+     * @throws InterruptedException if the waiting thread is interrupted
+     */
+    public void awaitTermination() throws InterruptedException {
+        terminated.await();
+    }
+
+    /**
+     * Stops accepting requests, waits for the running ones and removes the socket.
+     */
+    @Override
+    public synchronized void close() {
+        if (Objects.isNull(server)) {
+            return;
+        }
+        try {
+            server.close();
+            Objects.requireNonNull(requests).close();
+            Files.deleteIfExists(socket);
+        } catch (IOException e) {
+            logger.warn("Error stopping daemon: {}", e.getMessage());
+        } finally {
+            System.setOut(Objects.requireNonNull(originalOut));
+            System.setErr(Objects.requireNonNull(originalErr));
+            server = null;
+            terminated.countDown();
+        }
+    }
+}
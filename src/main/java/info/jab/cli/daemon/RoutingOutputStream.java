@@ -0,0 +1,80 @@
+package info.jab.cli.daemon;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.jspecify.annotations.Nullable;
+
+import info.jab.cli.io.ExecutionContext;
+
+/**
+ * OutputStream installed as System.out / System.err while the daemon runs.
+ *
+ * Writes go to the streams bound to the current request thread, so logs and console
+ * output of concurrent requests reach their own client. The streams are carried to the
+ * tasks a request wraps with ExecutionContext.wrap, never inherited: threads without bound
+ * streams (the daemon itself, background GitCache work) write to the original process stream.
+ */
+final class RoutingOutputStream extends OutputStream {
+
+    private record Targets(OutputStream out, OutputStream err) {}
+
+    private static final ThreadLocal<@Nullable Targets> TARGETS = new ThreadLocal<>();
+
+    static {
+        ExecutionContext.carry(TARGETS);
+    }
+
+    private final OutputStream fallback;
+    private final Function<Targets, OutputStream> channel;
+
+    private RoutingOutputStream(OutputStream fallback, Function<Targets, OutputStream> channel) {
+        this.fallback = fallback;
+        this.channel = channel;
+    }
+
+    static RoutingOutputStream stdout(OutputStream fallback) {
+        return new RoutingOutputStream(fallback, Targets::out);
+    }
+
+    static RoutingOutputStream stderr(OutputStream fallback) {
+        return new RoutingOutputStream(fallback, Targets::err);
+    }
+
+    static <T> T callWith(OutputStream out, OutputStream err, Supplier<T> action) {
+        Targets previous = TARGETS.get();
+        TARGETS.set(new Targets(out, err));
+        try {
+            return action.get();
+        } finally {
+            if (Objects.isNull(previous)) {
+                TARGETS.remove();
+            } else {
+                TARGETS.set(previous);
+            }
+        }
+    }
+
+    private OutputStream current() {
+        Targets targets = TARGETS.get();
+        return Objects.nonNull(targets) ? channel.apply(targets) : fallback;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        current().write(b);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        current().write(bytes, offset, length);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        current().flush();
+    }
+}
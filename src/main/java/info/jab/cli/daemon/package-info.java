@@ -0,0 +1,4 @@
+@NullMarked
+package info.jab.cli.daemon;
+
+import org.jspecify.annotations.NullMarked;
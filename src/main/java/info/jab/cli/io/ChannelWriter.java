@@ -0,0 +1,154 @@
+package info.jab.cli.io;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.zip.CRC32C;
+
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Writer encoding UTF-8 straight into a pooled direct buffer drained to a FileChannel.
+ *
+ * Characters are never materialized as a byte[]: large generated content costs one
+ * 64 KiB buffer, whatever its size. The size and CRC32C of the bytes written are kept
+ * for the up-to-date check of CopyFiles.
+ */
+final class ChannelWriter extends Writer {
+
+    static final int BUFFER_SIZE = 64 * 1024;
+    private static final int POOLED_BUFFERS = 8;
+    private static final ConcurrentLinkedQueue<ByteBuffer> POOL = new ConcurrentLinkedQueue<>();
+
+    private final FileChannel channel;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private final CRC32C crc = new CRC32C();
+    private @Nullable ByteBuffer buffer;
+    private @Nullable CharBuffer carry;
+    private long size;
+
+    ChannelWriter(FileChannel channel) {
+        this.channel = channel;
+        ByteBuffer pooled = POOL.poll();
+        this.buffer = Objects.isNull(pooled) ? ByteBuffer.allocateDirect(BUFFER_SIZE) : pooled;
+    }
+
+    @Override
+    public void write(char[] chars, int offset, int length) throws IOException {
+        encode(CharBuffer.wrap(chars, offset, length));
+    }
+
+    @Override
+    public void write(String text, int offset, int length) throws IOException {
+        encode(CharBuffer.wrap(text, offset, offset + length));
+    }
+
+    @Override
+    public Writer append(@Nullable CharSequence text) throws IOException {
+        encode(CharBuffer.wrap(Objects.isNull(text) ? "null" : text));
+        return this;
+    }
+
+    @Override
+    public Writer append(@Nullable CharSequence text, int start, int end) throws IOException {
+        encode(CharBuffer.wrap(Objects.isNull(text) ? "null" : text, start, end));
+        return this;
+    }
+
+    private void encode(CharBuffer input) throws IOException {
+        ByteBuffer output = open();
+        CharBuffer pending = carry;
+        if (Objects.isNull(pending)) {
+            encode(input, output);
+            return;
+        }
+        // Complete the surrogate pair split across two writes
+        carry = null;
+        if (!input.hasRemaining()) {
+            carry = pending;
+            return;
+        }
+        CharBuffer pair = CharBuffer.allocate(pending.remaining() + 1).put(pending).put(input.get());
+        encode(pair.flip(), output);
+        encode(input, output);
+    }
+
+    private void encode(CharBuffer input, ByteBuffer output) throws IOException {
+        while (true) {
+            CoderResult result = encoder.encode(input, output, false);
+            if (result.isOverflow()) {
+                drain(output);
+            } else if (result.isUnderflow()) {
+                if (input.hasRemaining()) {
+                    // A trailing high surrogate waits for the next write
+                    carry = CharBuffer.allocate(input.remaining()).put(input).flip();
+                }
+                return;
+            } else {
+                result.throwException();
+            }
+        }
+    }
+
+    private void drain(ByteBuffer output) throws IOException {
+        output.flip();
+        crc.update(output.duplicate());
+        size += output.remaining();
+        while (output.hasRemaining()) {
+            channel.write(output);
+        }
+        output.clear();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        drain(open());
+    }
+
+    @Override
+    public void close() throws IOException {
+        ByteBuffer output = buffer;
+        if (Objects.isNull(output)) {
+            return;
+        }
+        try {
+            CharBuffer pending = carry;
+            CoderResult result = encoder.encode(Objects.isNull(pending) ? CharBuffer.allocate(0) : pending, output, true);
+            if (result.isError()) {
+                result.throwException();
+            }
+            encoder.flush(output);
+            drain(output);
+        } finally {
+            buffer = null;
+            // A failed close leaves bytes behind, never hand them to the next writer
+            output.clear();
+            if (POOL.size() < POOLED_BUFFERS) {
+                POOL.offer(output);
+            }
+        }
+    }
+
+    private ByteBuffer open() throws IOException {
+        ByteBuffer output = buffer;
+        if (Objects.isNull(output)) {
+            throw new IOException("Writer closed");
+        }
+        return output;
+    }
+
+    long size() {
+        return size;
+    }
+
+    long crc32c() {
+        return crc.getValue();
+    }
+}
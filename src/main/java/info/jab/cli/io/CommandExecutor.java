@@ -9,8 +9,14 @@ import io.vavr.control.Either;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
+import java.util.regex.Pattern;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
@@ -23,6 +29,11 @@ public class CommandExecutor {
 
     private static final int DEFAULT_TIMEOUT_MINUTES = 20;
 
+    private static final Pattern PATH_SEPARATOR = Pattern.compile(Pattern.quote(File.pathSeparator));
+
+    // Windows launchers of mvn, spring and quarkus
+    private static final List<String> EXECUTABLE_SUFFIXES = List.of("", ".exe", ".cmd", ".bat");
+
     /**
      * Executes a command synchronously.
      *
@@ -30,12 +41,13 @@ public class CommandExecutor {
      * @return Either<String, String> the result of command execution
      */
     public Either<String, String> execute(String command) {
-        File workingDirectory = new File(System.getProperty("user.dir"));
+        File workingDirectory = ExecutionContext.current().workingDirectory().toFile();
         return execute(command, workingDirectory, DEFAULT_TIMEOUT_MINUTES);
     }
 
     /**
      * Executes a command synchronously with custom working directory and timeout.
+     * A bare command name is resolved on the PATH of the current invocation, as isOnPath does.
      *
      * @param command the command to execute
      * @param workingDirectory the directory to execute the command in
@@ -47,11 +59,22 @@ public class CommandExecutor {
         try {
             logger.info("Executing command: {} in directory: {}", command, workingDirectory.getAbsolutePath());
 
-            List<String> commandParts = Arrays.asList(command.trim().split("\\s+"));
+            List<String> commandParts = new ArrayList<>(Arrays.asList(command.trim().split("\\s+")));
+            // ProcessBuilder would look a bare name up on the PATH of this process, not of the invocation
+            String executable = commandParts.get(0);
+            if (!executable.contains("/") && !executable.contains(File.separator)) {
+                Optional<Path> resolved = resolve(executable);
+                if (resolved.isEmpty()) {
+                    logger.error("Command not found on PATH: {}", executable);
+                    return Either.left("Command not found on PATH: " + executable);
+                }
+                commandParts.set(0, resolved.get().toString());
+            }
 
             ProcessResult result = new ProcessExecutor()
                     .command(commandParts)
                     .directory(workingDirectory)
+                    .environment(ExecutionContext.current().environment())
                     .readOutput(true)
                     .timeout(timeoutMinutes, TimeUnit.MINUTES)
                     .execute();
@@ -88,4 +111,38 @@ public class CommandExecutor {
             return Either.left(e.getMessage());
         }
     }
+
+    /**
+     * Tells whether an executable is on the PATH of the current invocation, without spawning it.
+     *
+     * @param executable the command name, e.g. mvn
+     * @return true if a PATH directory holds an executable file with that name
+     */
+    public boolean isOnPath(String executable) {
+        return resolve(executable).isPresent();
+    }
+
+    // The first executable file with that name in the PATH directories of the current invocation
+    private static Optional<Path> resolve(String executable) {
+        if (executable.isEmpty()) {
+            return Optional.empty();
+        }
+        String path = ExecutionContext.current().environment().getOrDefault("PATH", "");
+        for (String directory : PATH_SEPARATOR.split(path, -1)) {
+            if (directory.isEmpty()) {
+                continue;
+            }
+            for (String suffix : EXECUTABLE_SUFFIXES) {
+                try {
+                    Path candidate = Path.of(directory, executable + suffix);
+                    if (Files.isRegularFile(candidate) && Files.isExecutable(candidate)) {
+                        return Optional.of(candidate.toAbsolutePath());
+                    }
+                } catch (InvalidPathException e) {
+                    // Malformed PATH entry, ignore it
+                }
+            }
+        }
+        return Optional.empty();
+    }
 }
@@ -0,0 +1,124 @@
+package info.jab.cli.io;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Runs file copies on virtual threads, at most {@code concurrency} of them at a time.
+ *
+ * Per-file latency dominates on network and overlay file systems (CI containers), so the
+ * files of a folder are written in parallel once its directories exist. Every task runs
+ * even when some fail, the failures are reported together.
+ */
+final class CopyEngine {
+
+    static final String CONCURRENCY_PROPERTY = "setup.copy.concurrency";
+    static final int DEFAULT_CONCURRENCY = 16;
+
+    /**
+     * Copies one file.
+     */
+    @FunctionalInterface
+    interface Task {
+
+        /**
+         * Copies the file unless the destination is up to date.
+         *
+         * @return true when the destination was written
+         * @throws IOException if the file cannot be copied
+         */
+        boolean copy() throws IOException;
+    }
+
+    private final int concurrency;
+
+    CopyEngine(int concurrency) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("Copy concurrency must be at least 1: " + concurrency);
+        }
+        this.concurrency = concurrency;
+    }
+
+    static CopyEngine fromSystemProperties() {
+        return new CopyEngine(Integer.getInteger(CONCURRENCY_PROPERTY, DEFAULT_CONCURRENCY));
+    }
+
+    /**
+     * Runs every task.
+     *
+     * @param tasks the copies to run
+     * @return the number of destinations written, the others were up to date
+     * @throws IOException with every failure attached as suppressed, if any task failed
+     */
+    int run(List<Task> tasks) throws IOException {
+        if (concurrency == 1 || tasks.size() <= 1) {
+            return runSequentially(tasks);
+        }
+        Semaphore permits = new Semaphore(concurrency);
+        List<Future<Boolean>> results = new ArrayList<>(tasks.size());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Task task : tasks) {
+                // Acquired before submitting, so a 50k file tree never has 50k parked threads
+                permits.acquire();
+                results.add(executor.submit(ExecutionContext.wrap(() -> {
+                    try {
+                        return task.copy();
+                    } finally {
+                        permits.release();
+                    }
+                })));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while copying files");
+        }
+
+        int written = 0;
+        List<Throwable> failures = new ArrayList<>();
+        for (Future<Boolean> result : results) {
+            try {
+                if (result.get()) {
+                    written++;
+                }
+            } catch (ExecutionException e) {
+                failures.add(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while copying files");
+            }
+        }
+        return checkFailures(written, failures, tasks.size());
+    }
+
+    private static int runSequentially(List<Task> tasks) throws IOException {
+        int written = 0;
+        List<Throwable> failures = new ArrayList<>();
+        for (Task task : tasks) {
+            try {
+                if (task.copy()) {
+                    written++;
+                }
+            } catch (IOException | RuntimeException e) {
+                failures.add(e);
+            }
+        }
+        return checkFailures(written, failures, tasks.size());
+    }
+
+    private static int checkFailures(int written, List<Throwable> failures, int total) throws IOException {
+        if (failures.isEmpty()) {
+            return written;
+        }
+        IOException error = new IOException(failures.size() + " of " + total + " files could not be copied, first: "
+            + failures.get(0).getMessage());
+        failures.forEach(error::addSuppressed);
+        throw error;
+    }
+}
@@ -1,70 +1,336 @@
 package info.jab.cli.io;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.FileSystem;
-import java.nio.file.FileSystems;
+import java.nio.channels.FileChannel;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.nio.file.attribute.BasicFileAttributes;
-import java.util.Collections;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32C;
 
-public class CopyFiles {
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-    private static FileVisitResult createDirectoryAndContinue(Path source, Path destination, Path dir) throws IOException {
+import io.vavr.Lazy;
+
+/**
+ * Copies templates from the classpath.
+ *
+ * Templates listed in the build time TemplateIndex are written from the memory-mapped
+ * TemplateBundle (streamed from the class loader when no bundle is packaged), other
+ * folders (tests, IDE runs without the index) fall back to a file tree walk.
+ * The jar (or native image resource) file system is leased from a shared pool on first use
+ * and kept until close, so copying many templates never re-opens the archive and concurrent
+ * copies, several features in one run or daemon requests, share one open file system.
+ * Behaviours use one instance per execution and close it, the last lease closes the archive.
+ *
+ * Copies are incremental: a destination whose size and content already match the template
+ * (CRC32C from the index, or a byte comparison otherwise) is not rewritten, so re-running a
+ * feature does not wake up file watchers, IDE indexers or build caches.
+ *
+ * The directories of a folder are created first, then its files are copied by the
+ * CopyEngine on virtual threads (setup.copy.concurrency, 16 by default). With
+ * setup.copy.mode=staged (or WriteMode.STAGED) a copy is staged next to the destination and
+ * moved into place, so a failure leaves the destination as it was.
+ */
+public class CopyFiles implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(CopyFiles.class);
+
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Files written and files left untouched because their content was already up to date.
+     *
+     * @param written the files created or rewritten
+     * @param unchanged the files skipped
+     */
+    public record Report(int written, int unchanged) {}
+
+    /**
+     * How files reach their destination.
+     */
+    public enum WriteMode {
+        // Written in place, a failure can leave a partial copy
+        DIRECT,
+        // Staged next to the destination and moved into place, see CopyOutput
+        STAGED;
+
+        static WriteMode fromSystemProperties() {
+            String mode = System.getProperty(MODE_PROPERTY, DIRECT.name());
+            for (WriteMode value : values()) {
+                if (value.name().equalsIgnoreCase(mode.trim())) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException(
+                "Unknown copy mode " + MODE_PROPERTY + "=" + mode + ", expected direct or staged");
+        }
+    }
+
+    static final String MODE_PROPERTY = "setup.copy.mode";
+
+    /**
+     * Generates the content of a file, chunk by chunk.
+     */
+    @FunctionalInterface
+    public interface ContentWriter {
+        void write(Writer writer) throws IOException;
+    }
+
+    // Outcome of one copy call
+    private static final class Tally {
+        private int written;
+        private int unchanged;
+
+        private void add(boolean wasWritten) {
+            if (wasWritten) {
+                written++;
+            } else {
+                unchanged++;
+            }
+        }
+
+        private void add(int writtenFiles, int files) {
+            written += writtenFiles;
+            unchanged += files - writtenFiles;
+        }
+    }
+
+    private static final Lazy<TemplateIndex> INDEX = Lazy.of(() -> TemplateIndex.load(CopyFiles.class.getClassLoader()));
+    private static final Lazy<Optional<TemplateBundle>> BUNDLE = Lazy.of(() ->
+        TemplateBundle.open(CopyFiles.class.getClassLoader(), INDEX.get()));
+
+    private final ClassLoader classLoader;
+    private final Lazy<TemplateIndex> index;
+    private final Lazy<Optional<TemplateBundle>> bundle;
+    private final JarFileSystems fileSystems;
+    private final CopyEngine engine;
+    private final WriteMode mode;
+    private final Map<String, JarFileSystems.Lease> leases = new HashMap<>();
+    private final AtomicInteger written = new AtomicInteger();
+    private final AtomicInteger unchanged = new AtomicInteger();
+
+    public CopyFiles() {
+        this(WriteMode.fromSystemProperties());
+    }
+
+    public CopyFiles(WriteMode mode) {
+        this(CopyFiles.class.getClassLoader(), INDEX, BUNDLE, JarFileSystems.shared(), CopyEngine.fromSystemProperties(),
+            mode);
+    }
+
+    // Constructor for testing with custom dependencies
+    CopyFiles(ClassLoader classLoader, JarFileSystems fileSystems) {
+        this(classLoader, fileSystems, CopyEngine.fromSystemProperties());
+    }
+
+    // Constructor for testing with custom dependencies
+    CopyFiles(ClassLoader classLoader, JarFileSystems fileSystems, CopyEngine engine) {
+        this(classLoader, fileSystems, engine, WriteMode.DIRECT);
+    }
+
+    // Constructor for testing with custom dependencies
+    CopyFiles(ClassLoader classLoader, JarFileSystems fileSystems, CopyEngine engine, WriteMode mode) {
+        this.classLoader = classLoader;
+        this.index = Lazy.of(() -> TemplateIndex.load(classLoader));
+        this.bundle = Lazy.of(() -> TemplateBundle.open(classLoader, index.get()));
+        this.fileSystems = fileSystems;
+        this.engine = engine;
+        this.mode = mode;
+    }
+
+    private CopyFiles(ClassLoader classLoader, Lazy<TemplateIndex> index, Lazy<Optional<TemplateBundle>> bundle,
+                      JarFileSystems fileSystems, CopyEngine engine, WriteMode mode) {
+        this.classLoader = classLoader;
+        this.index = index;
+        this.bundle = bundle;
+        this.fileSystems = fileSystems;
+        this.engine = engine;
+        this.mode = mode;
+    }
+
+    private static FileVisitResult createDirectoryAndContinue(Path source, CopyOutput output, Path dir) throws IOException {
         // Convert to string to avoid ProviderMismatchException
         String relativePath = source.relativize(dir).toString();
-        Path targetDir = destination.resolve(relativePath);
-        Files.createDirectories(targetDir);
+        Path targetDir = output.destination.resolve(relativePath);
+        output.directory(targetDir);
         return FileVisitResult.CONTINUE;
     }
 
-    private static FileVisitResult copyFileAndContinue(Path source, Path destination, Path file) throws IOException {
+    private static FileVisitResult addCopyAndContinue(Path source, CopyOutput output, Path file, List<CopyEngine.Task> tasks) {
         // Convert to string to avoid ProviderMismatchException
         String relativePath = source.relativize(file).toString();
-        Path targetFile = destination.resolve(relativePath);
-        Files.copy(file, targetFile, StandardCopyOption.REPLACE_EXISTING);
+        Path targetFile = output.destination.resolve(relativePath);
+        tasks.add(() -> copyIfChanged(file, targetFile, output));
         return FileVisitResult.CONTINUE;
     }
 
-    public void copyClasspathFolder(String classpathFolder, Path destination) {
-        try {
-            URL resource = getClass().getClassLoader().getResource(classpathFolder);
-            if (Objects.isNull(resource)) {
-                throw new IllegalArgumentException("Classpath folder not found: " + classpathFolder);
+    // Directories are created by the walk, files are copied afterwards in parallel
+    private void copyWalkedFolder(Path source, CopyOutput output, CopyFilter filter, Tally tally)
+            throws IOException {
+        List<CopyEngine.Task> tasks = new ArrayList<>();
+        Files.walkFileTree(source, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                if (!dir.equals(source) && filter.prunes(relativeName(source, dir))) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                return createDirectoryAndContinue(source, output, dir);
             }
-            URI uri = resource.toURI();
-            Path source;
 
-            if (uri.getScheme().equals("jar")) {
-                // Handle JAR file case
-                FileSystem jarFileSystem = FileSystems.newFileSystem(uri, Collections.emptyMap());
-                source = jarFileSystem.getPath(classpathFolder);
-            } else {
-                // Handle regular file system case
-                source = Paths.get(uri);
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (!filter.includes(relativeName(source, file))) {
+                    return FileVisitResult.CONTINUE;
+                }
+                return addCopyAndContinue(source, output, file, tasks);
             }
+        });
+        tally.add(engine.run(tasks), tasks.size());
+    }
 
-            Files.walkFileTree(source, new SimpleFileVisitor<Path>() {
-                @Override
-                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
-                    return createDirectoryAndContinue(source, destination, dir);
-                }
+    // Filter patterns always use '/', whatever the file system separator
+    private static String relativeName(Path source, Path path) {
+        return source.relativize(path).toString().replace('\\', '/');
+    }
 
-                @Override
-                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
-                    return copyFileAndContinue(source, destination, file);
-                }
-            });
+    private static boolean isUpToDate(Path targetFile, Path source) throws IOException {
+        return Files.isRegularFile(targetFile)
+            && Files.size(targetFile) == Files.size(source)
+            && Files.mismatch(source, targetFile) == -1;
+    }
+
+    private static boolean copyIfChanged(Path source, Path targetFile, CopyOutput output) throws IOException {
+        if (isUpToDate(targetFile, source)) {
+            return false;
+        }
+        Files.copy(source, output.file(targetFile), StandardCopyOption.REPLACE_EXISTING);
+        return true;
+    }
+
+    private static boolean isUpToDate(Path targetFile, TemplateIndex.Entry entry) throws IOException {
+        return isUpToDate(targetFile, entry.size(), entry.crc32c());
+    }
+
+    private static boolean isUpToDate(Path targetFile, long size, long crc32c) throws IOException {
+        if (!Files.isRegularFile(targetFile) || Files.size(targetFile) != size) {
+            return false;
+        }
+        CRC32C crc = new CRC32C();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream input = Files.newInputStream(targetFile)) {
+            for (int read = input.read(buffer); read >= 0; read = input.read(buffer)) {
+                crc.update(buffer, 0, read);
+            }
+        }
+        return crc.getValue() == crc32c;
+    }
+
+    private void copyIndexedFolder(String classpathFolder, List<TemplateIndex.Entry> entries, CopyOutput output,
+                                   CopyFilter filter, Tally tally) throws IOException {
+        output.directory(output.destination);
+        List<CopyEngine.Task> tasks = new ArrayList<>();
+        for (TemplateIndex.Entry entry : entries) {
+            String relativePath = entry.relativeTo(classpathFolder);
+            if (!filter.accepts(relativePath)) {
+                continue;
+            }
+            Path targetFile = output.destination.resolve(relativePath);
+            tasks.add(() -> copyIndexedFile(entry, targetFile, output));
+        }
+        tally.add(engine.run(tasks), tasks.size());
+    }
+
+    private boolean copyIndexedFile(TemplateIndex.Entry entry, Path targetFile, CopyOutput output) throws IOException {
+        if (isUpToDate(targetFile, entry)) {
+            return false;
+        }
+        writeIndexedFile(entry, output.file(targetFile));
+        return true;
+    }
+
+    private void writeIndexedFile(TemplateIndex.Entry entry, Path targetFile) throws IOException {
+        Optional<TemplateBundle> templates = bundle.get();
+        if (templates.isPresent()) {
+            templates.get().write(entry, targetFile);
+            return;
+        }
+        try (InputStream input = classLoader.getResourceAsStream(entry.path())) {
+            if (Objects.isNull(input)) {
+                throw new IOException("Indexed template not found on the classpath: " + entry.path());
+            }
+            Files.copy(input, targetFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private void report(String source, Path destination, Tally tally) {
+        written.addAndGet(tally.written);
+        unchanged.addAndGet(tally.unchanged);
+        logger.info("Copied {} to {}: {} written, {} unchanged", source, destination, tally.written, tally.unchanged);
+    }
+
+    /**
+     * Totals of every copy made by this instance.
+     *
+     * @return the files written and skipped so far
+     */
+    public Report report() {
+        return new Report(written.get(), unchanged.get());
+    }
+
+    /**
+     * Resolves a classpath resource URI to a Path.
+     * Resources packaged in a jar use the ZipFS provider (jar:) and resources
+     * embedded in a GraalVM native image use the resource provider (resource:),
+     * both providers require an open file system to resolve paths.
+     */
+    private Path toPath(URI uri) throws IOException {
+        if (uri.getScheme().equals("file")) {
+            return Paths.get(uri);
+        }
+        synchronized (leases) {
+            String key = JarFileSystems.key(uri);
+            JarFileSystems.Lease lease = leases.get(key);
+            if (Objects.isNull(lease)) {
+                lease = fileSystems.acquire(uri);
+                leases.put(key, lease);
+            }
+            return lease.resolve(uri);
+        }
+    }
+
+    public void copyClasspathFolder(String classpathFolder, Path destination) {
+        copyClasspathFolder(classpathFolder, destination, CopyFilter.ALL);
+    }
+
+    /**
+     * Copies the files of a classpath folder selected by a filter.
+     * Excluded directories are pruned, they are neither walked nor created.
+     *
+     * @param classpathFolder the classpath folder to copy
+     * @param destination the destination folder
+     * @param filter the include and exclude patterns, relative to the classpath folder
+     */
+    public void copyClasspathFolder(String classpathFolder, Path destination, CopyFilter filter) {
+        try {
+            copyFolder(classpathFolder, destination, filter);
         } catch (IOException | URISyntaxException e) {
             throw new RuntimeException("Error copying folder from " + classpathFolder + " to " + destination, e);
         }
@@ -72,70 +338,243 @@ public class CopyFiles {
 
     public void copyClasspathFolderExcludingFiles(String classpathFolder, Path destination, List<String> excludedFiles) {
         try {
-            URL resource = getClass().getClassLoader().getResource(classpathFolder);
-            if (Objects.isNull(resource)) {
-                throw new IllegalArgumentException("Classpath folder not found: " + classpathFolder);
-            }
-            URI uri = resource.toURI();
-            Path source;
+            copyFolder(classpathFolder, destination, CopyFilter.excluding(excludedFiles));
+        } catch (IOException | URISyntaxException e) {
+            throw new RuntimeException("Error copying folder from " + classpathFolder + " to " + destination + " excluding files", e);
+        }
+    }
 
-            if (uri.getScheme().equals("jar")) {
-                // Handle JAR file case
-                FileSystem jarFileSystem = FileSystems.newFileSystem(uri, Collections.emptyMap());
-                source = jarFileSystem.getPath(classpathFolder);
+    private void copyFolder(String classpathFolder, Path destination, CopyFilter filter)
+            throws IOException, URISyntaxException {
+        Tally tally = new Tally();
+        Optional<List<TemplateIndex.Entry>> indexed = index.get().folder(classpathFolder);
+        URL resource = classLoader.getResource(classpathFolder);
+        if (indexed.isEmpty() && Objects.isNull(resource)) {
+            throw new IllegalArgumentException("Classpath folder not found: " + classpathFolder);
+        }
+        try (CopyOutput output = mode == WriteMode.STAGED ? CopyOutput.staged(destination) : CopyOutput.direct(destination)) {
+            if (indexed.isPresent()) {
+                copyIndexedFolder(classpathFolder, indexed.get(), output, filter, tally);
             } else {
-                // Handle regular file system case
-                source = Paths.get(uri);
+                copyWalkedFolder(toPath(Objects.requireNonNull(resource).toURI()), output, filter, tally);
             }
+            output.commit();
+        }
+        report(classpathFolder, destination, tally);
+    }
+
+    public Plan planClasspathFolder(String classpathFolder, Path destination) {
+        return planClasspathFolder(classpathFolder, destination, CopyFilter.ALL);
+    }
 
+    /**
+     * Plans a folder copy: the files it would create, overwrite or leave unchanged.
+     * The destination is only read, nothing is written and the report is not updated.
+     *
+     * @param classpathFolder the classpath folder to copy
+     * @param destination the destination folder
+     * @param filter the include and exclude patterns, relative to the classpath folder
+     * @return the files of the copy
+     */
+    public Plan planClasspathFolder(String classpathFolder, Path destination, CopyFilter filter) {
+        try {
+            List<Plan.FileChange> files = new ArrayList<>();
+            Optional<List<TemplateIndex.Entry>> indexed = index.get().folder(classpathFolder);
+            if (indexed.isPresent()) {
+                for (TemplateIndex.Entry entry : indexed.get()) {
+                    String relativePath = entry.relativeTo(classpathFolder);
+                    if (filter.accepts(relativePath)) {
+                        Path targetFile = destination.resolve(relativePath);
+                        files.add(Plan.FileChange.of(targetFile, entry.size(), isUpToDate(targetFile, entry)));
+                    }
+                }
+                return Plan.ofFiles(files);
+            }
+            URL resource = classLoader.getResource(classpathFolder);
+            if (Objects.isNull(resource)) {
+                throw new IllegalArgumentException("Classpath folder not found: " + classpathFolder);
+            }
+            Path source = toPath(resource.toURI());
             Files.walkFileTree(source, new SimpleFileVisitor<Path>() {
                 @Override
-                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
-                    return createDirectoryAndContinue(source, destination, dir);
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    if (!dir.equals(source) && filter.prunes(relativeName(source, dir))) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    return FileVisitResult.CONTINUE;
                 }
 
                 @Override
                 public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
-                    String fileName = file.getFileName().toString();
-                    if (excludedFiles.contains(fileName)) {
-                        return FileVisitResult.CONTINUE;
+                    if (filter.includes(relativeName(source, file))) {
+                        // Convert to string to avoid ProviderMismatchException
+                        Path targetFile = destination.resolve(source.relativize(file).toString());
+                        files.add(Plan.FileChange.of(targetFile, attrs.size(), isUpToDate(targetFile, file)));
                     }
-                    return copyFileAndContinue(source, destination, file);
+                    return FileVisitResult.CONTINUE;
                 }
             });
+            return Plan.ofFiles(files);
         } catch (IOException | URISyntaxException e) {
-            throw new RuntimeException("Error copying folder from " + classpathFolder + " to " + destination + " excluding files", e);
+            throw new RuntimeException("Error planning folder copy from " + classpathFolder + " to " + destination, e);
+        }
+    }
+
+    // Single files are written in place, or through a synced sibling and a rename when staged
+    private void writeFile(Path destination, CopyOutput.Writer writer) throws IOException {
+        if (mode == WriteMode.STAGED) {
+            CopyOutput.writeAtomically(destination, writer);
+        } else {
+            writer.write(destination);
         }
     }
 
     public void copyContentToFile(String content, Path destination) {
+        copyContentToFile((CharSequence) content, destination);
+    }
+
+    public void copyContentToFile(CharSequence content, Path destination) {
+        writeContentToFile(destination, writer -> writer.append(content));
+    }
+
+    /**
+     * Writes generated content without materializing it as a String or a byte[]: the
+     * characters are encoded into a pooled direct buffer drained to a FileChannel.
+     * The content is generated once, into a sibling file: the destination is left as it is
+     * when it already has the same size and CRC32C. Otherwise the sibling is copied into the
+     * destination in place, through symbolic and hard links, or renamed over it when staged.
+     *
+     * @param destination the file to write, its directory must exist
+     * @param content writes the content to the Writer it is given
+     */
+    public void writeContentToFile(Path destination, ContentWriter content) {
         try {
-            Files.write(destination, content.getBytes(StandardCharsets.UTF_8));
+            Tally tally = new Tally();
+            if (mode == WriteMode.STAGED) {
+                tally.add(writeStagedContent(destination, content));
+            } else {
+                tally.add(writeDirectContent(destination, content));
+            }
+            report("content", destination, tally);
         } catch (IOException e) {
             throw new RuntimeException("Error copying content to file", e);
         }
     }
 
+    // Generated once into a sibling to compare with the destination, copied in place only when it differs
+    private static boolean writeDirectContent(Path destination, ContentWriter content) throws IOException {
+        Path temporary = CopyOutput.temporarySibling(destination);
+        try (FileChannel generated = FileChannel.open(temporary, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ChannelWriter writer = write(content, generated);
+            if (isUpToDate(destination, writer.size(), writer.crc32c())) {
+                return false;
+            }
+            // Written through the destination, so symbolic and hard links keep pointing at it
+            try (FileChannel channel = FileChannel.open(destination,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                long position = 0;
+                while (position < writer.size()) {
+                    position += generated.transferTo(position, writer.size() - position, channel);
+                }
+            }
+            return true;
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private static boolean writeStagedContent(Path destination, ContentWriter content) throws IOException {
+        Path temporary = CopyOutput.temporarySibling(destination);
+        try {
+            ChannelWriter writer;
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                writer = write(content, channel);
+            }
+            boolean upToDate = isUpToDate(destination, writer.size(), writer.crc32c());
+            if (!upToDate) {
+                CopyOutput.publish(temporary, destination, true);
+            }
+            return !upToDate;
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private static ChannelWriter write(ContentWriter content, FileChannel channel) throws IOException {
+        ChannelWriter writer = new ChannelWriter(channel);
+        try {
+            content.write(writer);
+        } finally {
+            writer.close();
+        }
+        return writer;
+    }
+
     public void copyClasspathFileWithRename(String classpathFile, Path destinationFile) {
         try {
-            URL resource = getClass().getClassLoader().getResource(classpathFile);
+            Tally tally = new Tally();
+            Optional<TemplateIndex.Entry> indexed = index.get().file(classpathFile);
+            if (indexed.isPresent()) {
+                boolean copied = !isUpToDate(destinationFile, indexed.get());
+                if (copied) {
+                    writeFile(destinationFile, path -> writeIndexedFile(indexed.get(), path));
+                }
+                tally.add(copied);
+                report(classpathFile, destinationFile, tally);
+                return;
+            }
+            URL resource = classLoader.getResource(classpathFile);
             if (Objects.isNull(resource)) {
                 throw new IllegalArgumentException("Classpath file not found: " + classpathFile);
             }
-            URI uri = resource.toURI();
-
-            if (uri.getScheme().equals("jar")) {
-                // Handle JAR file case
-                FileSystem jarFileSystem = FileSystems.newFileSystem(uri, Collections.emptyMap());
-                Path source = jarFileSystem.getPath(classpathFile);
-                Files.copy(source, destinationFile, StandardCopyOption.REPLACE_EXISTING);
-            } else {
-                // Handle regular file system case
-                Path source = Paths.get(uri);
-                Files.copy(source, destinationFile, StandardCopyOption.REPLACE_EXISTING);
+            Path source = toPath(resource.toURI());
+            boolean copied = !isUpToDate(destinationFile, source);
+            if (copied) {
+                writeFile(destinationFile, path -> Files.copy(source, path, StandardCopyOption.REPLACE_EXISTING));
             }
+            tally.add(copied);
+            report(classpathFile, destinationFile, tally);
         } catch (IOException | URISyntaxException e) {
             throw new RuntimeException("Error copying file from " + classpathFile + " to " + destinationFile, e);
         }
     }
+
+    public Plan planClasspathFileWithRename(String classpathFile, Path destinationFile) {
+        try {
+            Optional<TemplateIndex.Entry> indexed = index.get().file(classpathFile);
+            if (indexed.isPresent()) {
+                TemplateIndex.Entry entry = indexed.get();
+                return Plan.ofFiles(List.of(
+                    Plan.FileChange.of(destinationFile, entry.size(), isUpToDate(destinationFile, entry))));
+            }
+            URL resource = classLoader.getResource(classpathFile);
+            if (Objects.isNull(resource)) {
+                throw new IllegalArgumentException("Classpath file not found: " + classpathFile);
+            }
+            Path source = toPath(resource.toURI());
+            return Plan.ofFiles(List.of(
+                Plan.FileChange.of(destinationFile, Files.size(source), isUpToDate(destinationFile, source))));
+        } catch (IOException | URISyntaxException e) {
+            throw new RuntimeException("Error planning file copy from " + classpathFile + " to " + destinationFile, e);
+        }
+    }
+
+    /**
+     * Releases the file systems leased by this instance, the last release closes them.
+     */
+    @Override
+    public void close() {
+        List<JarFileSystems.Lease> released;
+        synchronized (leases) {
+            released = new ArrayList<>(leases.values());
+            leases.clear();
+        }
+        for (JarFileSystems.Lease lease : released) {
+            try {
+                lease.close();
+            } catch (IOException e) {
+                throw new RuntimeException("Error closing classpath file system", e);
+            }
+        }
+    }
 }
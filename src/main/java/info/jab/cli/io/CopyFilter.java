@@ -0,0 +1,151 @@
+package info.jab.cli.io;
+
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Include and exclude patterns for folder copies, compiled once per copy.
+ *
+ * Paths are relative to the copied folder and use '/' as separator.
+ * A pattern without glob characters or '/' (README.md, node_modules) is a name: it is matched
+ * through a hash set against the file name and against every directory name on the way.
+ * Other patterns are globs: without '/' they match the name (*.md), with '/' the whole
+ * relative path (docs/**, **&#47;*.bak). An excluded directory (a name, a glob matching it or
+ * a glob ending in /**) is pruned and never walked. With no includes every file is included.
+ */
+public final class CopyFilter {
+
+    public static final CopyFilter ALL = new CopyFilter(List.of(), List.of());
+
+    private static final String GLOB_CHARACTERS = "*?[{";
+
+    // One side of the filter: literal names, name globs, path globs and pruned subtrees
+    private static final class Patterns {
+        private final Set<String> names = new HashSet<>();
+        private final List<PathMatcher> nameGlobs = new ArrayList<>();
+        private final List<PathMatcher> pathGlobs = new ArrayList<>();
+        private final List<PathMatcher> subtrees = new ArrayList<>();
+
+        private Patterns(List<String> patterns) {
+            FileSystem fileSystem = FileSystems.getDefault();
+            for (String pattern : patterns) {
+                String normalized = pattern.endsWith("/") && !pattern.endsWith("**/")
+                    ? pattern.substring(0, pattern.length() - 1)
+                    : pattern;
+                boolean glob = normalized.chars().anyMatch(c -> GLOB_CHARACTERS.indexOf(c) >= 0);
+                if (!glob && normalized.indexOf('/') < 0) {
+                    names.add(normalized);
+                } else if (normalized.indexOf('/') < 0) {
+                    nameGlobs.add(fileSystem.getPathMatcher("glob:" + normalized));
+                } else {
+                    pathGlobs.add(fileSystem.getPathMatcher("glob:" + normalized));
+                    if (normalized.endsWith("/**")) {
+                        subtrees.add(fileSystem.getPathMatcher(
+                            "glob:" + normalized.substring(0, normalized.length() - "/**".length())));
+                    }
+                }
+            }
+        }
+
+        private boolean isEmpty() {
+            return names.isEmpty() && nameGlobs.isEmpty() && pathGlobs.isEmpty();
+        }
+
+        private boolean matches(String relativePath) {
+            Path path = Path.of(relativePath);
+            Path name = path.getFileName();
+            if (names.contains(name.toString())) {
+                return true;
+            }
+            for (PathMatcher matcher : nameGlobs) {
+                if (matcher.matches(name)) {
+                    return true;
+                }
+            }
+            for (PathMatcher matcher : pathGlobs) {
+                if (matcher.matches(path)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean matchesSubtree(String relativeDirectory) {
+            if (matches(relativeDirectory)) {
+                return true;
+            }
+            Path path = Path.of(relativeDirectory);
+            for (PathMatcher matcher : subtrees) {
+                if (matcher.matches(path)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private final Patterns includes;
+    private final Patterns excludes;
+
+    private CopyFilter(List<String> includes, List<String> excludes) {
+        this.includes = new Patterns(includes);
+        this.excludes = new Patterns(excludes);
+    }
+
+    /**
+     * Compiles a filter.
+     *
+     * @param includes the patterns a file must match, empty to include every file
+     * @param excludes the patterns of the files and directories to leave out
+     * @return the compiled filter
+     */
+    public static CopyFilter of(List<String> includes, List<String> excludes) {
+        return new CopyFilter(includes, excludes);
+    }
+
+    public static CopyFilter excluding(List<String> excludes) {
+        return new CopyFilter(List.of(), excludes);
+    }
+
+    // No pattern at all: every file is included and no directory pruned
+    boolean isEmpty() {
+        return includes.isEmpty() && excludes.isEmpty();
+    }
+
+    /**
+     * Tells whether a directory and everything below it is left out.
+     *
+     * @param relativeDirectory the directory relative to the copied folder, never the folder itself
+     * @return true when the walk should skip the subtree
+     */
+    boolean prunes(String relativeDirectory) {
+        return excludes.matchesSubtree(relativeDirectory);
+    }
+
+    boolean includes(String relativeFile) {
+        return !excludes.matches(relativeFile) && (includes.isEmpty() || includes.matches(relativeFile));
+    }
+
+    /**
+     * Tells whether a file is copied, including the pruning of its directories.
+     * Used when the files come from the index instead of a walk.
+     *
+     * @param relativeFile the file relative to the copied folder
+     * @return true when the file is copied
+     */
+    boolean accepts(String relativeFile) {
+        for (int separator = relativeFile.indexOf('/'); separator > 0;
+             separator = relativeFile.indexOf('/', separator + 1)) {
+            if (prunes(relativeFile.substring(0, separator))) {
+                return false;
+            }
+        }
+        return includes(relativeFile);
+    }
+}
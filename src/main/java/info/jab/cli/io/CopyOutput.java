@@ -0,0 +1,374 @@
+package info.jab.cli.io;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Where a copy writes its files: straight into the destination, or staged and committed.
+ *
+ * A staged copy writes into a hidden staging directory next to the destination, never
+ * inside it. On commit a new destination is moved into place with one atomic rename. An
+ * existing destination (a project root, a .github folder with other workflows) cannot be
+ * swapped as a whole, so its staged files are renamed into place one by one and the files
+ * they replace are set aside, their permissions kept: if a rename fails, the published files
+ * are removed and the replaced ones restored. On commit the content of every staged file is
+ * synced in one pass before the first rename, then each directory renamed into is synced
+ * once. Closing an uncommitted copy deletes the staging directory, a failure never leaves
+ * half-written files in the destination.
+ *
+ * Every rename stays on the file system of the destination and is atomic; a file system
+ * that cannot rename atomically fails the commit with AtomicMoveNotSupportedException
+ * rather than copying, and the copy is rolled back as for any other failure.
+ */
+abstract class CopyOutput implements AutoCloseable {
+
+    static final String STAGING_PREFIX = ".setup-staging-";
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    final Path destination;
+
+    private CopyOutput(Path destination) {
+        this.destination = destination;
+    }
+
+    static CopyOutput direct(Path destination) {
+        return new Direct(destination);
+    }
+
+    static CopyOutput staged(Path destination) throws IOException {
+        return Files.isDirectory(destination) ? new StagedFiles(destination) : new StagedFolder(destination);
+    }
+
+    /**
+     * Creates a directory of the destination tree.
+     *
+     * @param target the directory in the destination tree
+     * @throws IOException if the directory cannot be created
+     */
+    abstract void directory(Path target) throws IOException;
+
+    /**
+     * Tells where to write a file of the destination tree, its parent directory exists.
+     *
+     * @param target the file in the destination tree
+     * @return the path to write
+     * @throws IOException if the parent directory cannot be created
+     */
+    abstract Path file(Path target) throws IOException;
+
+    abstract void commit() throws IOException;
+
+    @Override
+    public void close() throws IOException {
+        // Nothing staged by default
+    }
+
+    private static final class Direct extends CopyOutput {
+
+        private Direct(Path destination) {
+            super(destination);
+        }
+
+        @Override
+        void directory(Path target) throws IOException {
+            Files.createDirectories(target);
+        }
+
+        @Override
+        Path file(Path target) throws IOException {
+            Files.createDirectories(Objects.requireNonNull(target.getParent()));
+            return target;
+        }
+
+        @Override
+        void commit() {
+            // Files are already in place
+        }
+    }
+
+    private abstract static class Staged extends CopyOutput {
+
+        final Path staging;
+        final Set<Path> files = ConcurrentHashMap.newKeySet();
+        private boolean committed;
+
+        private Staged(Path destination, Path staging) {
+            super(destination);
+            this.staging = staging;
+        }
+
+        final Path stagedPath(Path target) {
+            // Convert to string to avoid ProviderMismatchException
+            return staging.resolve(destination.relativize(target).toString());
+        }
+
+        @Override
+        final void directory(Path target) throws IOException {
+            Files.createDirectories(stagedPath(target));
+        }
+
+        @Override
+        final Path file(Path target) throws IOException {
+            Path staged = stagedPath(target);
+            Files.createDirectories(Objects.requireNonNull(staged.getParent()));
+            files.add(target);
+            return staged;
+        }
+
+        @Override
+        final void commit() throws IOException {
+            // Content first, so no rename publishes a file whose data is not on disk yet
+            for (Path target : files) {
+                sync(stagedPath(target), false);
+            }
+            publish();
+            committed = true;
+        }
+
+        abstract void publish() throws IOException;
+
+        // A sibling of the destination, so staged files are renamed on the same file system
+        static Path createStaging(Path destination) throws IOException {
+            Path parent = Objects.requireNonNull(destination.toAbsolutePath().normalize().getParent());
+            Files.createDirectories(parent);
+            return createSibling(parent, STAGING_PREFIX + destination.toAbsolutePath().normalize().getFileName() + "-", "", true);
+        }
+
+        @Override
+        public final void close() throws IOException {
+            if (!committed) {
+                delete(staging);
+            }
+        }
+    }
+
+    // The destination does not exist: one rename publishes the whole tree
+    private static final class StagedFolder extends Staged {
+
+        private StagedFolder(Path destination) throws IOException {
+            super(destination, createStaging(destination));
+        }
+
+        @Override
+        void publish() throws IOException {
+            // The entries of the staged directories are renamed along with them
+            try (Stream<Path> staged = Files.walk(staging)) {
+                for (Path directory : staged.filter(Files::isDirectory).toList()) {
+                    sync(directory, true);
+                }
+            }
+            move(staging, destination);
+            sync(Objects.requireNonNull(destination.toAbsolutePath().getParent()), true);
+        }
+    }
+
+    // The destination exists: staged files are renamed into place one by one, all or none
+    private static final class StagedFiles extends Staged {
+
+        private StagedFiles(Path destination) throws IOException {
+            super(destination, createStaging(destination));
+        }
+
+        @Override
+        void publish() throws IOException {
+            List<Path> created = new ArrayList<>();
+            List<Path> published = new ArrayList<>();
+            Set<Path> directories = new TreeSet<>();
+            Path replaced = createStaging(destination);
+            try {
+                try (Stream<Path> staged = Files.walk(staging)) {
+                    // Parents come before their children
+                    for (Path directory : staged.filter(Files::isDirectory).toList()) {
+                        Path target = destination.resolve(staging.relativize(directory).toString());
+                        if (!Files.isDirectory(target)) {
+                            Files.createDirectory(target);
+                            created.add(target);
+                            directories.add(Objects.requireNonNull(target.getParent()));
+                        }
+                    }
+                }
+                for (Path target : new TreeSet<>(files)) {
+                    published.add(target);
+                    // A directory is never replaced by a file, the rename below fails instead
+                    if (Files.exists(target, LinkOption.NOFOLLOW_LINKS) && !Files.isDirectory(target, LinkOption.NOFOLLOW_LINKS)) {
+                        Path saved = replaced.resolve(destination.relativize(target).toString());
+                        Files.createDirectories(Objects.requireNonNull(saved.getParent()));
+                        keepPermissions(stagedPath(target), target);
+                        move(target, saved);
+                    }
+                    move(stagedPath(target), target);
+                    directories.add(Objects.requireNonNull(target.getParent()));
+                }
+                for (Path directory : directories) {
+                    sync(directory, true);
+                }
+            } catch (IOException e) {
+                // A file that could not be restored is left in the replaced directory
+                if (rollBack(published, created, replaced, e)) {
+                    delete(replaced);
+                }
+                throw e;
+            }
+            delete(replaced);
+            delete(staging);
+        }
+
+        // Puts the replaced files back and removes what the failed commit added, true when all are restored
+        private boolean rollBack(List<Path> published, List<Path> created, Path replaced, IOException failure) {
+            boolean restored = true;
+            for (Path target : published.reversed()) {
+                try {
+                    if (!Files.exists(stagedPath(target), LinkOption.NOFOLLOW_LINKS)) {
+                        Files.deleteIfExists(target);
+                    }
+                    Path saved = replaced.resolve(destination.relativize(target).toString());
+                    if (Files.exists(saved, LinkOption.NOFOLLOW_LINKS)) {
+                        move(saved, target);
+                    }
+                } catch (IOException e) {
+                    failure.addSuppressed(e);
+                    restored = false;
+                }
+            }
+            for (Path directory : created.reversed()) {
+                try {
+                    Files.deleteIfExists(directory);
+                } catch (IOException e) {
+                    // Not empty when a file could not be removed, already reported
+                    failure.addSuppressed(e);
+                }
+            }
+            return restored;
+        }
+    }
+
+    /**
+     * Writes one file through a synced temporary sibling and an atomic rename.
+     *
+     * @param target the file to write, its directory must exist
+     * @param writer writes the content to the path it is given
+     * @throws IOException if the file cannot be written
+     */
+    static void writeAtomically(Path target, Writer writer) throws IOException {
+        writeAtomically(target, writer, true);
+    }
+
+    /**
+     * Writes one file through a temporary sibling and an atomic rename.
+     *
+     * @param target the file to write, its directory must exist
+     * @param writer writes the content to the path it is given
+     * @param durable whether the content and the rename are synced
+     * @throws IOException if the file cannot be written
+     */
+    static void writeAtomically(Path target, Writer writer, boolean durable) throws IOException {
+        Path temporary = temporarySibling(target);
+        try {
+            writer.write(temporary);
+            publish(temporary, target, durable);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    static Path temporarySibling(Path target) throws IOException {
+        return createSibling(Objects.requireNonNull(target.toAbsolutePath().getParent()), STAGING_PREFIX, ".tmp", false);
+    }
+
+    /**
+     * Replaces a file with a temporary sibling, keeping the permissions of the replaced file.
+     *
+     * @param temporary the written sibling
+     * @param target the file to replace
+     * @param durable whether the content and the rename are synced
+     * @throws IOException if the file cannot be replaced
+     */
+    static void publish(Path temporary, Path target, boolean durable) throws IOException {
+        keepPermissions(temporary, target);
+        if (durable) {
+            sync(temporary, false);
+        }
+        move(temporary, target);
+        if (durable) {
+            sync(Objects.requireNonNull(target.toAbsolutePath().getParent()), true);
+        }
+    }
+
+    @FunctionalInterface
+    interface Writer {
+        void write(Path path) throws IOException;
+    }
+
+    // Unlike Files.createTemp*, keeps the default permissions (umask) of the published files
+    private static Path createSibling(Path directory, String prefix, String suffix, boolean isDirectory)
+            throws IOException {
+        while (true) {
+            Path sibling = directory.resolve(prefix + Long.toUnsignedString(RANDOM.nextLong(), 36) + suffix);
+            try {
+                return isDirectory ? Files.createDirectory(sibling) : Files.createFile(sibling);
+            } catch (FileAlreadyExistsException e) {
+                // Name taken, try another one
+            }
+        }
+    }
+
+    // An executable file (mvnw) stays executable when a copy replaces it
+    private static void keepPermissions(Path replacement, Path target) throws IOException {
+        if (Files.exists(target) && Files.getFileStore(target).supportsFileAttributeView("posix")) {
+            Files.setPosixFilePermissions(replacement, Files.getPosixFilePermissions(target));
+        }
+    }
+
+    // Fails with AtomicMoveNotSupportedException rather than falling back to a copy that could be seen half done
+    private static void move(Path source, Path target) throws IOException {
+        Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void sync(Path path, boolean directory) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Directories cannot be opened for sync on every platform (Windows)
+            if (!directory) {
+                throw e;
+            }
+        }
+    }
+
+    static void delete(Path root) throws IOException {
+        if (!Files.exists(root)) {
+            return;
+        }
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
@@ -0,0 +1,127 @@
+package info.jab.cli.io;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Working directory and environment of the invocation being served.
+ *
+ * A standalone run uses the process values (user.dir and System.getenv).
+ * The daemon binds one context per request, so concurrent requests never share
+ * the global user.dir property. Threads never inherit a context: the tasks a request hands
+ * to other threads are wrapped to run with it, work that outlives the request (GitCache
+ * eviction) starts with none and cannot write into a closed connection.
+ */
+public record ExecutionContext(Path workingDirectory, Map<String, String> environment) {
+
+    private static final ThreadLocal<@Nullable ExecutionContext> CURRENT = new ThreadLocal<>();
+
+    // Other request state bound to the thread (the daemon's output routing), wrapped tasks carry it too
+    private static final List<ThreadLocal<?>> CARRIED = new CopyOnWriteArrayList<>();
+
+    public ExecutionContext {
+        workingDirectory = workingDirectory.toAbsolutePath();
+        environment = Map.copyOf(environment);
+    }
+
+    /**
+     * Returns the context bound to the current thread or the process context.
+     *
+     * @return the execution context of the current invocation
+     */
+    public static ExecutionContext current() {
+        ExecutionContext context = CURRENT.get();
+        if (Objects.nonNull(context)) {
+            return context;
+        }
+        return new ExecutionContext(Paths.get(System.getProperty("user.dir")), System.getenv());
+    }
+
+    /**
+     * Runs the action with the given context bound to the current thread.
+     *
+     * @param context the context to bind
+     * @param action the action to run
+     * @return the result of the action
+     */
+    public static <T> T callWith(ExecutionContext context, Supplier<T> action) {
+        ExecutionContext previous = CURRENT.get();
+        CURRENT.set(context);
+        try {
+            return action.get();
+        } finally {
+            if (Objects.isNull(previous)) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Carries a thread local along with the context to the tasks wrapped by wrap.
+     *
+     * @param local the request state to carry
+     */
+    public static void carry(ThreadLocal<?> local) {
+        CARRIED.add(local);
+    }
+
+    /**
+     * Wraps a task the current invocation runs on another thread (a parallel copy or fetch),
+     * so it sees the context and the carried state of the submitting thread.
+     *
+     * @param task the task to run on another thread
+     * @return the task bound to the state of the current thread
+     */
+    public static <T> Callable<T> wrap(Callable<T> task) {
+        List<ThreadLocal<?>> locals = new ArrayList<>(CARRIED);
+        locals.add(CURRENT);
+        List<@Nullable Object> values = new ArrayList<>(locals.size());
+        for (ThreadLocal<?> local : locals) {
+            values.add(local.get());
+        }
+        return () -> {
+            List<@Nullable Object> previous = new ArrayList<>(locals.size());
+            for (int i = 0; i < locals.size(); i++) {
+                previous.add(locals.get(i).get());
+                set(locals.get(i), values.get(i));
+            }
+            try {
+                return task.call();
+            } finally {
+                for (int i = 0; i < locals.size(); i++) {
+                    set(locals.get(i), previous.get(i));
+                }
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void set(ThreadLocal<?> local, @Nullable Object value) {
+        if (Objects.isNull(value)) {
+            local.remove();
+        } else {
+            ((ThreadLocal<Object>) local).set(value);
+        }
+    }
+
+    /**
+     * Resolves a path against the working directory of this context.
+     *
+     * @param path the path to resolve, absolute paths are returned as is
+     * @return the resolved path
+     */
+    public Path resolve(String path) {
+        return workingDirectory.resolve(path);
+    }
+}
@@ -3,11 +3,16 @@ package info.jab.cli.io;
 import java.io.File;
 
 /**
- * FileSystemChecker implementation using java.io.File
+ * FileSystemChecker implementation using java.io.File.
+ * Relative names are resolved against the working directory of the current ExecutionContext.
  */
 public class FileSystemChecker {
 
     public boolean fileExists(String filename) {
-        return new File(filename).exists();
+        File file = new File(filename);
+        if (!file.isAbsolute()) {
+            file = ExecutionContext.current().resolve(filename).toFile();
+        }
+        return file.exists();
     }
 }
@@ -0,0 +1,671 @@
+package info.jab.cli.io;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.Repository;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bare mirrors of the repositories cursor rules are copied from, one per normalized URL.
+ *
+ * Mirrors live in ~/.setup/cache/git (setup.git.cache overrides the directory, an empty value
+ * disables the cache), so a later copy of the same repository only fetches what changed, or
+ * nothing when the remote ref still points to a commit of the mirror. Without a cache every
+ * copy fetches into a temporary repository deleted afterwards, created in setup.git.scratch
+ * (java.io.tmpdir by default, a tmpfs such as /dev/shm/setup avoids the disk).
+ *
+ * A repository to delete is renamed out of the way and deleted on a background thread, so the
+ * copy does not wait for it; the CLI waits for the deletions before exiting (awaitBackgroundWork).
+ * What a killed process or an exhausted wait left behind is swept on the next use.
+ *
+ * The size and last access of every mirror are kept in index.properties. Once the mirrors
+ * exceed a byte budget (setup.git.cache.max-bytes, 512 MiB by default) or one was not used
+ * for a while (setup.git.cache.ttl, P30D by default), the least recently used mirrors are
+ * evicted on a background thread, which a CLI process waits for before exiting
+ * (awaitBackgroundWork). Several setup processes can share the cache: a mirror is
+ * locked while it is used and never evicted then, the index is updated under its own lock.
+ */
+public final class GitCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(GitCache.class);
+
+    public static final Path DIRECTORY = Paths.get(System.getProperty("user.home"), ".setup", "cache", "git");
+
+    public static final String PROPERTY = "setup.git.cache";
+
+    public static final String MAX_BYTES_PROPERTY = "setup.git.cache.max-bytes";
+
+    public static final String TTL_PROPERTY = "setup.git.cache.ttl";
+
+    public static final String SCRATCH_PROPERTY = "setup.git.scratch";
+
+    static final long DEFAULT_MAX_BYTES = 512L * 1024 * 1024;
+
+    static final Duration DEFAULT_TTL = Duration.ofDays(30);
+
+    private static final String INDEX = "index.properties";
+    private static final String INDEX_LOCK = "index.lock";
+    private static final String LOCK_SUFFIX = ".lock";
+    // Mirrors are renamed before being deleted, a deletion cut short never leaves a broken mirror
+    private static final String EVICTED_INFIX = ".evicted-";
+    private static final String TEMPORARY_PREFIX = "git-clone";
+    private static final String CLEANUP_THREAD = "setup-git-cleanup";
+    // The user information of a normalized URL, left out of the readable part of a key (it may hold a token)
+    private static final Pattern USER_INFO = Pattern.compile("^([a-z][a-z0-9+.-]*://)[^@/]*@");
+
+    // File locks are held by the process, threads of the same process (daemon) queue here first
+    private static final ConcurrentMap<Path, ReentrantLock> THREAD_LOCKS = new ConcurrentHashMap<>();
+
+    // Directories being deleted in the background, a directory is only deleted by one thread
+    private static final Set<Path> DELETING = ConcurrentHashMap.newKeySet();
+
+    // Directories already swept for leftovers by this process
+    private static final Set<Path> SWEPT = ConcurrentHashMap.newKeySet();
+
+    // Background work of the process, virtual threads do not keep the JVM alive
+    private static final Set<Thread> BACKGROUND = ConcurrentHashMap.newKeySet();
+
+    private final @Nullable Path directory;
+    private final Path scratch;
+    private final long maxBytes;
+    private final Duration ttl;
+    private final Clock clock;
+
+    private GitCache(@Nullable Path directory, Path scratch, long maxBytes, Duration ttl, Clock clock) {
+        this.directory = directory;
+        this.scratch = scratch;
+        this.maxBytes = maxBytes;
+        this.ttl = ttl;
+        this.clock = clock;
+    }
+
+    static GitCache load() {
+        String location = System.getProperty(PROPERTY);
+        if (Objects.nonNull(location) && location.isBlank()) {
+            return disabled(scratch());
+        }
+        Path cache = Objects.isNull(location) ? DIRECTORY : Path.of(location);
+        return at(cache, Long.getLong(MAX_BYTES_PROPERTY, DEFAULT_MAX_BYTES), ttl(), Clock.systemUTC());
+    }
+
+    private static Path scratch() {
+        return Path.of(Objects.requireNonNullElseGet(System.getProperty(SCRATCH_PROPERTY),
+            () -> System.getProperty("java.io.tmpdir")));
+    }
+
+    private static Duration ttl() {
+        String ttl = System.getProperty(TTL_PROPERTY);
+        if (Objects.isNull(ttl)) {
+            return DEFAULT_TTL;
+        }
+        try {
+            return Duration.parse(ttl);
+        } catch (DateTimeParseException e) {
+            logger.warn("Ignoring invalid {}={}, expected an ISO-8601 duration such as P30D", TTL_PROPERTY, ttl);
+            return DEFAULT_TTL;
+        }
+    }
+
+    static GitCache at(Path directory) {
+        return at(directory, DEFAULT_MAX_BYTES, DEFAULT_TTL, Clock.systemUTC());
+    }
+
+    // Constructor for testing with a custom budget and clock
+    static GitCache at(Path directory, long maxBytes, Duration ttl, Clock clock) {
+        return new GitCache(directory, scratch(), maxBytes, ttl, clock);
+    }
+
+    static GitCache disabled() {
+        return disabled(scratch());
+    }
+
+    // Constructor for testing with a custom scratch directory
+    static GitCache disabled(Path scratch) {
+        return new GitCache(null, scratch, DEFAULT_MAX_BYTES, DEFAULT_TTL, Clock.systemUTC());
+    }
+
+    /**
+     * Size and last access of a mirror, stored as lastAccessMillis,bytes.
+     *
+     * @param lastAccess the epoch millisecond the mirror was last used
+     * @param bytes the size of the mirror on disk
+     */
+    record Entry(long lastAccess, long bytes) {
+
+        static @Nullable Entry parse(@Nullable String value) {
+            if (Objects.isNull(value)) {
+                return null;
+            }
+            int separator = value.indexOf(',');
+            try {
+                return new Entry(Long.parseLong(value.substring(0, separator)), Long.parseLong(value.substring(separator + 1)));
+            } catch (NumberFormatException | IndexOutOfBoundsException e) {
+                return null;
+            }
+        }
+
+        String format() {
+            return lastAccess + "," + bytes;
+        }
+    }
+
+    /**
+     * An exclusive lock on a file, held by a single thread of a single process.
+     */
+    static final class Lock implements AutoCloseable {
+
+        private final ReentrantLock threadLock;
+        private final FileChannel channel;
+        private final FileLock fileLock;
+
+        private Lock(ReentrantLock threadLock, FileChannel channel, FileLock fileLock) {
+            this.threadLock = threadLock;
+            this.channel = channel;
+            this.fileLock = fileLock;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try (channel) {
+                fileLock.release();
+            } finally {
+                threadLock.unlock();
+            }
+        }
+    }
+
+    // Waits for the lock, or returns null when it is held and wait is false
+    static @Nullable Lock lock(Path file, boolean wait) throws IOException {
+        ReentrantLock threadLock = THREAD_LOCKS.computeIfAbsent(file.toAbsolutePath().normalize(), key -> new ReentrantLock());
+        if (wait) {
+            threadLock.lock();
+        } else if (threadLock.isHeldByCurrentThread() || !threadLock.tryLock()) {
+            return null;
+        }
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            FileLock fileLock = wait ? channel.lock() : channel.tryLock();
+            if (Objects.nonNull(fileLock)) {
+                return new Lock(threadLock, channel, fileLock);
+            }
+        } catch (IOException | RuntimeException e) {
+            if (Objects.nonNull(channel)) {
+                channel.close();
+            }
+            threadLock.unlock();
+            throw e;
+        }
+        channel.close();
+        threadLock.unlock();
+        return null;
+    }
+
+    /**
+     * A bare repository to fetch into: the mirror of the URL, or a temporary repository
+     * discarded on close. A new mirror nothing was fetched into is discarded on close as well.
+     */
+    static final class Mirror implements AutoCloseable {
+
+        private final Git git;
+        private final Path directory;
+        // Null for a temporary repository
+        private final @Nullable GitCache cache;
+        private final @Nullable Lock lock;
+        private final boolean created;
+        private boolean fetched;
+
+        private Mirror(Git git, Path directory, @Nullable GitCache cache, @Nullable Lock lock, boolean created) {
+            this.git = git;
+            this.directory = directory;
+            this.cache = cache;
+            this.lock = lock;
+            this.created = created;
+        }
+
+        Repository repository() {
+            return git.getRepository();
+        }
+
+        Path directory() {
+            return directory;
+        }
+
+        void fetched() {
+            fetched = true;
+        }
+
+        @Override
+        public void close() {
+            git.close();
+            GitCache owner = cache;
+            boolean evict = false;
+            try {
+                if (Objects.isNull(owner) || (created && !fetched)) {
+                    discard(directory);
+                } else {
+                    evict = owner.touch(directory, fetched);
+                }
+            } catch (IOException e) {
+                logger.warn("Unable to clean up git repository {}: {}", directory, e.getMessage());
+            } finally {
+                release(lock);
+            }
+            if (evict && Objects.nonNull(owner)) {
+                startInBackground("setup-git-cache-eviction", owner::evict);
+            }
+        }
+    }
+
+    // Starts work the process waits for in awaitBackgroundWork
+    private static void startInBackground(String name, Runnable task) {
+        Thread thread = Thread.ofVirtual().name(name).unstarted(() -> {
+            try {
+                task.run();
+            } finally {
+                BACKGROUND.remove(Thread.currentThread());
+            }
+        });
+        BACKGROUND.add(thread);
+        thread.start();
+    }
+
+    /**
+     * Waits for the background work of the process (evictions, deletions and sweeps), including
+     * the work it starts. Virtual threads die with the JVM, so a CLI process calls this before
+     * System.exit: without it every temporary clone would be left in the scratch directory.
+     *
+     * @param limit the longest wait, a later process finishes what is left
+     * @return true when all the work is done
+     */
+    public static boolean awaitBackgroundWork(Duration limit) {
+        long deadline = System.nanoTime() + limit.toNanos();
+        try {
+            while (!BACKGROUND.isEmpty()) {
+                for (Thread thread : List.copyOf(BACKGROUND)) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0 || !thread.join(Duration.ofNanos(remaining))) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static void release(@Nullable Lock lock) {
+        if (Objects.isNull(lock)) {
+            return;
+        }
+        try {
+            lock.close();
+        } catch (IOException e) {
+            logger.debug("Ignoring unreleased git cache lock: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Opens the mirror of a repository, creating it on first use. The mirror is locked until
+     * it is closed, other copies of the same repository wait for it.
+     *
+     * @param url the repository URL
+     * @return the mirror, to close once the copy is done
+     */
+    Mirror open(String url) throws IOException, GitAPIException {
+        Path cache = directory;
+        if (Objects.isNull(cache)) {
+            Files.createDirectories(scratch);
+            sweep(scratch, TEMPORARY_PREFIX + "*" + EVICTED_INFIX + "*");
+            Path temporary = Files.createTempDirectory(scratch, TEMPORARY_PREFIX);
+            try {
+                return new Mirror(Git.init().setBare(true).setDirectory(temporary.toFile()).call(), temporary, null, null, true);
+            } catch (Exception e) {
+                // Precise rethrow: a GitAPIException handler would load JGit with this class, every run locks through it
+                discard(temporary);
+                throw e;
+            }
+        }
+        Files.createDirectories(cache);
+        sweep(cache, "*" + EVICTED_INFIX + "*");
+        String key = key(url);
+        Lock lock = Objects.requireNonNull(lock(cache.resolve(key + LOCK_SUFFIX), true));
+        try {
+            Path mirror = cache.resolve(key);
+            if (Files.isDirectory(mirror)) {
+                try {
+                    return new Mirror(Git.open(mirror.toFile()), mirror, this, lock, false);
+                } catch (IOException e) {
+                    logger.warn("Recreating unreadable git mirror {}: {}", mirror, e.getMessage());
+                    deleteDirectory(mirror);
+                }
+            }
+            return new Mirror(Git.init().setBare(true).setDirectory(mirror.toFile()).call(), mirror, this, lock, true);
+        } catch (Exception e) {
+            release(lock);
+            throw e;
+        }
+    }
+
+    /**
+     * Opens the mirror of a repository only when it exists, for a plan that reads the commits it
+     * already holds without creating or fetching into it. The mirror is locked until it is closed.
+     *
+     * @param url the repository URL
+     * @return the mirror, empty without a cache or a readable mirror
+     */
+    Optional<Mirror> openExisting(String url) throws IOException {
+        Path cache = directory;
+        if (Objects.isNull(cache) || !Files.isDirectory(cache.resolve(key(url)))) {
+            return Optional.empty();
+        }
+        String key = key(url);
+        Lock lock = Objects.requireNonNull(lock(cache.resolve(key + LOCK_SUFFIX), true));
+        Path mirror = cache.resolve(key);
+        try {
+            // Evicted while waiting for the lock
+            if (Files.isDirectory(mirror)) {
+                return Optional.of(new Mirror(Git.open(mirror.toFile()), mirror, this, lock, false));
+            }
+        } catch (IOException e) {
+            logger.debug("Ignoring unreadable git mirror {}: {}", mirror, e.getMessage());
+        } catch (RuntimeException e) {
+            release(lock);
+            throw e;
+        }
+        release(lock);
+        return Optional.empty();
+    }
+
+    // Records the use of a mirror, returns whether the cache went over its budget or TTL
+    private boolean touch(Path mirror, boolean fetched) throws IOException {
+        Path cache = Objects.requireNonNull(directory);
+        Lock lock = lock(cache.resolve(INDEX_LOCK), true);
+        try {
+            Properties index = readIndex(cache);
+            String key = mirror.getFileName().toString();
+            Entry previous = Entry.parse(index.getProperty(key));
+            long bytes = fetched || Objects.isNull(previous) ? size(mirror) : previous.bytes();
+            index.setProperty(key, new Entry(clock.millis(), bytes).format());
+            writeIndex(cache, index);
+            long total = 0;
+            long oldest = Long.MAX_VALUE;
+            for (String name : index.stringPropertyNames()) {
+                Entry entry = Entry.parse(index.getProperty(name));
+                if (Objects.nonNull(entry)) {
+                    total += entry.bytes();
+                    oldest = Math.min(oldest, entry.lastAccess());
+                }
+            }
+            return total > maxBytes || clock.millis() - oldest > ttl.toMillis();
+        } finally {
+            release(lock);
+        }
+    }
+
+    /**
+     * Evicts the least recently used mirrors until the cache fits its budget, and the mirrors
+     * not used within the TTL. Mirrors in use are skipped, mirrors missing from the index (a
+     * process stopped before updating it) are measured and dated by their last modification.
+     *
+     * @return the keys of the evicted mirrors
+     */
+    List<String> evict() {
+        Path cache = directory;
+        if (Objects.isNull(cache) || !Files.isDirectory(cache)) {
+            return List.of();
+        }
+        List<String> evicted = new ArrayList<>();
+        Lock lock = null;
+        try {
+            lock = lock(cache.resolve(INDEX_LOCK), true);
+            Properties index = readIndex(cache);
+            Map<String, Entry> entries = new HashMap<>();
+            try (Stream<Path> children = Files.list(cache)) {
+                for (Path child : children.filter(Files::isDirectory).toList()) {
+                    String key = child.getFileName().toString();
+                    if (key.contains(EVICTED_INFIX)) {
+                        deleteInBackground(child);
+                        continue;
+                    }
+                    Entry entry = Entry.parse(index.getProperty(key));
+                    entries.put(key, Objects.nonNull(entry) ? entry
+                        : new Entry(Files.getLastModifiedTime(child).toMillis(), size(child)));
+                }
+            }
+            long now = clock.millis();
+            long total = entries.values().stream().mapToLong(Entry::bytes).sum();
+            List<Map.Entry<String, Entry>> leastRecentlyUsed = entries.entrySet().stream()
+                .sorted(Comparator.comparingLong(entry -> entry.getValue().lastAccess()))
+                .toList();
+            for (Map.Entry<String, Entry> entry : leastRecentlyUsed) {
+                boolean expired = now - entry.getValue().lastAccess() > ttl.toMillis();
+                if ((expired || total > maxBytes) && remove(cache, entry.getKey())) {
+                    evicted.add(entry.getKey());
+                    total -= entry.getValue().bytes();
+                    entries.remove(entry.getKey());
+                }
+            }
+            Properties updated = new Properties();
+            entries.forEach((key, entry) -> updated.setProperty(key, entry.format()));
+            writeIndex(cache, updated);
+        } catch (IOException e) {
+            logger.debug("Ignoring git cache eviction error in {}: {}", cache, e.getMessage());
+        } finally {
+            release(lock);
+        }
+        if (!evicted.isEmpty()) {
+            logger.debug("Evicted git mirrors {} from {}", evicted, cache);
+        }
+        return evicted;
+    }
+
+    // Removes a mirror unless it is in use
+    private static boolean remove(Path cache, String key) throws IOException {
+        Path evicted = cache.resolve(key + EVICTED_INFIX + UUID.randomUUID());
+        try (Lock lock = lock(cache.resolve(key + LOCK_SUFFIX), false)) {
+            if (Objects.isNull(lock)) {
+                return false;
+            }
+            Files.move(cache.resolve(key), evicted, StandardCopyOption.ATOMIC_MOVE);
+        }
+        deleteInBackground(evicted);
+        return true;
+    }
+
+    private static Properties readIndex(Path cache) {
+        Properties index = new Properties();
+        try (Reader reader = Files.newBufferedReader(cache.resolve(INDEX), StandardCharsets.UTF_8)) {
+            index.load(reader);
+        } catch (NoSuchFileException e) {
+            // No mirror recorded yet
+        } catch (IOException | IllegalArgumentException e) {
+            logger.debug("Ignoring unreadable git cache index in {}: {}", cache, e.getMessage());
+        }
+        return index;
+    }
+
+    private static void writeIndex(Path cache, Properties index) throws IOException {
+        CopyOutput.writeAtomically(cache.resolve(INDEX), path -> {
+            try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+                index.store(writer, "Last access (epoch millis) and size in bytes of every git mirror");
+            }
+        });
+    }
+
+    static long size(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            long bytes = 0;
+            for (Path file : files.filter(Files::isRegularFile).toList()) {
+                bytes += Files.size(file);
+            }
+            return bytes;
+        }
+    }
+
+    /**
+     * Names the mirror of a URL: a readable form of the normalized URL and a hash of it.
+     *
+     * The letter case of the scheme and the host, a trailing slash and a .git suffix do not
+     * change the key, so https://GitHub.com/org/rules.git and https://github.com/org/rules/
+     * share a mirror. The scheme and the user information do: http, https, ssh and git
+     * remotes, or two users of one host, may not serve the same content and get their own
+     * mirror. The user information is only hashed, it never appears in the directory name.
+     *
+     * @param url the repository URL
+     * @return the directory name of the mirror
+     */
+    static String key(String url) {
+        String normalized = normalize(url);
+        String readable = USER_INFO.matcher(normalized).replaceFirst("$1").replaceAll("[^A-Za-z0-9._-]+", "_");
+        if (readable.length() > 80) {
+            readable = readable.substring(readable.length() - 80);
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(normalized.getBytes(StandardCharsets.UTF_8));
+            return readable + "-" + HexFormat.of().formatHex(digest, 0, 6);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    static String normalize(String url) {
+        String location = url.trim();
+        try {
+            URI uri = URI.create(location);
+            String scheme = Objects.isNull(uri.getScheme()) ? "" : uri.getScheme().toLowerCase(Locale.ROOT) + "://";
+            if (Objects.nonNull(uri.getHost())) {
+                String userInfo = Objects.isNull(uri.getRawUserInfo()) ? "" : uri.getRawUserInfo() + "@";
+                String path = Objects.requireNonNullElse(uri.getPath(), "");
+                location = scheme + userInfo + uri.getHost().toLowerCase(Locale.ROOT)
+                    + (uri.getPort() < 0 ? "" : ":" + uri.getPort()) + path;
+            } else if (Objects.nonNull(uri.getPath())) {
+                location = scheme + uri.getPath();
+            }
+        } catch (IllegalArgumentException e) {
+            // Not a URI, e.g. scp-like git@host:org/rules.git, keyed as it is
+        }
+        while (location.endsWith("/")) {
+            location = location.substring(0, location.length() - 1);
+        }
+        return location.endsWith(".git") ? location.substring(0, location.length() - 4) : location;
+    }
+
+    /**
+     * Renames a repository out of the way and deletes it on a background thread, the caller only
+     * waits for the rename. A repository that cannot be renamed is deleted in place.
+     *
+     * @param repository the directory to delete
+     */
+    static void discard(Path repository) throws IOException {
+        Path discarded = repository.resolveSibling(repository.getFileName() + EVICTED_INFIX + UUID.randomUUID());
+        try {
+            Files.move(repository, discarded, StandardCopyOption.ATOMIC_MOVE);
+        } catch (NoSuchFileException e) {
+            return;
+        } catch (IOException e) {
+            logger.debug("Deleting git repository {} in place: {}", repository, e.getMessage());
+            deleteDirectory(repository);
+            return;
+        }
+        deleteInBackground(discarded);
+    }
+
+    private static void deleteInBackground(Path discarded) {
+        if (!DELETING.add(discarded)) {
+            return;
+        }
+        startInBackground(CLEANUP_THREAD, () -> {
+            try {
+                deleteDirectory(discarded);
+            } catch (IOException e) {
+                // Another process may be deleting it, otherwise the next sweep retries
+                logger.debug("Ignoring git repository cleanup error in {}: {}", discarded, e.getMessage());
+            } finally {
+                DELETING.remove(discarded);
+            }
+        });
+    }
+
+    // Deletes in the background what a stopped process left in a directory, once per process
+    private static void sweep(Path parent, String glob) {
+        Path swept = parent.toAbsolutePath().normalize();
+        if (!SWEPT.add(swept)) {
+            return;
+        }
+        startInBackground(CLEANUP_THREAD, () -> {
+            try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(parent, glob)) {
+                leftovers.forEach(GitCache::deleteInBackground);
+            } catch (IOException e) {
+                logger.debug("Ignoring git repository sweep error in {}: {}", parent, e.getMessage());
+            }
+        });
+    }
+
+    static void deleteDirectory(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+
+        Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, @Nullable IOException exc) throws IOException {
+                if (Objects.nonNull(exc)) {
+                    throw exc;
+                }
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
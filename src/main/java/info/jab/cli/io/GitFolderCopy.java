@@ -1,84 +1,429 @@
 package info.jab.cli.io;
 
-import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.internal.storage.dfs.DfsRepositoryDescription;
+import org.eclipse.jgit.internal.storage.dfs.InMemoryRepository;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.NullProgressMonitor;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectLoader;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.RefDatabase;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.transport.FetchConnection;
+import org.eclipse.jgit.transport.RefSpec;
+import org.eclipse.jgit.transport.TagOpt;
+import org.eclipse.jgit.transport.Transport;
+import org.eclipse.jgit.transport.URIish;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.util.FS;
+import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.nio.file.FileVisitResult;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.SimpleFileVisitor;
-import java.nio.file.StandardCopyOption;
-import java.nio.file.attribute.BasicFileAttributes;
-import java.util.Locale;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class GitFolderCopy {
 
     private static final Logger logger = LoggerFactory.getLogger(GitFolderCopy.class);
 
+    // Ref the default branch of the remote is stored under
+    private static final String FETCHED_HEAD = Constants.R_REFS + "setup/" + Constants.HEAD;
+
+    private final GitCache cache;
+    private final RuleFilter rules;
+
+    public GitFolderCopy() {
+        this(GitCache.load(), RuleFilter.load());
+    }
+
+    // Constructor for testing with a custom cache
+    GitFolderCopy(GitCache cache) {
+        this(cache, RuleFilter.DEFAULT);
+    }
+
+    // Constructor for testing with a custom cache and rule filter
+    GitFolderCopy(GitCache cache, RuleFilter rules) {
+        this.cache = cache;
+        this.rules = rules;
+    }
+
+    /**
+     * Copies the rule files of a folder of a repository, fetching only the commit to copy.
+     *
+     * The commit is fetched with depth 1 and without tags or other branches into the mirror of
+     * the repository, so the cost of a copy depends on the size of one tree instead of the size
+     * of the whole history, and nothing is fetched when the mirror already has the commit.
+     * The commit is pinned in a lock file next to the destination (.cursor/rules.lock): a later
+     * copy of the same repository and folder uses the pinned commit, and returns without any
+     * network round trip while no pinned file is missing.
+     *
+     * Later copies are three-way syncs against the files of the lock (RulesSync): only changed
+     * rules are written, rules removed upstream are deleted, and locally modified rules are
+     * kept and reported instead of being overwritten.
+     *
+     * @param repoUrl the repository, optionally followed by #branch, #tag or #commit
+     * @param folderPath the folder of the repository holding the rules
+     * @param destinationPath the destination folder
+     */
     public void copyFolderFromRepo(String repoUrl, String folderPath, String destinationPath) {
+        syncFolderFromRepos(List.of(repoUrl), folderPath, destinationPath, false);
+    }
+
+    /**
+     * Copies the rule files of a folder of a repository at a given ref.
+     *
+     * @param repoUrl the repository to fetch
+     * @param ref a branch, tag or full commit id, null for the default branch
+     * @param folderPath the folder of the repository holding the rules
+     * @param destinationPath the destination folder
+     */
+    public void copyFolderFromRepo(String repoUrl, @Nullable String ref, String folderPath, String destinationPath) {
+        copyFolderFromRepo(Objects.isNull(ref) ? repoUrl : repoUrl + "#" + ref, folderPath, destinationPath);
+    }
+
+    /**
+     * Copies the rule files of a folder of a repository at the latest commit of its ref,
+     * ignoring and then moving the pin of the lock file.
+     *
+     * @param repoUrl the repository, optionally followed by #branch, #tag or #commit
+     * @param folderPath the folder of the repository holding the rules
+     * @param destinationPath the destination folder
+     */
+    public void updateFolderFromRepo(String repoUrl, String folderPath, String destinationPath) {
+        syncFolderFromRepos(List.of(repoUrl), folderPath, destinationPath, true);
+    }
+
+    /**
+     * Copies the rule files of a folder of several repositories into one destination, e.g. an
+     * organisation baseline, team rules and language packs.
+     *
+     * The repositories are fetched concurrently, one virtual thread per repository, so a copy
+     * takes about as long as the slowest fetch. Their rules are merged in order: a file present
+     * in several repositories is copied from the last one. The merged rules are synced and
+     * pinned as a copy of a single repository is.
+     *
+     * @param repoUrls the repositories, each optionally followed by #branch, #tag or #commit
+     * @param folderPath the folder of every repository holding the rules
+     * @param destinationPath the destination folder
+     */
+    public void copyFolderFromRepos(List<String> repoUrls, String folderPath, String destinationPath) {
+        syncFolderFromRepos(repoUrls, folderPath, destinationPath, false);
+    }
+
+    /**
+     * Copies the merged rule files of several repositories at the latest commit of their refs,
+     * ignoring and then moving the pins of the lock file.
+     *
+     * @param repoUrls the repositories, each optionally followed by #branch, #tag or #commit
+     * @param folderPath the folder of every repository holding the rules
+     * @param destinationPath the destination folder
+     */
+    public void updateFolderFromRepos(List<String> repoUrls, String folderPath, String destinationPath) {
+        syncFolderFromRepos(repoUrls, folderPath, destinationPath, true);
+    }
+
+    private void syncFolderFromRepos(List<String> repoUrls, String folderPath, String destinationPath, boolean update) {
+        List<Remote> remotes = repoUrls.stream().map(repoUrl -> Remote.parse(repoUrl.trim())).toList();
+        String folder = normalizeFolder(folderPath);
+        Path destination = Paths.get(destinationPath);
+        Path lockFile = RulesLock.fileFor(destination);
         try {
-            // Clone to temporary directory
-            Path tempDir = Files.createTempDirectory("git-clone");
+            // The previous sync is the base of the three-way sync, its commits are the pins unless updating
+            Optional<RulesLock> previous = previousSync(lockFile, repoUrls, folder);
+            Optional<RulesLock> pin = update ? Optional.empty() : previous;
+            if (pin.isPresent()) {
+                RulesSync sync = new RulesSync(pin.get().files());
+                if (syncPinned(pin.get(), destination, sync, (targetFile, action, rule) -> { })) {
+                    logger.debug("Rules in {} match the commits pinned in {}", destination, lockFile);
+                    report(destination, sync.report());
+                    return;
+                }
+            }
 
             // For public repositories, don't set any credentials provider
             // JGit will handle anonymous access automatically
-            Git.cloneRepository()
-                .setURI(repoUrl)
-                .setDirectory(tempDir.toFile())
-                .call();
+            Map<String, GitCache.Mirror> mirrors = new TreeMap<>();
+            try {
+                // Opened in a stable order, so concurrent setup processes lock the mirrors in the same order
+                for (Remote remote : remotes) {
+                    String key = GitCache.key(remote.url());
+                    if (!mirrors.containsKey(key)) {
+                        mirrors.put(key, cache.open(remote.url()));
+                    }
+                }
+                List<ObjectId> commits = fetchAll(pinned(remotes, pin),
+                    remote -> Objects.requireNonNull(mirrors.get(GitCache.key(remote.url()))).repository());
+                mirrors.values().forEach(GitCache.Mirror::fetched);
+                SortedMap<String, Rule> upstream = mergeRules(remotes, commits, folder, rules, destination,
+                    remote -> Objects.requireNonNull(mirrors.get(GitCache.key(remote.url()))).repository());
+                RulesSync sync = new RulesSync(previous.map(RulesLock::files).orElse(null));
+                syncRules(upstream, destination, sync, writer(destination));
+                new RulesLock(sources(repoUrls, folder, commits), blobIds(upstream)).write(lockFile);
+                report(destination, sync.report());
+            } finally {
+                closeAll(mirrors.values());
+            }
+        } catch (Exception e) {
+            logger.error("Error copying folder from repo: {}", e.getMessage(), e);
+        }
+    }
 
-            // Copy specific folder
-            Path sourcePath = tempDir.resolve(folderPath);
-            Path destPath = Paths.get(destinationPath);
+    // The lock of a previous copy of the same repositories and folder
+    private static Optional<RulesLock> previousSync(Path lockFile, List<String> repoUrls, String folder) {
+        return RulesLock.read(lockFile).filter(lock -> lock.matches(repoUrls, folder));
+    }
+
+    // Locally modified rules are the conflict report of the sync
+    private static void report(Path destination, RulesSync.Report report) {
+        logger.info("Synced rules to {}: {}", destination, report.summary());
+        report.kept().forEach((relativePath, reason) ->
+            logger.warn("Kept {}, {}", destination.resolve(relativePath), reason));
+    }
 
-            if (Files.exists(sourcePath)) {
-                copyDirectory(sourcePath, destPath);
+    private static List<Remote> pinned(List<Remote> remotes, Optional<RulesLock> pin) {
+        if (pin.isEmpty()) {
+            return remotes;
+        }
+        List<Remote> pinned = new ArrayList<>(remotes.size());
+        for (int i = 0; i < remotes.size(); i++) {
+            pinned.add(new Remote(remotes.get(i).url(), pin.get().sources().get(i).commit().name()));
+        }
+        return pinned;
+    }
+
+    private static List<RulesLock.Source> sources(List<String> repoUrls, String folder, List<ObjectId> commits) {
+        List<RulesLock.Source> sources = new ArrayList<>(repoUrls.size());
+        for (int i = 0; i < repoUrls.size(); i++) {
+            sources.add(new RulesLock.Source(repoUrls.get(i).trim(), folder, commits.get(i)));
+        }
+        return sources;
+    }
+
+    private static void closeAll(Collection<GitCache.Mirror> mirrors) {
+        for (GitCache.Mirror mirror : mirrors) {
+            try {
+                mirror.close();
+            } catch (RuntimeException e) {
+                logger.warn("Could not close git mirror {}: {}", mirror.directory(), e.getMessage());
             }
+        }
+    }
 
-            // Clean up temp directory using NIO
-            deleteDirectory(tempDir);
+    /**
+     * The repository a source is fetched into, a mirror or an in-memory repository.
+     */
+    @FunctionalInterface
+    private interface RepositoryFor {
+        Repository get(Remote remote);
+    }
 
-        } catch (Exception e) {
-            logger.error("Error copying folder from repo: {}", e.getMessage(), e);
+    /**
+     * Fetches every source concurrently on virtual threads, sources of the same repository in
+     * order on the same thread, since they share its object database.
+     *
+     * HTTP transports use the JDK keep-alive cache, so concurrent fetches from the same host
+     * reuse its connections.
+     *
+     * @return the fetched commit of every source, in order
+     */
+    private static List<ObjectId> fetchAll(List<Remote> remotes, RepositoryFor repositories)
+            throws IOException, URISyntaxException {
+        if (remotes.size() == 1) {
+            Remote remote = remotes.get(0);
+            return List.of(fetch(repositories.get(remote), remote));
         }
+        Map<String, List<Integer>> byRepository = new LinkedHashMap<>();
+        for (int i = 0; i < remotes.size(); i++) {
+            byRepository.computeIfAbsent(GitCache.key(remotes.get(i).url()), key -> new ArrayList<>()).add(i);
+        }
+        ObjectId[] commits = new ObjectId[remotes.size()];
+        List<Future<?>> fetches = new ArrayList<>(byRepository.size());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (List<Integer> indexes : byRepository.values()) {
+                fetches.add(executor.submit(ExecutionContext.wrap(() -> {
+                    for (int i : indexes) {
+                        commits[i] = fetch(repositories.get(remotes.get(i)), remotes.get(i));
+                    }
+                    return null;
+                })));
+            }
+        }
+        // Every fetch has completed once the executor is closed
+        for (Future<?> fetch : fetches) {
+            try {
+                fetch.get();
+            } catch (ExecutionException e) {
+                Throwable cause = Objects.requireNonNullElse(e.getCause(), e);
+                if (cause instanceof IOException io) {
+                    throw io;
+                }
+                if (cause instanceof URISyntaxException uri) {
+                    throw uri;
+                }
+                throw new IOException(cause.getMessage(), cause);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while fetching cursor rules");
+            }
+        }
+        return Arrays.asList(commits);
     }
 
     /**
-     * Deletes a directory and all its contents using NIO approach.
-     * This method handles both files and directories recursively.
+     * A rule file of a fetched commit.
      *
-     * @param directory the directory path to delete
-     * @throws IOException if an I/O error occurs during deletion
+     * @param targetFile the destination file
+     * @param blobId the git blob id of its content
+     * @param repository the repository holding the blob
      */
-    private void deleteDirectory(Path directory) throws IOException {
-        if (!Files.exists(directory)) {
-            return;
+    private record Rule(Path targetFile, ObjectId blobId, Repository repository) {
+
+        ObjectLoader open() throws IOException {
+            return repository.open(blobId, Constants.OBJ_BLOB);
+        }
+    }
+
+    // The rule files of every source by relative path, a later source replacing the files of the earlier ones
+    private static SortedMap<String, Rule> mergeRules(List<Remote> remotes, List<ObjectId> commits, String folder,
+            RuleFilter filter, Path destination, RepositoryFor repositories) throws IOException {
+        SortedMap<String, Rule> rules = new TreeMap<>();
+        for (int i = 0; i < remotes.size(); i++) {
+            Remote remote = remotes.get(i);
+            Repository repository = repositories.get(remote);
+            walkRules(repository, commits.get(i), folder, filter, destination, (relativePath, targetFile, blobId) -> {
+                Rule replaced = rules.put(relativePath, new Rule(targetFile, blobId, repository));
+                if (Objects.nonNull(replaced) && !replaced.blobId().equals(blobId)) {
+                    logger.debug("{} of {} replaces the rule of a previous source", relativePath, remote.url());
+                }
+            });
         }
+        return rules;
+    }
 
-        Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
-            @Override
-            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
-                Files.delete(file);
-                return FileVisitResult.CONTINUE;
+    private static SortedMap<String, ObjectId> blobIds(SortedMap<String, Rule> rules) {
+        SortedMap<String, ObjectId> blobIds = new TreeMap<>();
+        rules.forEach((relativePath, rule) -> blobIds.put(relativePath, rule.blobId()));
+        return blobIds;
+    }
+
+    /**
+     * A repository URL and the ref to fetch from it.
+     *
+     * @param url the repository URL
+     * @param ref a branch, tag or full commit id, null for the default branch
+     */
+    record Remote(String url, @Nullable String ref) {
+
+        // https://github.com/org/rules#v1.2 selects the tag v1.2
+        static Remote parse(String repoUrl) {
+            int separator = repoUrl.lastIndexOf('#');
+            if (separator < 0) {
+                return new Remote(repoUrl, null);
             }
+            String ref = repoUrl.substring(separator + 1).trim();
+            return new Remote(repoUrl.substring(0, separator), ref.isEmpty() ? null : ref);
+        }
+    }
 
-            @Override
-            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
-                if (Objects.nonNull(exc)) {
-                    throw exc;
+    /**
+     * Fetches a single commit into a repository: depth 1, no tags and no other branches.
+     *
+     * The refs of the remote are listed first, as git ls-remote does: when the repository
+     * already has the commit a ref points to, nothing is fetched. Short branch and tag names
+     * are resolved against those refs, because the fetch protocol only accepts full names,
+     * and the fetched ref keeps its name. Commit ids must be complete, and the remote is not
+     * contacted at all for a commit id the repository already has.
+     *
+     * @param repository the repository to fetch into
+     * @param remote the repository URL and the ref to fetch
+     * @return the fetched commit
+     */
+    static ObjectId fetch(Repository repository, Remote remote) throws IOException, URISyntaxException {
+        String pinned = remote.ref();
+        if (Objects.nonNull(pinned) && ObjectId.isId(pinned) && repository.getObjectDatabase().has(ObjectId.fromString(pinned))) {
+            // A commit id never moves, a mirror holding it does not need the remote
+            logger.debug("{} of {} is in the mirror, nothing to fetch", pinned, remote.url());
+            try (RevWalk revWalk = new RevWalk(repository)) {
+                return revWalk.parseCommit(ObjectId.fromString(pinned)).getId();
+            }
+        }
+        try (Transport transport = Transport.open(repository, new URIish(remote.url()))) {
+            transport.setDepth(1);
+            transport.setTagOpt(TagOpt.NO_TAGS);
+            String ref = remote.ref();
+            String source;
+            String destination;
+            ObjectId advertised;
+            if (Objects.nonNull(ref) && ObjectId.isId(ref)) {
+                // Fetching a commit id does not update the destination ref
+                source = ref;
+                destination = FETCHED_HEAD;
+                advertised = ObjectId.fromString(ref);
+            } else {
+                Ref found = advertisedRef(transport, remote);
+                source = found.getName();
+                destination = Constants.HEAD.equals(source) ? FETCHED_HEAD : source;
+                advertised = Objects.requireNonNull(found.getObjectId());
+            }
+            ObjectId commit = advertised;
+            if (repository.getObjectDatabase().has(advertised)) {
+                logger.debug("{} of {} is up to date, nothing to fetch", source, remote.url());
+            } else {
+                transport.fetch(NullProgressMonitor.INSTANCE, List.of(new RefSpec("+" + source + ":" + destination)));
+                // The ref may have moved between the listing and the fetch
+                Ref fetched = repository.exactRef(destination);
+                if (!ObjectId.isId(source) && Objects.nonNull(fetched) && Objects.nonNull(fetched.getObjectId())) {
+                    commit = fetched.getObjectId();
                 }
-                Files.delete(dir);
-                return FileVisitResult.CONTINUE;
             }
-        });
+            // Annotated tags point to a tag object, the walk peels them to their commit
+            try (RevWalk revWalk = new RevWalk(repository)) {
+                return revWalk.parseCommit(commit).getId();
+            }
+        }
+    }
+
+    // The ref of the remote to fetch, the default branch when no ref is given
+    private static Ref advertisedRef(Transport transport, Remote remote) throws IOException {
+        String ref = Objects.requireNonNullElse(remote.ref(), Constants.HEAD);
+        try (FetchConnection connection = transport.openFetch()) {
+            Ref advertised = RefDatabase.findRef(connection.getRefsMap(), ref);
+            if (Objects.isNull(advertised) || Objects.isNull(advertised.getObjectId())) {
+                throw new IOException(Objects.isNull(remote.ref())
+                    ? "Repository " + remote.url() + " has no default branch"
+                    : "No branch or tag " + ref + " in " + remote.url());
+            }
+            return advertised;
+        }
     }
 
     /**
-     * Copies a directory from source to destination.
+     * Writes the rule files of a folder of a commit to a destination, straight from the
+     * object database: only the blobs of rule files are read and each one is streamed once
+     * into its destination file. Files already up to date are not rewritten.
      *
      * .cursor/rules
      *      ├── 2000-agile-checklist.mdc
@@ -98,51 +443,319 @@ public class GitFolderCopy {
      *          ├── gherkin-template.md
      *          └── user-story-template.md
      *
-     * @param source the source directory path to copy from
-     * @param destination the destination directory path to copy to
+     * @param repository the repository holding the commit
+     * @param commit the commit to copy from
+     * @param folderPath the folder of the repository holding the rules
+     * @param destination the destination folder
+     * @return the number of files written
      * @throws IOException if an I/O error occurs during the copy operation
      */
-    @SuppressWarnings("AlreadyChecked")
-    private void copyDirectory(Path source, Path destination) throws IOException {
-        try (var stream = Files.walk(source)) {
-            stream.filter(sourcePath -> {
-                // Always include directories to maintain structure
-                if (Files.isDirectory(sourcePath)) {
-                    return true;
-                }
+    static int extractFolder(Repository repository, ObjectId commit, String folderPath, Path destination)
+            throws IOException {
+        RulesSync sync = new RulesSync(null);
+        SortedMap<String, Rule> rules = mergeRules(List.of(new Remote("", null)), List.of(commit), folderPath,
+            RuleFilter.DEFAULT, destination, remote -> repository);
+        syncRules(rules, destination, sync, writer(destination));
+        return sync.report().written();
+    }
 
-                String pathString = sourcePath.toString().toLowerCase(Locale.ENGLISH);
+    /**
+     * What to do with one file of a sync: written, deleted, or left as it is.
+     */
+    @FunctionalInterface
+    private interface SyncAction {
+        void apply(Path targetFile, RulesSync.Action action, @Nullable Rule rule) throws IOException;
+    }
 
-                // Include files with .mdc extension
-                if (pathString.endsWith(".mdc")) {
-                    return true;
-                }
+    /**
+     * Three-way sync of the merged rule files of the sources with the destination, see RulesSync.
+     *
+     * @param upstream the rule files to copy, by relative path
+     * @param syncAction applies the action decided for each file, the rule is null for files removed upstream
+     */
+    private static void syncRules(SortedMap<String, Rule> upstream, Path destination, RulesSync sync,
+            SyncAction syncAction) throws IOException {
+        for (Map.Entry<String, Rule> rule : upstream.entrySet()) {
+            Path targetFile = rule.getValue().targetFile();
+            syncAction.apply(targetFile,
+                sync.decide(rule.getKey(), rule.getValue().blobId(), RulesSync.blobId(targetFile)), rule.getValue());
+        }
+        Path root = destination.toAbsolutePath().normalize();
+        for (String relativePath : sync.removedFrom(upstream.keySet())) {
+            Path targetFile = root.resolve(relativePath).normalize();
+            ObjectId local = RulesSync.blobId(targetFile);
+            // A lock file edited by hand must not delete files outside of the destination
+            if (targetFile.startsWith(root) && Objects.nonNull(local)) {
+                syncAction.apply(targetFile, sync.decide(relativePath, null, local), null);
+            }
+        }
+    }
 
-                // Include files with .md extension
-                if (pathString.endsWith(".md")) {
-                    return true;
+    /**
+     * Syncs the pinned commit without its repository: base and upstream are then the same
+     * files, so as long as none of them is missing there is nothing to write or delete.
+     *
+     * @return false when a pinned file is missing and the commit has to be read
+     */
+    private static boolean syncPinned(RulesLock pin, Path destination, RulesSync sync, SyncAction syncAction)
+            throws IOException {
+        Path root = destination.toAbsolutePath().normalize();
+        Map<String, ObjectId> local = new TreeMap<>();
+        for (String relativePath : pin.files().keySet()) {
+            ObjectId blobId = RulesSync.blobId(root.resolve(relativePath));
+            if (Objects.isNull(blobId)) {
+                return false;
+            }
+            local.put(relativePath, blobId);
+        }
+        for (Map.Entry<String, ObjectId> file : pin.files().entrySet()) {
+            String relativePath = file.getKey();
+            syncAction.apply(root.resolve(relativePath),
+                sync.decide(relativePath, file.getValue(), local.get(relativePath)), null);
+        }
+        return true;
+    }
+
+    // Writes and deletes the files of a sync, pruning the folders it empties inside the destination.
+    // A rule is written through a temporary sibling: a write cut short would otherwise be kept as
+    // a local modification by every later sync.
+    private static SyncAction writer(Path destination) {
+        Path root = destination.toAbsolutePath().normalize();
+        return (targetFile, action, rule) -> {
+            if (action == RulesSync.Action.WRITE && Objects.nonNull(rule)) {
+                Files.createDirectories(Objects.requireNonNull(targetFile.getParent()));
+                Rule written = rule;
+                CopyOutput.writeAtomically(targetFile, temporary -> {
+                    try (OutputStream output = Files.newOutputStream(temporary)) {
+                        written.open().copyTo(output);
+                    }
+                });
+            } else if (action == RulesSync.Action.DELETE) {
+                Files.delete(targetFile);
+                for (Path parent = targetFile.getParent(); Objects.nonNull(parent) && !parent.equals(root)
+                        && parent.startsWith(root) && isEmptyDirectory(parent); parent = parent.getParent()) {
+                    Files.delete(parent);
                 }
+            }
+        };
+    }
+
+    private static boolean isEmptyDirectory(Path directory) throws IOException {
+        try (Stream<Path> entries = Files.list(directory)) {
+            return entries.findAny().isEmpty();
+        }
+    }
 
-                //TODO: Remove when I refactor cursor rules agile (2025-09-18)
-                // Include files with .md extension that are inside templates folder
-                if (pathString.endsWith(".md") && pathString.contains("templates")) {
-                    return true;
+    @FunctionalInterface
+    private interface RuleVisitor {
+        void visit(String relativePath, Path targetFile, ObjectId blobId) throws IOException;
+    }
+
+    // Visits the rule files of a folder of a commit with their destination file
+    private static void walkRules(Repository repository, ObjectId commit, String folderPath, RuleFilter filter,
+            Path destination, RuleVisitor visitor) throws IOException {
+        String folder = normalizeFolder(folderPath);
+        Path root = destination.toAbsolutePath().normalize();
+        try (RevWalk revWalk = new RevWalk(repository); TreeWalk treeWalk = new TreeWalk(repository)) {
+            treeWalk.addTree(revWalk.parseCommit(commit).getTree());
+            treeWalk.setRecursive(true);
+            // Only rule files reach the loop, excluded directories are not even read
+            treeWalk.setFilter(filter.in(folder));
+            while (treeWalk.next()) {
+                String path = treeWalk.getPathString();
+                // A folder path naming a single file copies that file into the destination
+                String relative = folder.isEmpty() ? path
+                    : path.length() == folder.length() ? treeWalk.getNameString() : path.substring(folder.length() + 1);
+                Path targetFile = root.resolve(relative).normalize();
+                if (!targetFile.startsWith(root)) {
+                    throw new IOException("Refusing to write " + path + " outside of " + destination);
                 }
+                visitor.visit(relative, targetFile, treeWalk.getObjectId(0));
+            }
+        }
+    }
 
-                return false;
-            }).forEach(sourcePath -> {
-                Path destPath = null;
-                try {
-                    destPath = destination.resolve(source.relativize(sourcePath));
-                    if (Files.isDirectory(sourcePath)) {
-                        Files.createDirectories(destPath);
-                    } else {
-                        Files.copy(sourcePath, destPath, StandardCopyOption.REPLACE_EXISTING);
+    /**
+     * Plans a copy without writing to disk: the commit is read from the mirror when the cache
+     * already holds it, fetched into memory otherwise, and the rule files of the folder are
+     * synced with the destination on paper. A destination
+     * holding every file pinned by its lock file is planned from the lock, without fetching.
+     *
+     * @param repoUrl the repository, optionally followed by #branch, #tag or #commit
+     * @param folderPath the folder of the repository holding the rules
+     * @param destinationPath the destination folder
+     * @return the files the copy would create, overwrite, delete, keep or leave unchanged
+     */
+    public Plan planFolderFromRepo(String repoUrl, String folderPath, String destinationPath) {
+        return planFolder(List.of(repoUrl), folderPath, destinationPath, false);
+    }
+
+    /**
+     * Plans an update, the copy of the latest commit of the ref whatever the lock file pins.
+     *
+     * @param repoUrl the repository, optionally followed by #branch, #tag or #commit
+     * @param folderPath the folder of the repository holding the rules
+     * @param destinationPath the destination folder
+     * @return the files the update would create, overwrite, delete, keep or leave unchanged
+     */
+    public Plan planFolderUpdateFromRepo(String repoUrl, String folderPath, String destinationPath) {
+        return planFolder(List.of(repoUrl), folderPath, destinationPath, true);
+    }
+
+    /**
+     * Plans a copy of the merged rules of several repositories, see copyFolderFromRepos.
+     *
+     * @param repoUrls the repositories, each optionally followed by #branch, #tag or #commit
+     * @param folderPath the folder of every repository holding the rules
+     * @param destinationPath the destination folder
+     * @return the files the copy would create, overwrite, delete, keep or leave unchanged
+     */
+    public Plan planFolderFromRepos(List<String> repoUrls, String folderPath, String destinationPath) {
+        return planFolder(repoUrls, folderPath, destinationPath, false);
+    }
+
+    /**
+     * Plans an update of the merged rules of several repositories, see updateFolderFromRepos.
+     *
+     * @param repoUrls the repositories, each optionally followed by #branch, #tag or #commit
+     * @param folderPath the folder of every repository holding the rules
+     * @param destinationPath the destination folder
+     * @return the files the update would create, overwrite, delete, keep or leave unchanged
+     */
+    public Plan planFolderUpdateFromRepos(List<String> repoUrls, String folderPath, String destinationPath) {
+        return planFolder(repoUrls, folderPath, destinationPath, true);
+    }
+
+    private Plan planFolder(List<String> repoUrls, String folderPath, String destinationPath, boolean update) {
+        List<Remote> remotes = repoUrls.stream().map(repoUrl -> Remote.parse(repoUrl.trim())).toList();
+        String folder = normalizeFolder(folderPath);
+        Path destination = Paths.get(destinationPath);
+        Path lockFile = RulesLock.fileFor(destination);
+        String repositories = String.join(", ", repoUrls);
+        try {
+            Optional<RulesLock> previous = previousSync(lockFile, repoUrls, folder);
+            Optional<RulesLock> pin = update ? Optional.empty() : previous;
+            if (pin.isPresent()) {
+                List<Plan.FileChange> files = new ArrayList<>();
+                if (syncPinned(pin.get(), destination, new RulesSync(pin.get().files()), planner(files))) {
+                    return Plan.ofFiles(files).and(Plan.ofNote("Rules match " + pinnedCommits(pin.get()) + " pinned in " + lockFile));
+                }
+            }
+            Map<String, GitCache.Mirror> mirrors = new TreeMap<>();
+            List<Repository> inMemory = new ArrayList<>();
+            try {
+                // A warm mirror holding the commits is read in place, nothing is fetched into it
+                Map<String, Repository> readFrom = new TreeMap<>();
+                List<Remote> sources = new ArrayList<>(pinned(remotes, pin));
+                for (Remote remote : remotes) {
+                    String key = GitCache.key(remote.url());
+                    if (!mirrors.containsKey(key)) {
+                        cache.openExisting(remote.url()).ifPresent(mirror -> mirrors.put(key, mirror));
                     }
-                } catch (IOException e) {
-                    logger.error("Error copying file from {} to {}: {}", sourcePath, destPath, e.getMessage(), e);
                 }
-            });
+                for (String key : mirrors.keySet()) {
+                    Repository mirror = Objects.requireNonNull(mirrors.get(key)).repository();
+                    List<Remote> resolved = resolveInMirror(mirror, key, sources);
+                    if (!resolved.isEmpty()) {
+                        readFrom.put(key, mirror);
+                        sources = resolved;
+                    }
+                }
+                for (Remote remote : remotes) {
+                    String key = GitCache.key(remote.url());
+                    if (!readFrom.containsKey(key)) {
+                        Repository repository = new InMemoryRepository.Builder()
+                            .setRepositoryDescription(new DfsRepositoryDescription("plan"))
+                            // The local transport (file: URLs) resolves paths through the repository file system
+                            .setFS(FS.DETECTED)
+                            .build();
+                        inMemory.add(repository);
+                        readFrom.put(key, repository);
+                    }
+                }
+                RepositoryFor repositoryFor = remote -> Objects.requireNonNull(readFrom.get(GitCache.key(remote.url())));
+                List<ObjectId> commits = fetchAll(sources, repositoryFor);
+                List<Plan.FileChange> files = new ArrayList<>();
+                syncRules(mergeRules(remotes, commits, folder, rules, destination, repositoryFor), destination,
+                    new RulesSync(previous.map(RulesLock::files).orElse(null)), planner(files));
+                Plan pinning = Plan.EMPTY;
+                for (int i = 0; i < remotes.size(); i++) {
+                    String commit = (pin.isPresent() ? "Copy commit " : "Pin commit ") + commits.get(i).name()
+                        + (remotes.size() > 1 ? " of " + repoUrls.get(i).trim() : "");
+                    pinning = pinning.and(Plan.ofNote(pin.isPresent()
+                        ? commit + " pinned in " + lockFile
+                        : commit + " in " + lockFile));
+                }
+                if (files.isEmpty()) {
+                    return Plan.ofNote("No rules found in " + folderPath + " of " + repositories + ", nothing would be copied")
+                        .and(pinning);
+                }
+                return Plan.ofFiles(files).and(pinning);
+            } finally {
+                inMemory.forEach(Repository::close);
+                closeAll(mirrors.values());
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("Error planning copy from repo " + repositories + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Pins the sources of a repository to the commits its mirror already holds: a commit id or
+     * the commit the remote advertises for the ref, so the plan reads them without fetching.
+     *
+     * @return the sources with those of the repository pinned, empty when the mirror misses one
+     */
+    private static List<Remote> resolveInMirror(Repository mirror, String key, List<Remote> sources)
+            throws IOException, URISyntaxException {
+        List<Remote> resolved = new ArrayList<>(sources);
+        for (int i = 0; i < sources.size(); i++) {
+            Remote source = sources.get(i);
+            if (!GitCache.key(source.url()).equals(key)) {
+                continue;
+            }
+            String ref = source.ref();
+            ObjectId commit;
+            if (Objects.nonNull(ref) && ObjectId.isId(ref)) {
+                commit = ObjectId.fromString(ref);
+            } else {
+                try (Transport transport = Transport.open(mirror, new URIish(source.url()))) {
+                    commit = Objects.requireNonNull(advertisedRef(transport, source).getObjectId());
+                }
+            }
+            if (!mirror.getObjectDatabase().has(commit)) {
+                return List.of();
+            }
+            resolved.set(i, new Remote(source.url(), commit.name()));
+        }
+        return resolved;
+    }
+
+    private static String pinnedCommits(RulesLock pin) {
+        if (pin.sources().size() == 1) {
+            return "commit " + pin.sources().get(0).commit().name();
+        }
+        return "commits " + pin.sources().stream().map(source -> source.commit().name()).collect(Collectors.joining(", "));
+    }
+
+    // Records the files of a sync in a plan instead of writing them
+    private static SyncAction planner(List<Plan.FileChange> files) {
+        return (targetFile, action, rule) -> files.add(switch (action) {
+            case WRITE -> Plan.FileChange.of(targetFile, Objects.nonNull(rule) ? rule.open().getSize() : -1, false);
+            case UNCHANGED -> new Plan.FileChange(targetFile, Files.size(targetFile), Plan.Action.UNCHANGED);
+            case DELETE -> new Plan.FileChange(targetFile, Files.size(targetFile), Plan.Action.DELETE);
+            case KEEP -> new Plan.FileChange(targetFile, Files.size(targetFile), Plan.Action.KEEP);
+        });
+    }
+
+    private static String normalizeFolder(String folderPath) {
+        String folder = folderPath.replace('\\', '/');
+        while (folder.startsWith("./")) {
+            folder = folder.substring(2);
+        }
+        while (folder.endsWith("/")) {
+            folder = folder.substring(0, folder.length() - 1);
         }
+        return folder.equals(".") ? "" : folder;
     }
 }
@@ -0,0 +1,128 @@
+package info.jab.cli.io;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystemAlreadyExistsException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Reference counted pool of the file systems behind classpath resources.
+ *
+ * Resources packaged in a jar use the ZipFS provider (jar:) and resources embedded in a
+ * GraalVM native image use the resource provider (resource:). Opening a ZipFS parses the
+ * central directory of the jar, so every archive is opened once and shared by all leases.
+ * The file system is closed when the last lease is released, unless it was opened by
+ * someone else in the same JVM.
+ */
+final class JarFileSystems {
+
+    private static final JarFileSystems SHARED = new JarFileSystems();
+
+    private static final class Entry {
+        private final FileSystem fileSystem;
+        private final boolean owned;
+        private int references;
+
+        private Entry(FileSystem fileSystem, boolean owned) {
+            this.fileSystem = fileSystem;
+            this.owned = owned;
+        }
+    }
+
+    /**
+     * Handle on a pooled file system, closing it releases the reference.
+     */
+    final class Lease implements AutoCloseable {
+
+        private final String key;
+        private final FileSystem fileSystem;
+        private boolean released;
+
+        private Lease(String key, FileSystem fileSystem) {
+            this.key = key;
+            this.fileSystem = fileSystem;
+        }
+
+        Path resolve(URI uri) {
+            return fileSystem.provider().getPath(uri);
+        }
+
+        FileSystem fileSystem() {
+            return fileSystem;
+        }
+
+        @Override
+        public void close() throws IOException {
+            synchronized (JarFileSystems.this) {
+                if (released) {
+                    return;
+                }
+                released = true;
+                release(key);
+            }
+        }
+    }
+
+    private final Map<String, Entry> fileSystems = new HashMap<>();
+
+    // Constructor for testing with an isolated pool
+    JarFileSystems() {
+    }
+
+    static JarFileSystems shared() {
+        return SHARED;
+    }
+
+    /**
+     * File system identity of a resource URI: jar:file:/app.jar!/templates/x becomes jar:file:/app.jar.
+     *
+     * @param uri the resource URI
+     * @return the key of the file system holding the resource
+     */
+    static String key(URI uri) {
+        String value = uri.toString();
+        int separator = value.indexOf("!/");
+        return separator >= 0 ? value.substring(0, separator) : uri.getScheme() + ":";
+    }
+
+    synchronized Lease acquire(URI uri) throws IOException {
+        String key = key(uri);
+        Entry entry = fileSystems.get(key);
+        if (Objects.isNull(entry)) {
+            entry = open(uri);
+            fileSystems.put(key, entry);
+        }
+        entry.references++;
+        return new Lease(key, entry.fileSystem);
+    }
+
+    private static Entry open(URI uri) throws IOException {
+        try {
+            return new Entry(FileSystems.newFileSystem(uri, Collections.emptyMap()), true);
+        } catch (FileSystemAlreadyExistsException e) {
+            // Opened outside the pool, shared but never closed by it
+            return new Entry(FileSystems.getFileSystem(uri), false);
+        }
+    }
+
+    private synchronized void release(String key) throws IOException {
+        Entry entry = Objects.requireNonNull(fileSystems.get(key));
+        entry.references--;
+        if (entry.references == 0) {
+            fileSystems.remove(key);
+            if (entry.owned) {
+                entry.fileSystem.close();
+            }
+        }
+    }
+
+    synchronized int openFileSystems() {
+        return fileSystems.size();
+    }
+}
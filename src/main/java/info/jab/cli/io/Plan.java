@@ -0,0 +1,138 @@
+package info.jab.cli.io;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * What a feature would do, computed without writing a file or spawning a process.
+ *
+ * Files are compared with their destination (reads only), commands are listed but not run.
+ * A plan with nothing to create, overwrite, delete or run is a no-op, so rolling a feature out to
+ * many repositories can skip those before spending any disk or process time.
+ *
+ * @param files the files the feature would write, with their action
+ * @param commands the command lines the feature would spawn
+ * @param notes preconditions and side effects that are not files or commands
+ */
+public record Plan(List<FileChange> files, List<String> commands, List<String> notes) {
+
+    public static final Plan EMPTY = new Plan(List.of(), List.of(), List.of());
+
+    public enum Action {
+        CREATE,
+        OVERWRITE,
+        UNCHANGED,
+        // Removed upstream, see RulesSync
+        DELETE,
+        // Modified locally and left as it is, see RulesSync
+        KEEP
+    }
+
+    /**
+     * One file of the plan.
+     *
+     * @param path the destination file
+     * @param bytes the size of the content to write, -1 when unknown
+     * @param action whether the file is created, overwritten, deleted or left as it is
+     */
+    public record FileChange(Path path, long bytes, Action action) {
+
+        static FileChange of(Path path, long bytes, boolean upToDate) {
+            if (upToDate) {
+                return new FileChange(path, bytes, Action.UNCHANGED);
+            }
+            return new FileChange(path, bytes, Files.exists(path) ? Action.OVERWRITE : Action.CREATE);
+        }
+    }
+
+    public Plan {
+        files = List.copyOf(files);
+        commands = List.copyOf(commands);
+        notes = List.copyOf(notes);
+    }
+
+    public static Plan ofFiles(List<FileChange> files) {
+        return new Plan(files, List.of(), List.of());
+    }
+
+    public static Plan ofCommand(String command) {
+        return new Plan(List.of(), List.of(command), List.of());
+    }
+
+    public static Plan ofNote(String note) {
+        return new Plan(List.of(), List.of(), List.of(note));
+    }
+
+    public Plan and(Plan other) {
+        List<FileChange> allFiles = new ArrayList<>(files);
+        allFiles.addAll(other.files);
+        List<String> allCommands = new ArrayList<>(commands);
+        allCommands.addAll(other.commands);
+        List<String> allNotes = new ArrayList<>(notes);
+        allNotes.addAll(other.notes);
+        return new Plan(allFiles, allCommands, allNotes);
+    }
+
+    public long count(Action action) {
+        return files.stream().filter(file -> file.action() == action).count();
+    }
+
+    /**
+     * Bytes of the files created or overwritten, files of unknown size are not counted.
+     *
+     * @return the bytes the feature would write
+     */
+    public long bytesToWrite() {
+        return files.stream()
+            .filter(file -> (file.action() == Action.CREATE || file.action() == Action.OVERWRITE) && file.bytes() > 0)
+            .mapToLong(FileChange::bytes)
+            .sum();
+    }
+
+    public boolean isNoOp() {
+        return commands.isEmpty()
+            && files.stream().allMatch(file -> file.action() == Action.UNCHANGED || file.action() == Action.KEEP);
+    }
+
+    /**
+     * Renders the plan, file paths relative to the working directory of the current invocation.
+     *
+     * @param feature the option of the feature, e.g. --gitignore
+     * @param estimate the duration of previous runs of the feature
+     * @return the plan as text
+     */
+    public String render(String feature, Optional<Duration> estimate) {
+        StringBuilder text = new StringBuilder()
+            .append("Plan for ").append(feature).append(": ")
+            .append(count(Action.CREATE)).append(" to create, ")
+            .append(count(Action.OVERWRITE)).append(" to overwrite, ")
+            .append(count(Action.UNCHANGED)).append(" unchanged, ")
+            .append(count(Action.DELETE) > 0 ? count(Action.DELETE) + " to delete, " : "")
+            .append(count(Action.KEEP) > 0 ? count(Action.KEEP) + " kept, " : "")
+            .append(bytesToWrite()).append(" bytes to write, ")
+            .append(commands.size()).append(commands.size() == 1 ? " command" : " commands")
+            .append(estimate.map(duration -> ", about " + duration.toMillis() + " ms").orElse(", no previous run"));
+        Path workingDirectory = ExecutionContext.current().workingDirectory();
+        for (FileChange file : files) {
+            Path path = file.path().startsWith(workingDirectory) ? workingDirectory.relativize(file.path()) : file.path();
+            text.append(System.lineSeparator())
+                .append(String.format(Locale.ROOT, "  %-9s %s", file.action().name().toLowerCase(Locale.ROOT), path))
+                .append(file.bytes() >= 0 ? " (" + file.bytes() + " bytes)" : "");
+        }
+        for (String command : commands) {
+            text.append(System.lineSeparator()).append(String.format(Locale.ROOT, "  %-9s %s", "run", command));
+        }
+        for (String note : notes) {
+            text.append(System.lineSeparator()).append(String.format(Locale.ROOT, "  %-9s %s", "note", note));
+        }
+        if (isNoOp()) {
+            text.append(System.lineSeparator()).append("Nothing to do");
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,180 @@
+package info.jab.cli.io;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.treewalk.AbstractTreeIterator;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.AndTreeFilter;
+import org.eclipse.jgit.treewalk.filter.PathFilter;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * The rule files of a folder of a commit, as a tree walk filter compiled once: cursor rules
+ * (.mdc) and their markdown templates (.md) by default.
+ *
+ * Extensions are compared, ignoring ASCII case, against the name bytes of the entry, so the
+ * usual entry is accepted or rejected without allocating. Include and exclude patterns
+ * (CopyFilter, relative to the rules folder) are only evaluated when configured, and a
+ * directory they exclude is skipped without reading its tree. Symbolic links and
+ * submodules are never rule files.
+ *
+ * GitFolderCopy reads setup.cursor.extensions (mdc,md), setup.cursor.include and
+ * setup.cursor.exclude, comma separated.
+ */
+final class RuleFilter extends TreeFilter {
+
+    static final String EXTENSIONS_PROPERTY = "setup.cursor.extensions";
+
+    static final String INCLUDE_PROPERTY = "setup.cursor.include";
+
+    static final String EXCLUDE_PROPERTY = "setup.cursor.exclude";
+
+    private static final List<String> DEFAULT_EXTENSIONS = List.of("mdc", "md");
+
+    static final RuleFilter DEFAULT = of(DEFAULT_EXTENSIONS, CopyFilter.ALL);
+
+    // Lower case ".extension" bytes
+    private final byte[][] suffixes;
+    private final CopyFilter patterns;
+    // Length of "folder/", the prefix of the paths the patterns are matched against
+    private final int prefixLength;
+    // Name of the current entry, a walk filter is used by one walk at a time
+    private byte[] name = new byte[64];
+
+    private RuleFilter(byte[][] suffixes, CopyFilter patterns, int prefixLength) {
+        this.suffixes = suffixes;
+        this.patterns = patterns;
+        this.prefixLength = prefixLength;
+    }
+
+    /**
+     * Compiles a filter.
+     *
+     * @param extensions the extensions of rule files, with or without the leading dot
+     * @param patterns include and exclude patterns relative to the rules folder
+     * @return the compiled filter
+     */
+    static RuleFilter of(List<String> extensions, CopyFilter patterns) {
+        byte[][] suffixes = extensions.stream()
+            .map(String::trim)
+            .filter(extension -> !extension.isEmpty())
+            .map(extension -> (extension.startsWith(".") ? extension : "." + extension).getBytes(StandardCharsets.UTF_8))
+            .map(RuleFilter::toLowerCase)
+            .toArray(byte[][]::new);
+        return new RuleFilter(suffixes, patterns, 0);
+    }
+
+    static RuleFilter load() {
+        String extensions = System.getProperty(EXTENSIONS_PROPERTY);
+        List<String> includes = split(System.getProperty(INCLUDE_PROPERTY));
+        List<String> excludes = split(System.getProperty(EXCLUDE_PROPERTY));
+        if (Objects.isNull(extensions) && includes.isEmpty() && excludes.isEmpty()) {
+            return DEFAULT;
+        }
+        return of(Objects.isNull(extensions) ? DEFAULT_EXTENSIONS : split(extensions), CopyFilter.of(includes, excludes));
+    }
+
+    private static List<String> split(@Nullable String value) {
+        if (Objects.isNull(value)) {
+            return List.of();
+        }
+        return Arrays.stream(value.split(",")).map(String::trim).filter(item -> !item.isEmpty()).toList();
+    }
+
+    /**
+     * The filter of a walk over a commit: the folder, then the rule files below it.
+     *
+     * @param folder the normalized folder, empty for the whole commit
+     * @return a filter for one walk
+     */
+    TreeFilter in(String folder) {
+        if (folder.isEmpty()) {
+            return new RuleFilter(suffixes, patterns, 0);
+        }
+        return AndTreeFilter.create(PathFilter.create(folder), new RuleFilter(suffixes, patterns, folder.length() + 1));
+    }
+
+    @Override
+    public boolean include(TreeWalk walker) {
+        if (walker.isSubtree()) {
+            // Directories down to the folder are left to the path filter
+            return patterns.isEmpty() || walker.getPathLength() < prefixLength || !patterns.prunes(relativePath(walker));
+        }
+        int mode = walker.getRawMode(0);
+        if (!FileMode.REGULAR_FILE.equals(mode) && !FileMode.EXECUTABLE_FILE.equals(mode)) {
+            return false;
+        }
+        return hasSuffix(walker) && (patterns.isEmpty() || patterns.includes(relativePath(walker)));
+    }
+
+    private boolean hasSuffix(TreeWalk walker) {
+        AbstractTreeIterator entry = walker.getTree(0, AbstractTreeIterator.class);
+        if (Objects.isNull(entry)) {
+            return false;
+        }
+        int length = entry.getNameLength();
+        if (length > name.length) {
+            name = new byte[Math.max(length, name.length * 2)];
+        }
+        entry.getName(name, 0);
+        for (byte[] suffix : suffixes) {
+            if (endsWithIgnoreCase(name, length, suffix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean endsWithIgnoreCase(byte[] name, int length, byte[] suffix) {
+        int offset = length - suffix.length;
+        if (offset < 0) {
+            return false;
+        }
+        for (int i = 0; i < suffix.length; i++) {
+            if (toLowerCase(name[offset + i]) != suffix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[] toLowerCase(byte[] bytes) {
+        byte[] lowerCase = bytes.clone();
+        for (int i = 0; i < lowerCase.length; i++) {
+            lowerCase[i] = toLowerCase(lowerCase[i]);
+        }
+        return lowerCase;
+    }
+
+    private static byte toLowerCase(byte value) {
+        return value >= 'A' && value <= 'Z' ? (byte) (value + ('a' - 'A')) : value;
+    }
+
+    // A file or directory below the folder, a folder naming a single file is that file
+    private String relativePath(TreeWalk walker) {
+        return walker.getPathLength() < prefixLength ? walker.getNameString() : walker.getPathString().substring(prefixLength);
+    }
+
+    @Override
+    public boolean shouldBeRecursive() {
+        return true;
+    }
+
+    @Override
+    public TreeFilter clone() {
+        return new RuleFilter(suffixes, patterns, prefixLength);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.stream(suffixes)
+            .map(suffix -> new String(suffix, StandardCharsets.UTF_8))
+            .collect(Collectors.joining(",", "RULES(", ")"));
+    }
+}
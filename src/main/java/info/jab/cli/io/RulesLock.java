@@ -0,0 +1,148 @@
+package info.jab.cli.io;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.eclipse.jgit.lib.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The commits cursor rules were copied from, pinned next to their folder (.cursor/rules.lock).
+ *
+ * The lock records every source of the rules, in order of precedence: the repository URL as
+ * given (with its #ref), the folder of the repository and the resolved commit. It also records
+ * the git blob id of every copied file, sorted so the file can be committed and diffed. While
+ * the sources of a copy match the lock, the copy uses the pinned commits instead of the remote
+ * refs, and a destination holding every pinned file is synced without opening the repositories
+ * at all. The blob ids are also the base of the three-way sync of the next copy, see RulesSync.
+ *
+ * @param sources the repositories the rules were merged from, the last one taking precedence
+ * @param files the git blob id of every copied file, by path relative to the destination
+ */
+record RulesLock(List<Source> sources, SortedMap<String, ObjectId> files) {
+
+    private static final Logger logger = LoggerFactory.getLogger(RulesLock.class);
+
+    private static final String SOURCE_PREFIX = "source.";
+    private static final String FILE_PREFIX = "file.";
+
+    /**
+     * One repository the rules were copied from.
+     *
+     * @param url the repository URL, optionally followed by #branch, #tag or #commit
+     * @param folder the folder of the repository holding the rules
+     * @param commit the commit the rules were copied from
+     */
+    record Source(String url, String folder, ObjectId commit) {}
+
+    RulesLock {
+        sources = List.copyOf(sources);
+        files = Collections.unmodifiableSortedMap(new TreeMap<>(files));
+    }
+
+    static Path fileFor(Path destination) {
+        Path folder = destination.toAbsolutePath().normalize();
+        return folder.resolveSibling(Objects.requireNonNull(folder.getFileName()) + ".lock");
+    }
+
+    // Same repositories in the same order, all from the given folder
+    boolean matches(List<String> otherUrls, String otherFolder) {
+        if (sources.size() != otherUrls.size()) {
+            return false;
+        }
+        for (int i = 0; i < sources.size(); i++) {
+            Source source = sources.get(i);
+            if (!source.url().equals(otherUrls.get(i).trim()) || !source.folder().equals(otherFolder)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static Optional<RulesLock> read(Path lockFile) {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(lockFile, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+            SortedMap<String, ObjectId> files = new TreeMap<>();
+            for (String key : properties.stringPropertyNames()) {
+                if (key.startsWith(FILE_PREFIX)) {
+                    files.put(key.substring(FILE_PREFIX.length()), ObjectId.fromString(properties.getProperty(key)));
+                }
+            }
+            List<Source> sources = new ArrayList<>();
+            for (int i = 1; properties.containsKey(SOURCE_PREFIX + i + ".url"); i++) {
+                String folder = properties.getProperty(SOURCE_PREFIX + i + ".folder");
+                String commit = properties.getProperty(SOURCE_PREFIX + i + ".commit");
+                if (Objects.isNull(folder) || Objects.isNull(commit)) {
+                    logger.warn("Ignoring incomplete lock file {}", lockFile);
+                    return Optional.empty();
+                }
+                sources.add(new Source(properties.getProperty(SOURCE_PREFIX + i + ".url"), folder, ObjectId.fromString(commit)));
+            }
+            if (sources.isEmpty()) {
+                logger.warn("Ignoring lock file {} without sources", lockFile);
+                return Optional.empty();
+            }
+            return Optional.of(new RulesLock(sources, files));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException | IllegalArgumentException e) {
+            logger.warn("Ignoring unreadable lock file {}: {}", lockFile, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    // Written in a stable order and without the timestamp of Properties.store
+    void write(Path lockFile) throws IOException {
+        Files.createDirectories(Objects.requireNonNull(lockFile.toAbsolutePath().getParent()));
+        CopyOutput.writeAtomically(lockFile, path -> {
+            try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+                writer.write("# Cursor rules pinned by setup, run setup init --cursor with --update to move the pin\n");
+                for (int i = 0; i < sources.size(); i++) {
+                    String prefix = SOURCE_PREFIX + (i + 1);
+                    writer.write(prefix + ".url=" + escape(sources.get(i).url(), false) + "\n");
+                    writer.write(prefix + ".folder=" + escape(sources.get(i).folder(), false) + "\n");
+                    writer.write(prefix + ".commit=" + sources.get(i).commit().name() + "\n");
+                }
+                for (Map.Entry<String, ObjectId> file : files.entrySet()) {
+                    writer.write(escape(FILE_PREFIX + file.getKey(), true) + "=" + file.getValue().name() + "\n");
+                }
+            }
+        });
+    }
+
+    // Properties escaping, separators and comment characters only matter in keys
+    private static String escape(String value, boolean key) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            boolean separator = c == '=' || c == ':' || c == '#' || c == '!' || c == ' ';
+            if (c == '\\' || (separator && (key || (c == ' ' && i == 0)))) {
+                escaped.append('\\').append(c);
+                continue;
+            }
+            switch (c) {
+                case '\t' -> escaped.append("\\t");
+                case '\n' -> escaped.append("\\n");
+                case '\r' -> escaped.append("\\r");
+                default -> escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+}
@@ -0,0 +1,147 @@
+package info.jab.cli.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Three-way sync of a rules folder, git merge style, on blob ids only: the files of the previous
+ * sync pinned in the lock file (base), the rule files of the commit to copy (upstream) and the
+ * files of the destination (local).
+ *
+ * A file is written when upstream changed it and the local copy is still the base one, deleted
+ * when upstream removed it and the local copy is still the base one, and kept as it is with a
+ * conflict when it was modified locally. A missing local file is written again, a file unknown
+ * to both base and upstream is never touched. Without a previous sync upstream wins, as a
+ * plain copy would. An instance decides and counts the files of one sync.
+ */
+final class RulesSync {
+
+    enum Action {
+        WRITE,
+        DELETE,
+        UNCHANGED,
+        KEEP
+    }
+
+    /**
+     * Outcome of a sync.
+     *
+     * @param written the files created or rewritten
+     * @param deleted the files removed because upstream removed them
+     * @param unchanged the files already up to date
+     * @param kept the locally modified files left as they are, with the reason, by relative path
+     */
+    record Report(int written, int deleted, int unchanged, SortedMap<String, String> kept) {
+
+        Report {
+            kept = Collections.unmodifiableSortedMap(new TreeMap<>(kept));
+        }
+
+        String summary() {
+            return written + " written, " + deleted + " deleted, " + unchanged + " unchanged, " + kept.size() + " kept";
+        }
+    }
+
+    private final @Nullable Map<String, ObjectId> base;
+    private int written;
+    private int deleted;
+    private int unchanged;
+    private final SortedMap<String, String> kept = new TreeMap<>();
+
+    /**
+     * Starts a sync.
+     *
+     * @param base the files of the previous sync by relative path, null when there was none
+     */
+    RulesSync(@Nullable Map<String, ObjectId> base) {
+        this.base = base;
+    }
+
+    /**
+     * Decides what happens to one file and counts it in the report.
+     *
+     * @param relativePath the file, relative to the destination
+     * @param upstream the blob id of the file in the commit to copy, null when removed
+     * @param local the blob id of the destination file, null when missing
+     * @return the action to apply
+     */
+    Action decide(String relativePath, @Nullable ObjectId upstream, @Nullable ObjectId local) {
+        Action action = action(base, relativePath, upstream, local);
+        switch (action) {
+            case WRITE -> written++;
+            case DELETE -> deleted++;
+            case UNCHANGED -> unchanged++;
+            case KEEP -> kept.put(relativePath, reason(relativePath, upstream));
+        }
+        return action;
+    }
+
+    // Files of the previous sync that are no longer upstream
+    Set<String> removedFrom(Set<String> upstream) {
+        if (Objects.isNull(base)) {
+            return Set.of();
+        }
+        Set<String> removed = new TreeSet<>(base.keySet());
+        removed.removeAll(upstream);
+        return removed;
+    }
+
+    Report report() {
+        return new Report(written, deleted, unchanged, kept);
+    }
+
+    static Action action(@Nullable Map<String, ObjectId> base, String relativePath,
+            @Nullable ObjectId upstream, @Nullable ObjectId local) {
+        ObjectId synced = Objects.isNull(base) ? null : base.get(relativePath);
+        if (Objects.isNull(upstream)) {
+            // Removed on both sides
+            if (Objects.isNull(local)) {
+                return Action.UNCHANGED;
+            }
+            return local.equals(synced) ? Action.DELETE : Action.KEEP;
+        }
+        if (upstream.equals(local)) {
+            return Action.UNCHANGED;
+        }
+        if (Objects.isNull(local) || Objects.isNull(base) || local.equals(synced)) {
+            return Action.WRITE;
+        }
+        return Action.KEEP;
+    }
+
+    // Why a kept file was not synced
+    private String reason(String relativePath, @Nullable ObjectId upstream) {
+        ObjectId synced = Objects.isNull(base) ? null : base.get(relativePath);
+        if (Objects.isNull(upstream)) {
+            return "modified locally, deleted upstream";
+        }
+        if (Objects.isNull(synced)) {
+            return "created locally and upstream";
+        }
+        return upstream.equals(synced) ? "modified locally" : "modified locally and upstream";
+    }
+
+    // The git blob id of a file, null when it does not exist
+    static @Nullable ObjectId blobId(Path file) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (InputStream content = Files.newInputStream(file)) {
+            return new ObjectInserter.Formatter().idFor(Constants.OBJ_BLOB, Files.size(file), content);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package info.jab.cli.io;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Properties;
+
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Durations of previous runs of every feature, used to estimate the cost of a plan.
+ *
+ * Each feature keeps a moving average of its successful runs in ~/.setup/history.properties
+ * (setup.history overrides the file, an empty value keeps no history). Runs are recorded in
+ * memory and saved once per invocation: under history.properties.lock, so concurrent processes
+ * never lose each other's runs, through a temporary sibling and a rename that are not synced.
+ * The history is best effort: a file that cannot be read or written never fails a run.
+ */
+public final class RunHistory {
+
+    private static final Logger logger = LoggerFactory.getLogger(RunHistory.class);
+
+    public static final Path FILE = Path.of(System.getProperty("user.home"), ".setup", "history.properties");
+
+    public static final String PROPERTY = "setup.history";
+
+    // Weight of the latest run in the moving average
+    private static final double WEIGHT = 0.3;
+
+    private final @Nullable Path file;
+    private final Properties memory = new Properties();
+    // Runs recorded since the last save, in order
+    private final List<Run> pending = new ArrayList<>();
+
+    private record Run(String feature, Duration duration) {}
+
+    private RunHistory(@Nullable Path file) {
+        this.file = file;
+    }
+
+    public static RunHistory load() {
+        String location = System.getProperty(PROPERTY);
+        if (Objects.isNull(location)) {
+            return at(FILE);
+        }
+        return location.isBlank() ? inMemory() : at(Path.of(location));
+    }
+
+    public static RunHistory at(Path file) {
+        return new RunHistory(file);
+    }
+
+    // History kept for the lifetime of the instance (for testing)
+    public static RunHistory inMemory() {
+        return new RunHistory(null);
+    }
+
+    /**
+     * Returns the average duration of the previous runs of a feature.
+     *
+     * @param feature the feature name, e.g. gitignore
+     * @return the estimate, empty if the feature never ran
+     */
+    public synchronized Optional<Duration> estimate(String feature) {
+        Properties durations = read();
+        pending.forEach(run -> add(durations, run));
+        return estimate(durations, feature);
+    }
+
+    private static Optional<Duration> estimate(Properties durations, String feature) {
+        String millis = durations.getProperty(feature);
+        if (Objects.isNull(millis)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(Duration.ofMillis(Long.parseLong(millis)));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Adds a successful run of a feature to its average, kept in memory until the next save.
+     *
+     * @param feature the feature name, e.g. gitignore
+     * @param duration the duration of the run
+     */
+    public synchronized void record(String feature, Duration duration) {
+        pending.add(new Run(feature, duration));
+    }
+
+    /**
+     * Merges the recorded runs into the history file with one write, under its lock.
+     */
+    public synchronized void save() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Path target = file;
+        if (Objects.isNull(target)) {
+            pending.forEach(run -> add(memory, run));
+            pending.clear();
+            return;
+        }
+        try {
+            Files.createDirectories(Objects.requireNonNull(target.toAbsolutePath().getParent()));
+            GitCache.Lock lock = Objects.requireNonNull(GitCache.lock(lockFile(target), true));
+            try {
+                Properties durations = read();
+                pending.forEach(run -> add(durations, run));
+                CopyOutput.writeAtomically(target, path -> {
+                    try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+                        durations.store(writer, "Average duration in milliseconds of the runs of each feature");
+                    }
+                }, false);
+            } finally {
+                lock.close();
+            }
+        } catch (IOException e) {
+            logger.debug("Ignoring unwritable run history {}: {}", target, e.getMessage());
+        }
+        pending.clear();
+    }
+
+    private static void add(Properties durations, Run run) {
+        long millis = estimate(durations, run.feature())
+            .map(previous -> Math.round(WEIGHT * run.duration().toMillis() + (1 - WEIGHT) * previous.toMillis()))
+            .orElse(run.duration().toMillis());
+        durations.setProperty(run.feature(), Long.toString(millis));
+    }
+
+    private static Path lockFile(Path file) {
+        return file.resolveSibling(file.getFileName() + ".lock");
+    }
+
+    private Properties read() {
+        Properties durations = new Properties();
+        if (Objects.isNull(file)) {
+            durations.putAll(memory);
+            return durations;
+        }
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            durations.load(reader);
+        } catch (NoSuchFileException e) {
+            // No run recorded yet
+        } catch (IOException | IllegalArgumentException e) {
+            logger.debug("Ignoring unreadable run history {}: {}", file, e.getMessage());
+        }
+        return durations;
+    }
+}
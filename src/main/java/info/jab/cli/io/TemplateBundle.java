@@ -0,0 +1,109 @@
+package info.jab.cli.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * All templates packed at build time into one uncompressed file, located through the
+ * offsets of the TemplateIndex.
+ *
+ * The bundle is memory-mapped once and every template is written with a FileChannel
+ * straight from the mapping, without zip inflation or InputStream copies. A bundle
+ * packaged in a jar (or a native image) cannot be mapped in place, it is read once into a
+ * direct buffer instead: nothing is extracted outside the application, and the jar it
+ * comes from is trusted as its classes are, so no checksum pass runs on start.
+ */
+final class TemplateBundle {
+
+    private static final Logger logger = LoggerFactory.getLogger(TemplateBundle.class);
+
+    static final String RESOURCE = "META-INF/templates.bundle";
+
+    private final ByteBuffer content;
+
+    TemplateBundle(ByteBuffer content) {
+        this.content = content.asReadOnlyBuffer();
+    }
+
+    /**
+     * Maps the bundle packaged with the given class loader.
+     *
+     * @param classLoader the class loader holding the bundle
+     * @param index the index describing the bundle
+     * @return the bundle, empty when it is not packaged or does not have the size of the index,
+     *         templates are then streamed
+     */
+    static Optional<TemplateBundle> open(ClassLoader classLoader, TemplateIndex index) {
+        URL resource = classLoader.getResource(RESOURCE);
+        if (Objects.isNull(resource)) {
+            return Optional.empty();
+        }
+        try {
+            if (resource.getProtocol().equals("file")) {
+                return map(Paths.get(resource.toURI()), index);
+            }
+            return read(resource, index);
+        } catch (IOException | URISyntaxException e) {
+            logger.debug("Streaming templates, the bundle {} cannot be mapped: {}", resource, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private static Optional<TemplateBundle> map(Path file, TemplateIndex index) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() != index.bundleSize()) {
+                return Optional.empty();
+            }
+            return Optional.of(new TemplateBundle(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())));
+        }
+    }
+
+    // One inflation of the whole bundle, then every template is written from the buffer
+    private static Optional<TemplateBundle> read(URL resource, TemplateIndex index) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(Math.toIntExact(index.bundleSize()));
+        try (InputStream input = resource.openStream();
+             ReadableByteChannel channel = Channels.newChannel(input)) {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    return Optional.empty();
+                }
+            }
+            if (input.read() >= 0) {
+                return Optional.empty();
+            }
+        }
+        return Optional.of(new TemplateBundle(buffer.flip()));
+    }
+
+    /**
+     * Writes one template to a file, replacing it when it exists.
+     *
+     * @param entry the template to write
+     * @param target the destination file
+     * @throws IOException if the file cannot be written
+     */
+    void write(TemplateIndex.Entry entry, Path target) throws IOException {
+        // Absolute slice, the shared mapping is never repositioned so concurrent writes are safe
+        ByteBuffer template = content.slice(Math.toIntExact(entry.offset()), Math.toIntExact(entry.size()));
+        try (FileChannel channel = FileChannel.open(target,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (template.hasRemaining()) {
+                channel.write(template);
+            }
+        }
+    }
+}
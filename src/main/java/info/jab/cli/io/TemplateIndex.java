@@ -0,0 +1,176 @@
+package info.jab.cli.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Index of the templates packaged with the CLI, generated at build time (process-classes).
+ *
+ * One line per file: size, CRC32C, offset in the packed TemplateBundle and the classpath
+ * path of the template. Resolving the files of a feature is a map lookup, so CopyFiles
+ * writes the entries without walking the jar tree or reading per-entry attributes.
+ */
+public final class TemplateIndex {
+
+    public static final String RESOURCE = "META-INF/templates.idx";
+
+    private static final Pattern FIELDS = Pattern.compile(" ");
+
+    /**
+     * A template file in the index.
+     *
+     * @param path the classpath path, for example templates/gitignore/gitignore.template
+     * @param size the size in bytes
+     * @param crc32c the CRC32C of the content
+     * @param offset the position of the content in the bundle
+     */
+    public record Entry(String path, long size, long crc32c, long offset) {
+
+        String relativeTo(String folder) {
+            return path.substring(normalize(folder).length() + 1);
+        }
+    }
+
+    private static final TemplateIndex EMPTY = new TemplateIndex(List.of(), 0);
+
+    private final Map<String, Entry> files = new HashMap<>();
+    private final Map<String, List<Entry>> folders = new HashMap<>();
+    private final long fingerprint;
+    private final long bundleSize;
+
+    TemplateIndex(List<Entry> entries, long fingerprint) {
+        this.fingerprint = fingerprint;
+        this.bundleSize = entries.stream().mapToLong(entry -> entry.offset() + entry.size()).max().orElse(0);
+        for (Entry entry : entries) {
+            files.put(entry.path(), entry);
+            // Every ancestor folder lists the file, folders are copied recursively
+            for (int separator = entry.path().lastIndexOf('/'); separator > 0;
+                 separator = entry.path().lastIndexOf('/', separator - 1)) {
+                folders.computeIfAbsent(entry.path().substring(0, separator), key -> new ArrayList<>()).add(entry);
+            }
+        }
+    }
+
+    /**
+     * Loads the index packaged with the given class loader.
+     *
+     * @param classLoader the class loader holding the templates
+     * @return the index, empty when the resource is missing (IDE runs without the build)
+     */
+    static TemplateIndex load(ClassLoader classLoader) {
+        try (InputStream input = classLoader.getResourceAsStream(RESOURCE)) {
+            if (Objects.isNull(input)) {
+                return EMPTY;
+            }
+            return parse(new String(input.readAllBytes(), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading template index " + RESOURCE, e);
+        }
+    }
+
+    static TemplateIndex parse(String content) {
+        List<Entry> entries = content.lines()
+            .filter(line -> !line.isBlank())
+            .map(line -> FIELDS.split(line, 4))
+            .map(fields -> new Entry(fields[3], Long.parseLong(fields[0]), Long.parseLong(fields[1], 16),
+                Long.parseLong(fields[2])))
+            .toList();
+        CRC32C crc = new CRC32C();
+        crc.update(content.getBytes(StandardCharsets.UTF_8));
+        return new TemplateIndex(entries, crc.getValue());
+    }
+
+    /**
+     * Identifies the content of the bundle described by this index.
+     *
+     * @return the CRC32C of the index file
+     */
+    long fingerprint() {
+        return fingerprint;
+    }
+
+    long bundleSize() {
+        return bundleSize;
+    }
+
+    Collection<Entry> entries() {
+        return files.values();
+    }
+
+    /**
+     * Files of a classpath folder and its subfolders.
+     *
+     * @param folder the classpath folder, a trailing slash is ignored
+     * @return the indexed files, empty when the folder is not indexed
+     */
+    Optional<List<Entry>> folder(String folder) {
+        return Optional.ofNullable(folders.get(normalize(folder)));
+    }
+
+    Optional<Entry> file(String path) {
+        return Optional.ofNullable(files.get(normalize(path)));
+    }
+
+    private static String normalize(String path) {
+        return path.endsWith("/") ? path.substring(0, path.length() - 1) : path;
+    }
+
+    /**
+     * Packs the templates of a folder into the bundle and builds their index.
+     *
+     * @param root the classpath root (target/classes)
+     * @param folder the folder to index, relative to the root
+     * @param bundle receives the content of every template, in index order
+     * @return the index file content, sorted by path
+     * @throws IOException if a template cannot be read
+     */
+    static String build(Path root, String folder, OutputStream bundle) throws IOException {
+        StringBuilder index = new StringBuilder();
+        long offset = 0;
+        try (Stream<Path> paths = Files.walk(root.resolve(folder))) {
+            for (Path file : paths.filter(Files::isRegularFile).sorted().toList()) {
+                byte[] content = Files.readAllBytes(file);
+                CRC32C crc = new CRC32C();
+                crc.update(content);
+                bundle.write(content);
+                String path = root.relativize(file).toString().replace('\\', '/');
+                index.append(content.length).append(' ')
+                    .append(Long.toHexString(crc.getValue())).append(' ')
+                    .append(offset).append(' ')
+                    .append(path).append('\n');
+                offset += content.length;
+            }
+        }
+        return index.toString();
+    }
+
+    /**
+     * Build time entry point, writes the bundle and the index of the templates folder.
+     *
+     * @param args the classpath root (target/classes)
+     * @throws IOException if the index or the bundle cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        Path root = Paths.get(args[0]);
+        Path index = root.resolve(RESOURCE);
+        Files.createDirectories(Objects.requireNonNull(index.getParent()));
+        try (OutputStream bundle = Files.newOutputStream(root.resolve(TemplateBundle.RESOURCE))) {
+            Files.writeString(index, build(root, "templates", bundle), StandardCharsets.UTF_8);
+        }
+    }
+}
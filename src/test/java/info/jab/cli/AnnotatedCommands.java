@@ -0,0 +1,159 @@
+package info.jab.cli;
+
+import org.jspecify.annotations.Nullable;
+
+import picocli.CommandLine.ArgGroup;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+/**
+ * The setup and init commands as picocli annotations: the reference CommandModel is checked
+ * against (CommandModelTest) and the reflective baseline of its startup comparison
+ * (CommandModelBenchmark). The CLI itself never reflects over these classes.
+ */
+final class AnnotatedCommands {
+
+    private AnnotatedCommands() {
+        // Holder of the annotated commands
+    }
+
+    @Command(
+        name = "setup",
+        subcommands = {Init.class},
+        description = "Setup is a CLI utility designed to help developers when they start working with a new repository.",
+        mixinStandardHelpOptions = true,
+        usageHelpAutoWidth = true
+    )
+    static class Setup implements Runnable {
+
+        @Option(
+            names = "--daemon",
+            description = "Keep a warm JVM serving requests over a Unix domain socket " +
+                          "($SETUP_DAEMON_SOCKET or ~/.setup/daemon.sock).")
+        boolean daemon;
+
+        @Override
+        public void run() {
+            // Reference model only, never executed
+        }
+    }
+
+    @Command(
+        name = "init",
+        description = "Setup is a command line utility designed to help developers when initializing new projects using Maven.",
+        mixinStandardHelpOptions = true,
+        sortOptions = false,
+        usageHelpAutoWidth = true
+    )
+    static class Init implements Runnable {
+
+        // Mutually exclusive options - only one can be selected at a time
+        @ArgGroup(exclusive = true, multiplicity = "1")
+        @Nullable
+        ExclusiveOptions exclusiveOptions;
+
+        static class ExclusiveOptions {
+
+            @Option(
+                names = {"-m", "--maven"},
+                description = "Create a new Maven project.",
+                order = 2)
+            boolean mavenOption;
+
+            @Option(
+                names = {"-sb", "--spring-boot"},
+                description = "Create a new Spring Boot project.",
+                order = 3)
+            boolean springCliOption;
+
+            @Option(
+                names = {"-q", "--quarkus"},
+                description = "Create a new Quarkus project.",
+                order = 4)
+            boolean quarkusCliOption;
+
+            @Option(
+                names = {"-c", "--cursor"},
+                description = "Download cursor rules from one or more Git repositories. " +
+                             "The option requires a Https Git repository URL " +
+                             "(append #branch, #tag or #commit to download a given ref), " +
+                             "more URLs merge the rules of several repositories, a later repository replacing " +
+                             "the files of an earlier one, and a last parameter that is not a URL indicates " +
+                             "the path where is located in the repositories the cursor rules, by default ./cursor/rules.",
+                arity = "1..*",
+                order = 1)
+            @Nullable
+            @SuppressWarnings("NullAway") // Optional CLI parameter can be null
+            String[] cursorParameters;
+
+            @Option(
+                names = {"-s", "--sdkman"},
+                description = "Add an initial .sdkmanrc file.",
+                order = 5)
+            boolean sdkmanOption;
+
+            @Option(
+                names = {"-ec", "--editorconfig"},
+                description = "Add an initial .editorconfig file.",
+                order = 6)
+            boolean editorConfigOption;
+
+            @Option(
+                names = {"-gi", "--gitignore"},
+                description = "Add an initial .gitignore file.",
+                order = 7)
+            boolean gitignoreOption;
+
+            @Option(
+                names = {"-ga", "--github-action"},
+                description = "Add an initial GitHub Actions workflow for Maven.",
+                order = 8)
+            boolean githubActionOption;
+
+            @Option(
+                names = {"-db", "--dependabot"},
+                description = "Add an initial Dependabot configuration.",
+                order = 9)
+            boolean dependabotOption;
+
+            @Option(
+                names = {"-dc", "--devcontainer"},
+                description = "Add an initial Devcontainer support for Java.",
+                order = 10)
+            boolean devcontainerOption;
+
+            @Option(
+                names = {"-vv", "--visualvm"},
+                description = "Run VisualVM to monitor the application.",
+                order = 11,
+                hidden = true)
+            boolean visualvmOption;
+
+            @Option(
+                names = {"-j", "--jmc"},
+                description = "Run JMC to monitor the application.",
+                order = 12,
+                hidden = true)
+            boolean jmcOption;
+        }
+
+        @Option(
+            names = {"--plan"},
+            description = "Show the files the feature would create or overwrite and the commands it would run, " +
+                          "with an estimate from previous runs, without running it. " +
+                          "Exits with 3 when there is work to do, 0 when there is none.",
+            order = 13)
+        boolean planOption;
+
+        @Option(
+            names = {"--update"},
+            description = "With --cursor, copy the latest commit of the repository and move the pin of .cursor/rules.lock.",
+            order = 14)
+        boolean updateOption;
+
+        @Override
+        public void run() {
+            // Reference model only, never executed
+        }
+    }
+}
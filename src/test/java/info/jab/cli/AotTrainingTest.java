@@ -0,0 +1,58 @@
+package info.jab.cli;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import picocli.CommandLine;
+import picocli.CommandLine.Model.OptionSpec;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AotTrainingTest {
+
+    @Test
+    void shouldTrainEveryInitOption() {
+        // Given
+        CommandLine init = new CommandLine(CommandModel.init(new InitCommand()));
+        Set<String> initOptions = init.getCommandSpec().argGroups().stream()
+            .flatMap(group -> group.options().stream())
+            .map(OptionSpec::longestName)
+            .collect(Collectors.toSet());
+
+        // When
+        Set<String> trainedOptions = AotTraining.WORKLOAD.stream()
+            .filter(args -> args.size() > 1 && args.get(0).equals("init"))
+            .map(args -> args.get(1))
+            .collect(Collectors.toSet());
+
+        // Then
+        assertThat(trainedOptions).containsAll(initOptions);
+    }
+
+    @Test
+    void shouldOnlyPlanTheProjectGenerators() {
+        // When
+        List<List<String>> generators = AotTraining.WORKLOAD.stream()
+            .filter(args -> args.contains("--maven") || args.contains("--spring-boot") || args.contains("--quarkus"))
+            .toList();
+
+        // Then: mvn, spring and quarkus are never spawned
+        assertThat(generators).hasSize(3).allSatisfy(args -> assertThat(args).contains("--plan"));
+    }
+
+    @Test
+    void shouldTrainCursorAgainstAnUnreachableRepository() {
+        // Given
+        List<String> cursorArgs = AotTraining.WORKLOAD.stream()
+            .filter(args -> args.contains("--cursor"))
+            .findFirst()
+            .orElseThrow();
+
+        // Then
+        assertThat(cursorArgs).containsExactly("init", "--cursor", AotTraining.TRAINING_REPOSITORY);
+        assertThat(AotTraining.TRAINING_REPOSITORY).startsWith("https://127.0.0.1");
+    }
+}
@@ -0,0 +1,144 @@
+package info.jab.cli;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import info.jab.cli.behaviours.Cursor;
+import info.jab.cli.behaviours.Dependabot;
+import info.jab.cli.behaviours.DevContainer;
+import info.jab.cli.behaviours.EditorConfig;
+import info.jab.cli.behaviours.GithubAction;
+import info.jab.cli.behaviours.Gitignore;
+import info.jab.cli.behaviours.JMC;
+import info.jab.cli.behaviours.Maven;
+import info.jab.cli.behaviours.QuarkusCli;
+import info.jab.cli.behaviours.Sdkman;
+import info.jab.cli.behaviours.SpringCli;
+import info.jab.cli.behaviours.Visualvm;
+import info.jab.cli.io.RunHistory;
+import picocli.CommandLine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Fresh JVM comparison of eager behaviour construction and the lazy suppliers of InitCommand
+ * for copy-only options, where --cursor (and with it JGit) is not selected.
+ * Lives in info.jab.cli to reach the package-private model.
+ *
+ * ./mvnw clean verify -Pbenchmarks
+ */
+@SuppressWarnings("NullAway.Init")
+class BehaviourLoadingBenchmark {
+
+    private static final int RUNS = 10;
+
+    private static final List<String> OPTIONS = List.of("--editorconfig", "--gitignore", "--sdkman");
+
+    @TempDir
+    Path tempDir;
+
+    // Runs one init option, prints elapsed nanos and loaded classes
+    static final class Probe {
+
+        public static void main(String[] args) {
+            long start = System.nanoTime();
+            InitCommand initCommand = args[0].equals("eager")
+                ? new InitCommand(new Maven(), new SpringCli(), new QuarkusCli(), new Cursor(), new EditorConfig(),
+                    new Sdkman(), new GithubAction(), new Gitignore(), new Dependabot(), new DevContainer(),
+                    new Visualvm(), new JMC())
+                : new InitCommand();
+            int exitCode = new CommandLine(CommandModel.setup(new Setup(initCommand), initCommand))
+                .execute("init", args[1]);
+            long elapsed = System.nanoTime() - start;
+            long loadedClasses = ManagementFactory.getClassLoadingMXBean().getTotalLoadedClassCount();
+            System.out.println(elapsed + " " + loadedClasses);
+            System.exit(exitCode);
+        }
+    }
+
+    private record Sample(long wallMillis, long runMillis, long loadedClasses, long jgitClasses) {}
+
+    @Test
+    void compareEagerAndLazyBehaviours() throws Exception {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format(Locale.ROOT, "%-16s %-6s %12s %12s %12s %12s%n",
+            "option", "mode", "wall p50 ms", "run p50 ms", "classes p50", "jgit p50"));
+
+        for (String option : OPTIONS) {
+            for (String mode : List.of("eager", "lazy")) {
+                List<Sample> samples = measure(mode, option);
+                report.append(String.format(Locale.ROOT, "%-16s %-6s %12d %12d %12d %12d%n",
+                    option, mode,
+                    median(samples.stream().map(Sample::wallMillis).toList()),
+                    median(samples.stream().map(Sample::runMillis).toList()),
+                    median(samples.stream().map(Sample::loadedClasses).toList()),
+                    median(samples.stream().map(Sample::jgitClasses).toList())));
+                if (mode.equals("lazy")) {
+                    assertThat(samples).allSatisfy(sample -> assertThat(sample.jgitClasses()).isZero());
+                }
+            }
+        }
+
+        System.out.print(report);
+        Path output = Paths.get(Objects.requireNonNull(System.getProperty("benchmark.output", "target/benchmarks")));
+        Files.createDirectories(output);
+        Files.writeString(output.resolve("behaviour-loading.txt"), report, StandardCharsets.UTF_8);
+    }
+
+    private List<Sample> measure(String mode, String option) throws IOException, InterruptedException {
+        List<Sample> samples = new ArrayList<>();
+        for (int i = 0; i < RUNS; i++) {
+            Path workingDirectory = Files.createTempDirectory(tempDir, "run");
+            Path classLog = workingDirectory.resolve("class-load.log");
+            List<String> command = List.of(
+                Paths.get(Objects.requireNonNull(System.getProperty("java.home")), "bin", "java").toString(),
+                "-Xlog:class+load=info:file=" + classLog,
+                // Benchmark runs stay out of ~/.setup/history.properties
+                "-D" + RunHistory.PROPERTY + "=" + System.getProperty(RunHistory.PROPERTY, ""),
+                "-cp", Objects.requireNonNull(System.getProperty("java.class.path")),
+                Probe.class.getName(),
+                mode,
+                option);
+
+            long start = System.nanoTime();
+            Process process = new ProcessBuilder(command)
+                .directory(workingDirectory.toFile())
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+            String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+            int exitCode = process.waitFor();
+            long wall = (System.nanoTime() - start) / 1_000_000;
+            assertThat(exitCode).isZero();
+
+            String lastLine = output.lines().reduce((first, second) -> second).orElseThrow();
+            int separator = lastLine.indexOf(' ');
+            long jgitClasses;
+            try (var lines = Files.lines(classLog)) {
+                jgitClasses = lines.filter(line -> line.contains("org.eclipse.jgit.")).count();
+            }
+            samples.add(new Sample(wall,
+                Long.parseLong(lastLine.substring(0, separator)) / 1_000_000,
+                Long.parseLong(lastLine.substring(separator + 1)),
+                jgitClasses));
+        }
+        return samples;
+    }
+
+    private static long median(List<Long> values) {
+        List<Long> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        return sorted.get(sorted.size() / 2);
+    }
+}
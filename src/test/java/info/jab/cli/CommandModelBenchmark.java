@@ -0,0 +1,119 @@
+package info.jab.cli;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+import org.junit.jupiter.api.Test;
+
+import info.jab.cli.io.RunHistory;
+import picocli.CommandLine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Startup comparison of CommandModel and the annotation-derived picocli model of AnnotatedCommands,
+ * the reflective baseline CommandModel replaced.
+ * Every sample runs in a fresh JVM, so class loading and reflection costs are included.
+ * Lives in info.jab.cli to reach the package-private CommandModel.
+ *
+ * ./mvnw clean verify -Pbenchmarks
+ */
+class CommandModelBenchmark {
+
+    private static final int RUNS = 10;
+
+    private static final String[] ARGS = {"init", "--gitignore"};
+
+    // Builds the model and parses a typical invocation, prints elapsed nanos and loaded classes
+    static final class Probe {
+
+        public static void main(String[] args) {
+            long start = System.nanoTime();
+            // Both create the commands the CLI runs, so only the model differs
+            InitCommand initCommand = new InitCommand();
+            Setup setup = new Setup(initCommand);
+            CommandLine commandLine;
+            if (args[0].equals("annotated")) {
+                commandLine = new CommandLine(new AnnotatedCommands.Setup());
+            } else {
+                commandLine = new CommandLine(CommandModel.setup(setup, initCommand));
+            }
+            commandLine.parseArgs(ARGS);
+            long elapsed = System.nanoTime() - start;
+            long loadedClasses = ManagementFactory.getClassLoadingMXBean().getTotalLoadedClassCount();
+            System.out.println(elapsed + " " + loadedClasses);
+        }
+    }
+
+    private record Sample(long wallMillis, long modelMicros, long loadedClasses) {}
+
+    @Test
+    void compareAnnotatedAndProgrammaticModel() throws Exception {
+        List<Sample> annotated = measure("annotated");
+        List<Sample> programmatic = measure("programmatic");
+
+        StringBuilder report = new StringBuilder();
+        report.append(String.format(Locale.ROOT, "%-14s %14s %16s %14s%n",
+            "model", "wall p50 ms", "model p50 us", "classes p50"));
+        report.append(row("annotated", annotated));
+        report.append(row("programmatic", programmatic));
+
+        System.out.print(report);
+        Path output = Paths.get(Objects.requireNonNull(System.getProperty("benchmark.output", "target/benchmarks")));
+        Files.createDirectories(output);
+        Files.writeString(output.resolve("command-model.txt"), report, StandardCharsets.UTF_8);
+        assertThat(report).isNotEmpty();
+    }
+
+    private static String row(String model, List<Sample> samples) {
+        return String.format(Locale.ROOT, "%-14s %14d %16d %14d%n",
+            model,
+            median(samples.stream().map(Sample::wallMillis).toList()),
+            median(samples.stream().map(Sample::modelMicros).toList()),
+            median(samples.stream().map(Sample::loadedClasses).toList()));
+    }
+
+    private List<Sample> measure(String model) throws IOException, InterruptedException {
+        List<String> command = List.of(
+            Paths.get(Objects.requireNonNull(System.getProperty("java.home")), "bin", "java").toString(),
+            // Benchmark runs stay out of ~/.setup/history.properties
+            "-D" + RunHistory.PROPERTY + "=" + System.getProperty(RunHistory.PROPERTY, ""),
+            "-cp", Objects.requireNonNull(System.getProperty("java.class.path")),
+            Probe.class.getName(),
+            model);
+
+        List<Sample> samples = new ArrayList<>();
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            Process process = new ProcessBuilder(command)
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+            String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+            int exitCode = process.waitFor();
+            long wall = (System.nanoTime() - start) / 1_000_000;
+            assertThat(exitCode).isZero();
+
+            String lastLine = output.lines().reduce((first, second) -> second).orElseThrow();
+            int separator = lastLine.indexOf(' ');
+            samples.add(new Sample(wall,
+                Long.parseLong(lastLine.substring(0, separator)) / 1_000,
+                Long.parseLong(lastLine.substring(separator + 1))));
+        }
+        return samples;
+    }
+
+    private static long median(List<Long> values) {
+        List<Long> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        return sorted.get(sorted.size() / 2);
+    }
+}
@@ -0,0 +1,245 @@
+package info.jab.cli;
+
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import picocli.CommandLine;
+import picocli.CommandLine.Model.ArgGroupSpec;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Model.OptionSpec;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CommandModelTest {
+
+    // Every boolean option of the exclusive group and the field it sets
+    private static final Map<String, Predicate<InitCommand.ExclusiveOptions>> FLAGS = Map.ofEntries(
+        Map.entry("--maven", options -> options.mavenOption),
+        Map.entry("--spring-boot", options -> options.springCliOption),
+        Map.entry("--quarkus", options -> options.quarkusCliOption),
+        Map.entry("--sdkman", options -> options.sdkmanOption),
+        Map.entry("--editorconfig", options -> options.editorConfigOption),
+        Map.entry("--gitignore", options -> options.gitignoreOption),
+        Map.entry("--github-action", options -> options.githubActionOption),
+        Map.entry("--dependabot", options -> options.dependabotOption),
+        Map.entry("--devcontainer", options -> options.devcontainerOption),
+        Map.entry("--visualvm", options -> options.visualvmOption),
+        Map.entry("--jmc", options -> options.jmcOption));
+
+    private record OptionView(List<String> names, String arity, String paramLabel, int order, boolean hidden,
+                              List<String> description, boolean usageHelp, boolean versionHelp) {
+
+        static OptionView of(OptionSpec option) {
+            return new OptionView(
+                List.of(option.names()),
+                option.arity().toString(),
+                // Only rendered for options that take parameters
+                option.arity().max() > 0 ? option.paramLabel() : "",
+                option.order(),
+                option.hidden(),
+                List.of(option.description()),
+                option.usageHelp(),
+                option.versionHelp());
+        }
+    }
+
+    private static List<OptionView> options(CommandSpec spec) {
+        return spec.options().stream().map(OptionView::of).toList();
+    }
+
+    private static List<OptionView> options(ArgGroupSpec group) {
+        return group.options().stream().map(OptionView::of).toList();
+    }
+
+    // AnnotatedCommands is the reference, CommandModel must declare the same commands option by option
+    private static void assertSameModel(CommandSpec programmatic, CommandSpec annotated) {
+        assertThat(programmatic.name()).isEqualTo(annotated.name());
+        assertThat(programmatic.usageMessage().description()).isEqualTo(annotated.usageMessage().description());
+        assertThat(programmatic.usageMessage().sortOptions()).isEqualTo(annotated.usageMessage().sortOptions());
+        assertThat(programmatic.usageMessage().autoWidth()).isEqualTo(annotated.usageMessage().autoWidth());
+        assertThat(options(programmatic)).containsExactlyInAnyOrderElementsOf(options(annotated));
+        assertThat(programmatic.argGroups()).hasSameSizeAs(annotated.argGroups());
+        for (int i = 0; i < annotated.argGroups().size(); i++) {
+            ArgGroupSpec expected = annotated.argGroups().get(i);
+            ArgGroupSpec actual = programmatic.argGroups().get(i);
+            assertThat(actual.exclusive()).isEqualTo(expected.exclusive());
+            assertThat(actual.multiplicity()).isEqualTo(expected.multiplicity());
+            assertThat(options(actual)).containsExactlyInAnyOrderElementsOf(options(expected));
+        }
+        assertThat(programmatic.subcommands().keySet()).isEqualTo(annotated.subcommands().keySet());
+    }
+
+    private static List<String> longestNames(List<OptionSpec> options) {
+        return options.stream().map(OptionSpec::longestName).toList();
+    }
+
+    @Test
+    void shouldDeclareTheSetupCommand() {
+        // Given
+        InitCommand initCommand = new InitCommand();
+
+        // When
+        CommandSpec spec = CommandModel.setup(new Setup(initCommand), initCommand);
+
+        // Then
+        assertThat(spec.name()).isEqualTo("setup");
+        assertThat(longestNames(spec.options())).containsExactly("--help", "--version", "--daemon");
+        assertThat(spec.subcommands()).containsOnlyKeys("init");
+    }
+
+    @Test
+    void shouldDeclareTheInitOptionsInOneExclusiveGroup() {
+        // When
+        CommandSpec spec = CommandModel.init(new InitCommand());
+
+        // Then
+        assertThat(longestNames(spec.options())).containsExactlyInAnyOrder(
+            "--help", "--version", "--plan", "--update",
+            "--maven", "--spring-boot", "--quarkus", "--cursor", "--sdkman", "--editorconfig",
+            "--gitignore", "--github-action", "--dependabot", "--devcontainer", "--visualvm", "--jmc");
+        assertThat(spec.argGroups()).hasSize(1);
+        ArgGroupSpec group = spec.argGroups().get(0);
+        assertThat(group.exclusive()).isTrue();
+        assertThat(group.multiplicity().toString()).isEqualTo("1");
+        assertThat(longestNames(group.options())).hasSize(12).doesNotContain("--plan", "--update");
+    }
+
+    @Test
+    void shouldRenderTheUsageHelpInOptionOrderWithoutHiddenOptions() {
+        // Given
+        CommandLine commandLine = new CommandLine(CommandModel.init(new InitCommand()));
+
+        // When
+        String usage = commandLine.getUsageMessage(CommandLine.Help.Ansi.OFF);
+
+        // Then
+        assertThat(usage)
+            .startsWith("Usage: init [-hV] [--plan] [--update]")
+            .containsSubsequence("--cursor=<cursorParameters>", "--maven", "--spring-boot", "--quarkus", "--sdkman",
+                "--editorconfig", "--gitignore", "--github-action", "--dependabot", "--devcontainer", "--plan", "--update")
+            .doesNotContain("--visualvm", "--jmc");
+    }
+
+    @Test
+    void shouldMatchTheAnnotatedReferenceModel() {
+        // Given
+        CommandSpec annotated = new CommandLine(new AnnotatedCommands.Setup()).getCommandSpec();
+
+        // When
+        InitCommand initCommand = new InitCommand();
+        CommandSpec programmatic = CommandModel.setup(new Setup(initCommand), initCommand);
+
+        // Then
+        assertSameModel(programmatic, annotated);
+        assertSameModel(
+            Objects.requireNonNull(programmatic.subcommands().get("init")).getCommandSpec(),
+            Objects.requireNonNull(annotated.subcommands().get("init")).getCommandSpec());
+    }
+
+    @Test
+    void shouldRenderTheSameUsageHelpAsTheAnnotatedReference() {
+        // Given
+        CommandLine annotated = new CommandLine(new AnnotatedCommands.Init());
+        CommandLine programmatic = new CommandLine(CommandModel.init(new InitCommand()));
+
+        // When
+        String expected = annotated.getUsageMessage(CommandLine.Help.Ansi.OFF);
+        String actual = programmatic.getUsageMessage(CommandLine.Help.Ansi.OFF);
+
+        // Then
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    @Test
+    void shouldBindEveryFlagToItsOwnField() {
+        for (String flag : FLAGS.keySet()) {
+            // Given
+            InitCommand initCommand = new InitCommand();
+            CommandLine commandLine = new CommandLine(CommandModel.init(initCommand));
+
+            // When
+            commandLine.parseArgs(flag, "--plan", "--update");
+
+            // Then
+            InitCommand.ExclusiveOptions options = Objects.requireNonNull(initCommand.exclusiveOptions);
+            Set<String> set = FLAGS.entrySet().stream()
+                .filter(entry -> entry.getValue().test(options))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toSet());
+            assertThat(set).as(flag).containsExactly(flag);
+            assertThat(options.cursorParameters).as(flag).isNull();
+            assertThat(initCommand.planOption).as(flag).isTrue();
+            assertThat(initCommand.updateOption).as(flag).isTrue();
+        }
+    }
+
+    @Test
+    void shouldSelectOnlyTheMatchedFlag() {
+        // Given
+        InitCommand initCommand = new InitCommand();
+        CommandLine commandLine = new CommandLine(CommandModel.init(initCommand));
+
+        // When
+        commandLine.parseArgs("--gitignore");
+
+        // Then
+        InitCommand.ExclusiveOptions options = Objects.requireNonNull(initCommand.exclusiveOptions);
+        assertThat(options.gitignoreOption).isTrue();
+        assertThat(options.mavenOption).isFalse();
+        assertThat(options.sdkmanOption).isFalse();
+        assertThat(options.cursorParameters).isNull();
+    }
+
+    @Test
+    void shouldBindCursorParameters() {
+        // Given
+        InitCommand initCommand = new InitCommand();
+        CommandLine commandLine = new CommandLine(CommandModel.init(initCommand));
+
+        // When
+        commandLine.parseArgs("--cursor", "https://github.com/jabrena/cursor-rules-java", ".cursor/rules");
+
+        // Then
+        InitCommand.ExclusiveOptions options = Objects.requireNonNull(initCommand.exclusiveOptions);
+        assertThat(Arrays.asList(options.cursorParameters))
+            .containsExactly("https://github.com/jabrena/cursor-rules-java", ".cursor/rules");
+        assertThat(options.gitignoreOption).isFalse();
+    }
+
+    @Test
+    void shouldRejectMutuallyExclusiveOptions() {
+        // Given
+        InitCommand initCommand = new InitCommand();
+        CommandLine commandLine = new CommandLine(CommandModel.init(initCommand));
+        commandLine.setErr(new PrintWriter(Writer.nullWriter()));
+
+        // When
+        int exitCode = commandLine.execute("--gitignore", "--sdkman");
+
+        // Then
+        assertThat(exitCode).isEqualTo(2);
+    }
+
+    @Test
+    void shouldRequireOneOption() {
+        // Given
+        InitCommand initCommand = new InitCommand();
+        CommandLine commandLine = new CommandLine(CommandModel.init(initCommand));
+        commandLine.setErr(new PrintWriter(Writer.nullWriter()));
+
+        // When
+        int exitCode = commandLine.execute();
+
+        // Then
+        assertThat(exitCode).isEqualTo(2);
+    }
+}
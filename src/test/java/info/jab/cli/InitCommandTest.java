@@ -3,6 +3,8 @@ package info.jab.cli;
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import org.junit.jupiter.api.AfterEach;
@@ -11,6 +13,8 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 
 import org.mockito.Mock;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -29,6 +33,7 @@ import info.jab.cli.behaviours.QuarkusCli;
 import info.jab.cli.behaviours.Sdkman;
 import info.jab.cli.behaviours.SpringCli;
 import info.jab.cli.behaviours.Visualvm;
+import info.jab.cli.io.Plan;
 import io.vavr.control.Either;
 import picocli.CommandLine;
 
@@ -104,7 +109,7 @@ class InitCommandTest {
 
         // Capture console output for assertions
         System.setOut(new PrintStream(outputStreamCaptor));
-        cmd = new CommandLine(initCommand);
+        cmd = new CommandLine(CommandModel.init(initCommand));
     }
 
     @AfterEach
@@ -309,4 +314,121 @@ class InitCommandTest {
         verify(mockDevContainer, never()).execute();
         verify(mockMaven, never()).execute();
     }
+
+    @Test
+    void shouldExecuteCursorFeatureFromSeveralRepositories() throws Exception {
+        // Given
+        List<String> urls = List.of("https://github.com/org/baseline", "https://github.com/team/rules#main");
+        when(mockCursor.execute(urls, "rules")).thenReturn(Either.right("Cursor rules added successfully from 2 repositories"));
+        String[] args = {"--cursor", urls.get(0), urls.get(1), "rules"};
+
+        // When
+        int exitCode = cmd.execute(args);
+
+        // Then
+        verify(mockCursor, times(1)).execute(urls, "rules");
+        assertThat(exitCode).isEqualTo(0);
+        assertThat(outputStreamCaptor.toString(StandardCharsets.UTF_8).trim())
+            .isEqualTo("Cursor rules added successfully from 2 repositories");
+    }
+
+    @Test
+    void shouldTakeAnScpLikeRemoteAsARepositoryNotAsTheFolder() throws Exception {
+        // Given
+        List<String> urls = List.of("https://github.com/org/baseline", "git@github.com:team/rules.git");
+        when(mockCursor.execute(urls, ".cursor/rules")).thenReturn(Either.right("Cursor rules added successfully from 2 repositories"));
+        String[] args = {"--cursor", urls.get(0), urls.get(1)};
+
+        // When
+        int exitCode = cmd.execute(args);
+
+        // Then
+        verify(mockCursor, times(1)).execute(urls, ".cursor/rules");
+        assertThat(exitCode).isEqualTo(0);
+    }
+
+    @Test
+    void shouldRejectACursorFolderBeforeTheLastParameter() throws Exception {
+        // Given
+        String[] args = {"--cursor", "https://github.com/org/baseline", "rules", "https://github.com/team/rules"};
+
+        // When
+        cmd.execute(args);
+
+        // Then
+        verify(mockCursor, never()).execute(anyList(), anyString());
+        verify(mockCursor, never()).execute(anyString(), anyString());
+        assertThat(outputStreamCaptor.toString(StandardCharsets.UTF_8)).contains("Only the last --cursor parameter can be a folder");
+    }
+
+    @Test
+    void shouldUpdateCursorRules() throws Exception {
+        // Given
+        String gitRepoUrl = "https://github.com/user/cursor-rules.git";
+        when(mockCursor.update(gitRepoUrl, ".cursor/rules")).thenReturn(Either.right("Cursor rules updated successfully"));
+        String[] args = {"--cursor", gitRepoUrl, "--update"};
+
+        // When
+        int exitCode = cmd.execute(args);
+
+        // Then
+        verify(mockCursor, times(1)).update(gitRepoUrl, ".cursor/rules");
+        verify(mockCursor, never()).execute(anyString(), anyString());
+        assertThat(exitCode).isEqualTo(0);
+        assertThat(outputStreamCaptor.toString(StandardCharsets.UTF_8).trim()).isEqualTo("Cursor rules updated successfully");
+    }
+
+    @Test
+    void shouldRejectUpdateWithoutCursor() throws Exception {
+        // Given
+        String[] args = {"--update", "--gitignore"};
+
+        // When
+        cmd.execute(args);
+
+        // Then
+        verify(mockGitignore, never()).execute();
+        assertThat(outputStreamCaptor.toString(StandardCharsets.UTF_8)).contains("--update only applies to --cursor");
+    }
+
+    @Test
+    void shouldPlanTheFeatureWithoutExecutingIt() throws Exception {
+        // Given
+        Plan plan = Plan.ofFiles(List.of(new Plan.FileChange(Path.of("/project/.gitignore"), 120, Plan.Action.CREATE)));
+        when(mockGitignore.plan()).thenReturn(Either.right(plan));
+        String[] args = {"--plan", "--gitignore"};
+
+        // When
+        int exitCode = cmd.execute(args);
+
+        // Then
+        verify(mockGitignore, never()).execute();
+        assertThat(exitCode).isEqualTo(InitCommand.PLANNED_WORK);
+        assertThat(outputStreamCaptor.toString(StandardCharsets.UTF_8))
+            .contains("Plan for --gitignore: 1 to create, 0 to overwrite, 0 unchanged, 120 bytes to write")
+            .contains("no previous run")
+            .contains("create")
+            .contains(".gitignore (120 bytes)");
+    }
+
+    @Test
+    void shouldEstimateThePlanFromPreviousRuns() throws Exception {
+        // Given
+        when(mockSdkman.execute()).thenReturn(Either.right("Sdkman executed successfully"));
+        when(mockSdkman.plan()).thenReturn(Either.right(Plan.EMPTY));
+
+        // When
+        int runExitCode = cmd.execute("--sdkman");
+        int planExitCode = cmd.execute("--plan", "--sdkman");
+
+        // Then
+        assertThat(runExitCode).isEqualTo(0);
+        assertThat(planExitCode).isEqualTo(0);
+        assertThat(outputStreamCaptor.toString(StandardCharsets.UTF_8))
+            .contains("Plan for --sdkman:")
+            .contains(" ms")
+            .doesNotContain("no previous run")
+            .contains("Nothing to do");
+        verify(mockSdkman, times(1)).execute();
+    }
 }
@@ -0,0 +1,185 @@
+package info.jab.cli;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import info.jab.cli.benchmarks.BenchmarkHarness;
+import info.jab.cli.io.ExecutionContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Latency of Setup.runCLI for every init option, each fork is a fresh JVM.
+ *
+ * cold: wall time of a fresh JVM running one invocation (startup included)
+ * warm: further invocations in the same JVM, each one in a new directory
+ *
+ * The report target/benchmarks/init-options.json is meant to be compared across releases.
+ *
+ * ./mvnw clean verify -Pbenchmarks -Dbenchmark.forks=5 -Dbenchmark.iterations=20 -Dbenchmark.options=--gitignore,--sdkman
+ */
+@SuppressWarnings("NullAway.Init")
+class InitOptionsBenchmark {
+
+    private static final String RESULT_PREFIX = "BENCH ";
+    private static final Pattern FIELDS = Pattern.compile(" ");
+
+    @TempDir
+    Path tempDir;
+
+    // Runs one option once cold and then warm, prints a single result line
+    static final class Probe {
+
+        public static void main(String[] args) throws IOException {
+            int iterations = Integer.parseInt(args[0]);
+            String[] cliArgs = Arrays.copyOfRange(args, 1, args.length);
+
+            long coldNanos = invoke(cliArgs);
+            long loadedClasses = ManagementFactory.getClassLoadingMXBean().getTotalLoadedClassCount();
+            long rssKb = readStatus("VmRSS");
+
+            List<String> warmNanos = new ArrayList<>();
+            for (int i = 0; i < iterations; i++) {
+                warmNanos.add(String.valueOf(invoke(cliArgs)));
+            }
+
+            System.out.println(RESULT_PREFIX
+                + "cold_ns=" + coldNanos
+                + " classes=" + loadedClasses
+                + " rss_kb=" + rssKb
+                + " peak_rss_kb=" + readStatus("VmHWM")
+                + " warm_ns=" + String.join(",", warmNanos));
+            System.exit(0);
+        }
+
+        private static long invoke(String[] cliArgs) throws IOException {
+            Path directory = Files.createTempDirectory(Paths.get("").toAbsolutePath(), "run");
+            // The project generators stop at their preconditions
+            Files.writeString(directory.resolve("pom.xml"), "<project/>");
+            ExecutionContext context = new ExecutionContext(directory, System.getenv());
+            long start = System.nanoTime();
+            ExecutionContext.callWith(context, () -> Setup.runCLI(cliArgs));
+            return System.nanoTime() - start;
+        }
+
+        // Linux only, -1 elsewhere
+        private static long readStatus(String field) throws IOException {
+            Path status = Paths.get("/proc/self/status");
+            if (!Files.exists(status)) {
+                return -1;
+            }
+            return Files.readAllLines(status, StandardCharsets.UTF_8).stream()
+                .filter(line -> line.startsWith(field + ":"))
+                .map(line -> line.replaceAll("[^0-9]", ""))
+                .mapToLong(Long::parseLong)
+                .findFirst()
+                .orElse(-1);
+        }
+    }
+
+    private record Sample(double coldMillis, double coldInvocationMillis, double loadedClasses,
+                          double rssKb, double peakRssKb, List<Double> warmMillis) {}
+
+    @Test
+    void measureEveryInitOption() throws Exception {
+        int forks = Integer.getInteger("benchmark.forks", 5);
+        int iterations = Integer.getInteger("benchmark.iterations", 20);
+        List<String> selected = Arrays.stream(System.getProperty("benchmark.options", "").split(",", -1))
+            .filter(option -> !option.isBlank())
+            .toList();
+
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (List<String> workload : workloads()) {
+            String option = workload.get(1);
+            if (!selected.isEmpty() && !selected.contains(option)) {
+                continue;
+            }
+            List<Sample> samples = new ArrayList<>();
+            for (int fork = 0; fork < forks; fork++) {
+                samples.add(run(workload, iterations));
+            }
+            results.add(summary(option, workload, samples));
+        }
+
+        Map<String, Object> report = new HashMap<>();
+        report.put("version", BuildInfo.VERSION);
+        report.put("commit", BuildInfo.COMMIT);
+        report.put("java", Objects.requireNonNull(System.getProperty("java.version")));
+        report.put("os", System.getProperty("os.name") + " " + System.getProperty("os.arch"));
+        report.put("forks", forks);
+        report.put("warmIterations", iterations);
+        report.put("options", results);
+
+        String json = BenchmarkHarness.toJson(report);
+        System.out.print(json);
+        Files.writeString(BenchmarkHarness.outputDirectory().resolve("init-options.json"), json, StandardCharsets.UTF_8);
+        assertThat(results).isNotEmpty();
+    }
+
+    // One invocation per init option, the same workload as the AOT training run
+    private static List<List<String>> workloads() {
+        return AotTraining.WORKLOAD.stream()
+            .filter(args -> args.size() > 1 && args.get(0).equals("init") && !args.get(1).equals("--help"))
+            .toList();
+    }
+
+    private Sample run(List<String> workload, int iterations) throws IOException, InterruptedException {
+        List<String> args = new ArrayList<>();
+        args.add(String.valueOf(iterations));
+        args.addAll(workload);
+
+        BenchmarkHarness.Fork fork = BenchmarkHarness.fork(
+            Probe.class.getName(), args, Files.createTempDirectory(tempDir, "fork"));
+        assertThat(fork.exitCode()).as(fork.output()).isZero();
+
+        String resultLine = fork.output().lines()
+            .filter(line -> line.startsWith(RESULT_PREFIX))
+            .reduce((first, second) -> second)
+            .orElseThrow(() -> new AssertionError("No result line in: " + fork.output()));
+        Map<String, String> fields = Arrays.stream(FIELDS.split(resultLine.substring(RESULT_PREFIX.length())))
+            .map(field -> field.split("=", 2))
+            .collect(Collectors.toMap(pair -> pair[0], pair -> pair.length > 1 ? pair[1] : ""));
+
+        List<Double> warm = Arrays.stream(Objects.requireNonNull(fields.get("warm_ns")).split(",", -1))
+            .filter(value -> !value.isEmpty())
+            .map(value -> Long.parseLong(value) / 1_000_000.0)
+            .toList();
+        return new Sample(
+            fork.wallNanos() / 1_000_000.0,
+            Long.parseLong(Objects.requireNonNull(fields.get("cold_ns"))) / 1_000_000.0,
+            Double.parseDouble(Objects.requireNonNull(fields.get("classes"))),
+            Double.parseDouble(Objects.requireNonNull(fields.get("rss_kb"))),
+            Double.parseDouble(Objects.requireNonNull(fields.get("peak_rss_kb"))),
+            warm);
+    }
+
+    private static Map<String, Object> summary(String option, List<String> workload, List<Sample> samples) {
+        Map<String, Object> summary = new HashMap<>();
+        summary.put("option", option);
+        summary.put("args", workload);
+        summary.put("coldStartMs", BenchmarkHarness.distribution(samples.stream().map(Sample::coldMillis).toList()));
+        summary.put("coldInvocationMs",
+            BenchmarkHarness.distribution(samples.stream().map(Sample::coldInvocationMillis).toList()));
+        summary.put("warmInvocationMs",
+            BenchmarkHarness.distribution(samples.stream().flatMap(sample -> sample.warmMillis().stream()).toList()));
+        summary.put("loadedClasses", BenchmarkHarness.distribution(samples.stream().map(Sample::loadedClasses).toList()));
+        summary.put("rssKb", BenchmarkHarness.distribution(samples.stream().map(Sample::rssKb).toList()));
+        summary.put("peakRssKb", BenchmarkHarness.distribution(samples.stream().map(Sample::peakRssKb).toList()));
+        return summary;
+    }
+}
@@ -0,0 +1,96 @@
+package info.jab.cli;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the CLI as a GraalVM native executable.
+ *
+ * ./mvnw clean verify -Pnative
+ */
+@EnabledIfSystemProperty(named = "native.image.path", matches = ".+")
+@SuppressWarnings("NullAway.Init")
+class NativeSetupIT {
+
+    @TempDir
+    Path tempDir;
+
+    private record Result(int exitCode, String output) {}
+
+    private Result run(String... args) throws IOException, InterruptedException {
+        Path executable = Paths.get(Objects.requireNonNull(System.getProperty("native.image.path")));
+        List<String> command = new ArrayList<>();
+        command.add(executable.toAbsolutePath().toString());
+        command.addAll(List.of(args));
+
+        Process process = new ProcessBuilder(command)
+            .directory(tempDir.toFile())
+            .redirectErrorStream(true)
+            .start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        assertThat(process.waitFor(1, TimeUnit.MINUTES)).isTrue();
+        return new Result(process.exitValue(), output);
+    }
+
+    @Test
+    void shouldPrintUsageHelp() throws Exception {
+        // When
+        Result result = run("init", "--help");
+
+        // Then
+        assertThat(result.exitCode()).isZero();
+        assertThat(result.output()).contains("--cursor", "--gitignore", "--devcontainer");
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "--gitignore, .gitignore",
+        "--editorconfig, .editorconfig",
+        "--sdkman, .sdkmanrc",
+        "--github-action, .github/workflows/maven.yaml",
+        "--dependabot, .github/dependabot.yml",
+        "--devcontainer, .devcontainer/devcontainer.json"
+    })
+    void shouldCopyTemplatesFromTheNativeImage(String option, String expectedFile) throws Exception {
+        // When
+        Result result = run("init", option);
+
+        // Then
+        assertThat(result.exitCode()).as(result.output()).isZero();
+        assertThat(tempDir.resolve(expectedFile)).isNotEmptyFile();
+    }
+
+    @Test
+    void shouldPrintVisualvmCommands() throws Exception {
+        // When
+        Result result = run("init", "--visualvm");
+
+        // Then
+        assertThat(result.exitCode()).isZero();
+        assertThat(result.output()).contains("sdk install visualvm");
+    }
+
+    @Test
+    void shouldRejectUnsupportedCursorProtocol() throws Exception {
+        // When
+        Result result = run("init", "--cursor", "ftp://example.com/rules.git");
+
+        // Then
+        assertThat(result.output()).contains("Unsupported protocol: ftp");
+    }
+}
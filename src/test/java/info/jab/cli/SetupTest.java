@@ -13,6 +13,18 @@ import org.mockito.Mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.times;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.io.TempDir;
+
+import picocli.CommandLine;
+
+import info.jab.cli.daemon.DaemonClient;
+import info.jab.cli.daemon.DaemonProtocol;
+import info.jab.cli.daemon.DaemonServer;
 
 @ExtendWith(MockitoExtension.class)
 @SuppressWarnings("NullAway.Init")
@@ -63,6 +75,101 @@ class SetupTest {
         assertThat(exitCode).isZero();
     }
 
+    @Test
+    void testBannerIsRenderedAtBuildTime() throws Exception {
+        // When
+        String banner = Setup.readBanner();
+
+        // Then
+        assertThat(banner).contains("____");
+        assertThat(banner.lines().count()).isGreaterThan(4);
+    }
+
+    @Test
+    void testBannerIsSkippedWhenStdoutIsNotATerminal() {
+        // Given: surefire redirects the standard streams
+        String[] args = {"init", "--help"};
+
+        // When
+        Setup.runCLI(args);
+
+        // Then
+        assertThat(Setup.isInteractive()).isFalse();
+        String output = outputStreamCaptor.toString(StandardCharsets.UTF_8);
+        assertThat(output).doesNotContain("Version: ");
+    }
+
+    @Test
+    void testDaemonRunsInitInTheClientWorkingDirectory(@TempDir Path tempDir) throws Exception {
+        // Given
+        Path socket = tempDir.resolve("daemon.sock");
+        Path first = Files.createDirectory(tempDir.resolve("first"));
+        Path second = Files.createDirectory(tempDir.resolve("second"));
+
+        try (DaemonServer server = new DaemonServer(socket, args -> Setup.execute(args.toArray(String[]::new)))) {
+            server.start();
+            DaemonClient client = new DaemonClient(socket);
+            ByteArrayOutputStream clientOut = new ByteArrayOutputStream();
+
+            // When
+            int firstExitCode = client.send(
+                new DaemonProtocol.Request(List.of("init", "--gitignore"), first, Map.of()), clientOut, clientOut);
+            int secondExitCode = client.send(
+                new DaemonProtocol.Request(List.of("init", "--gitignore"), second, Map.of()), clientOut, clientOut);
+
+            // Then
+            assertThat(firstExitCode).isZero();
+            assertThat(secondExitCode).isZero();
+            assertThat(first.resolve(".gitignore")).isNotEmptyFile();
+            assertThat(second.resolve(".gitignore")).isNotEmptyFile();
+            assertThat(clientOut.toString(StandardCharsets.UTF_8)).contains("Executing command to add .gitignore file");
+        }
+    }
+
+    @Test
+    void testPlanExitCodeTellsWhetherThereIsWork(@TempDir Path tempDir) throws Exception {
+        // Given
+        Path socket = tempDir.resolve("daemon.sock");
+        Path project = Files.createDirectory(tempDir.resolve("project"));
+
+        try (DaemonServer server = new DaemonServer(socket, Setup::serve)) {
+            server.start();
+            DaemonClient client = new DaemonClient(socket);
+            ByteArrayOutputStream clientOut = new ByteArrayOutputStream();
+
+            // When
+            int beforeExitCode = client.send(
+                new DaemonProtocol.Request(List.of("init", "--plan", "--gitignore"), project, Map.of()), clientOut, clientOut);
+            client.send(new DaemonProtocol.Request(List.of("init", "--gitignore"), project, Map.of()), clientOut, clientOut);
+            int afterExitCode = client.send(
+                new DaemonProtocol.Request(List.of("init", "--plan", "--gitignore"), project, Map.of()), clientOut, clientOut);
+
+            // Then
+            assertThat(beforeExitCode).isEqualTo(InitCommand.PLANNED_WORK);
+            assertThat(afterExitCode).isZero();
+            assertThat(clientOut.toString(StandardCharsets.UTF_8)).contains("Nothing to do");
+        }
+    }
+
+    @Test
+    void testDaemonRejectsARequestToStartAnotherDaemon(@TempDir Path tempDir) throws Exception {
+        // Given
+        Path socket = tempDir.resolve("daemon.sock");
+
+        try (DaemonServer server = new DaemonServer(socket, Setup::serve)) {
+            server.start();
+            ByteArrayOutputStream clientErr = new ByteArrayOutputStream();
+
+            // When
+            int exitCode = new DaemonClient(socket).send(
+                new DaemonProtocol.Request(List.of("--daemon"), tempDir, Map.of()), new ByteArrayOutputStream(), clientErr);
+
+            // Then
+            assertThat(exitCode).isEqualTo(CommandLine.ExitCode.USAGE);
+            assertThat(clientErr.toString(StandardCharsets.UTF_8)).contains("--daemon is not accepted");
+        }
+    }
+
     @Test
     void testSetupInstantiation() {
         // Test that Setup can be instantiated without issues
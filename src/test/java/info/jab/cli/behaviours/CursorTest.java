@@ -3,6 +3,7 @@ package info.jab.cli.behaviours;
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -10,6 +11,7 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import org.mockito.Mock;
@@ -278,4 +280,68 @@ class CursorTest {
         assertThat(result.getLeft()).startsWith("Invalid URL format:");
         verify(mockGitFolderCopy, never()).copyFolderFromRepo(anyString(), anyString(), anyString());
     }
+
+    @Test
+    void testUpdateCopiesTheLatestRules() {
+        // Given
+        String url = " https://github.com/user/repo.git#main ";
+        String folderPath = ".cursor/rules";
+
+        // When
+        var result = cursor.update(url, folderPath);
+
+        // Then
+        assertThat(result.isRight()).isTrue();
+        assertThat(result.get()).isEqualTo("Cursor rules updated successfully");
+        verify(mockGitFolderCopy).updateFolderFromRepo(eq(url.trim()), eq(folderPath), anyString());
+        verify(mockGitFolderCopy, never()).copyFolderFromRepo(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void testUpdateRejectsAnInvalidUrlWithoutFetching() {
+        // When
+        var result = cursor.update("git://github.com/user/repo.git", ".cursor/rules");
+
+        // Then
+        assertThat(result.isLeft()).isTrue();
+        assertThat(result.getLeft()).startsWith("Invalid URL format:");
+        verify(mockGitFolderCopy, never()).updateFolderFromRepo(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void testExecuteMergesSeveralRepositories() {
+        // Given
+        List<String> urls = List.of("https://github.com/org/baseline ", "https://github.com/team/rules#main");
+
+        // When
+        var result = cursor.execute(urls, ".cursor/rules");
+
+        // Then
+        assertThat(result.isRight()).isTrue();
+        assertThat(result.get()).isEqualTo("Cursor rules added successfully from 2 repositories");
+        verify(mockGitFolderCopy).copyFolderFromRepos(
+            eq(List.of("https://github.com/org/baseline", "https://github.com/team/rules#main")), eq(".cursor/rules"), anyString());
+    }
+
+    @Test
+    void testExecuteRejectsSeveralRepositoriesWithAnInvalidUrl() {
+        // When
+        var result = cursor.execute(List.of("https://github.com/org/baseline", "ftp://example.com/rules.git"), ".cursor/rules");
+
+        // Then
+        assertThat(result.isLeft()).isTrue();
+        assertThat(result.getLeft()).contains("Unsupported protocol: ftp");
+        verify(mockGitFolderCopy, never()).copyFolderFromRepos(anyList(), anyString(), anyString());
+    }
+
+    @Test
+    void testPlanRejectsAnInvalidUrlWithoutFetching() {
+        // When
+        var result = cursor.plan("ftp://example.com/rules.git", ".cursor/rules");
+
+        // Then
+        assertThat(result.isLeft()).isTrue();
+        assertThat(result.getLeft()).contains("Unsupported protocol: ftp");
+        verify(mockGitFolderCopy, never()).planFolderFromRepo(anyString(), anyString(), anyString());
+    }
 }
@@ -63,6 +63,7 @@ class GitignoreTest {
         assertThat(result.isRight()).isTrue();
         assertThat(result.get()).isEqualTo("Command execution completed successfully");
         verify(copyFilesMock).copyClasspathFileWithRename(eq(expectedResourcePath), eq(expectedGitignoreFile));
+        verify(copyFilesMock).close();
     }
 
     @Test
@@ -2,6 +2,7 @@ package info.jab.cli.behaviours;
 
 import info.jab.cli.io.CommandExecutor;
 import info.jab.cli.io.FileSystemChecker;
+import info.jab.cli.io.Plan;
 import io.vavr.control.Either;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -346,4 +347,35 @@ class MavenTest {
         assertThat(result).isFalse();
         verify(mockFileSystemChecker).fileExists(eq("pom.xml"));
     }
+
+    @Test
+    void plan_shouldListTheCommandsWithoutRunningThem() {
+        // Given
+        when(mockCommandExecutor.isOnPath("mvn")).thenReturn(true);
+
+        // When
+        Either<String, Plan> result = maven.plan();
+
+        // Then
+        assertThat(result.isRight()).isTrue();
+        assertThat(result.get().commands()).hasSize(2);
+        assertThat(result.get().commands().get(0)).isEqualTo("mvn --version");
+        assertThat(result.get().commands().get(1)).startsWith("mvn archetype:generate");
+        assertThat(result.get().files()).isEmpty();
+        verify(mockCommandExecutor, never()).execute(any(String.class));
+    }
+
+    @Test
+    void plan_shouldFailWhenMavenIsNotOnThePath() {
+        // Given
+        when(mockCommandExecutor.isOnPath("mvn")).thenReturn(false);
+
+        // When
+        Either<String, Plan> result = maven.plan();
+
+        // Then
+        assertThat(result.isLeft()).isTrue();
+        assertThat(result.getLeft()).contains("Maven (mvn) command not found");
+        verify(mockCommandExecutor, never()).execute(any(String.class));
+    }
 }
@@ -4,15 +4,21 @@ import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mockito;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import info.jab.cli.io.CopyFiles;
+import info.jab.cli.io.Plan;
 
 class SdkmanTest {
 
@@ -59,4 +65,20 @@ class SdkmanTest {
         // We can't easily assert the internal CopyFiles instance is not null without reflection or changing visibility,
         // but we know the constructor ran without error.
     }
+
+    @Test
+    void should_plan_the_copy_without_copying() {
+        // Given
+        Path expectedPath = Paths.get(System.getProperty("user.dir"));
+        Plan plan = Plan.ofFiles(List.of(
+            new Plan.FileChange(expectedPath.resolve(".sdkmanrc"), 42, Plan.Action.CREATE)));
+        when(mockCopyFiles.planClasspathFolder("templates/sdkman/", expectedPath)).thenReturn(plan);
+
+        // When
+        var result = sdkman.plan();
+
+        // Then
+        assertThat(result.get()).isEqualTo(plan);
+        verify(mockCopyFiles, never()).copyClasspathFolder(anyString(), any(Path.class));
+    }
 }
@@ -0,0 +1,94 @@
+package info.jab.cli.benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import info.jab.cli.io.RunHistory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Cold start comparison of the shaded jar with and without the AOT cache.
+ *
+ * ./mvnw clean verify -Paot,benchmarks
+ */
+@SuppressWarnings("NullAway.Init")
+class AotStartupBenchmark {
+
+    private static final int RUNS = 10;
+
+    private static final List<String> OPTIONS = List.of("--gitignore", "--editorconfig", "--sdkman", "--jmc");
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void compareColdStartWithAndWithoutAotCache() throws Exception {
+        Path jar = Paths.get(Objects.requireNonNull(System.getProperty("setup.jar", "target/setup.jar")));
+        Path aot = Paths.get(Objects.requireNonNull(System.getProperty("setup.aot", "target/setup.aot")));
+        assumeTrue(Files.exists(jar), "Shaded jar not found: " + jar);
+        assumeTrue(Files.exists(aot), "AOT cache not found, build with -Paot: " + aot);
+
+        StringBuilder report = new StringBuilder();
+        report.append(String.format(Locale.ROOT, "%-16s %12s %12s %12s %12s%n",
+            "option", "jit p50 ms", "aot p50 ms", "jit mean ms", "aot mean ms"));
+
+        for (String option : OPTIONS) {
+            List<Long> withoutCache = measure(List.of("-jar", jar.toString(), "init", option));
+            List<Long> withCache = measure(List.of("-XX:AOTCache=" + aot, "-jar", jar.toString(), "init", option));
+            report.append(String.format(Locale.ROOT, "%-16s %12d %12d %12.1f %12.1f%n",
+                option, median(withoutCache), median(withCache), mean(withoutCache), mean(withCache)));
+        }
+
+        System.out.print(report);
+        Path output = Paths.get(Objects.requireNonNull(System.getProperty("benchmark.output", "target/benchmarks")));
+        Files.createDirectories(output);
+        Files.writeString(output.resolve("aot-startup.txt"), report, StandardCharsets.UTF_8);
+        assertThat(report).isNotEmpty();
+    }
+
+    private List<Long> measure(List<String> arguments) throws IOException, InterruptedException {
+        List<Long> timings = new ArrayList<>();
+        for (int i = 0; i < RUNS; i++) {
+            Path workingDirectory = Files.createTempDirectory(tempDir, "run");
+            List<String> command = new ArrayList<>();
+            command.add(Paths.get(Objects.requireNonNull(System.getProperty("java.home")), "bin", "java").toString());
+            // Benchmark runs stay out of ~/.setup/history.properties
+            command.add("-D" + RunHistory.PROPERTY + "=" + System.getProperty(RunHistory.PROPERTY, ""));
+            command.addAll(arguments);
+
+            long start = System.nanoTime();
+            Process process = new ProcessBuilder(command)
+                .directory(workingDirectory.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+            int exitCode = process.waitFor();
+            timings.add((System.nanoTime() - start) / 1_000_000);
+            assertThat(exitCode).isZero();
+        }
+        return timings;
+    }
+
+    private static long median(List<Long> values) {
+        List<Long> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        return sorted.get(sorted.size() / 2);
+    }
+
+    private static double mean(List<Long> values) {
+        return values.stream().mapToLong(Long::longValue).average().orElse(0);
+    }
+}
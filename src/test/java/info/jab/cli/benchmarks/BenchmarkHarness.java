@@ -0,0 +1,152 @@
+package info.jab.cli.benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+import info.jab.cli.io.RunHistory;
+
+/**
+ * Shared pieces of the fresh JVM benchmarks: forking a JVM with the test classpath,
+ * percentiles and a minimal JSON writer for machine readable reports.
+ */
+public final class BenchmarkHarness {
+
+    private BenchmarkHarness() {
+        // Static helpers only
+    }
+
+    public record Fork(int exitCode, long wallNanos, String output) {}
+
+    /**
+     * Runs a main class in a fresh JVM with the classpath of the current test JVM.
+     *
+     * @param mainClass the class to run
+     * @param args the program arguments
+     * @param workingDirectory the working directory of the JVM
+     * @return the exit code, wall time and stdout of the JVM
+     * @throws IOException if the JVM cannot be started
+     * @throws InterruptedException if interrupted while waiting for the JVM
+     */
+    public static Fork fork(String mainClass, List<String> args, Path workingDirectory)
+            throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(Objects.requireNonNull(System.getProperty("java.home")), "bin", "java").toString());
+        // Benchmark runs stay out of ~/.setup/history.properties
+        command.add("-D" + RunHistory.PROPERTY + "=" + System.getProperty(RunHistory.PROPERTY, ""));
+        command.add("-cp");
+        command.add(Objects.requireNonNull(System.getProperty("java.class.path")));
+        command.add(mainClass);
+        command.addAll(args);
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+            .directory(workingDirectory.toFile())
+            .redirectError(ProcessBuilder.Redirect.DISCARD)
+            .start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        int exitCode = process.waitFor();
+        return new Fork(exitCode, System.nanoTime() - start, output);
+    }
+
+    /**
+     * Nearest-rank percentile.
+     *
+     * @param values the samples, not necessarily sorted
+     * @param percentile between 0 and 100
+     * @return the percentile value, 0 for no samples
+     */
+    public static double percentile(List<Double> values, double percentile) {
+        if (values.isEmpty()) {
+            return 0;
+        }
+        List<Double> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100 * sorted.size());
+        return sorted.get(Math.max(0, rank - 1));
+    }
+
+    public static Map<String, Object> distribution(List<Double> values) {
+        return Map.of(
+            "p50", percentile(values, 50),
+            "p95", percentile(values, 95),
+            "p99", percentile(values, 99),
+            "max", percentile(values, 100),
+            "samples", values.size());
+    }
+
+    public static Path outputDirectory() throws IOException {
+        Path output = Paths.get(Objects.requireNonNull(System.getProperty("benchmark.output", "target/benchmarks")));
+        return Files.createDirectories(output);
+    }
+
+    /**
+     * Serializes maps, lists, strings, numbers and booleans as JSON, map keys are sorted.
+     *
+     * @param value the value to serialize
+     * @return the JSON text
+     */
+    public static String toJson(Object value) {
+        StringBuilder json = new StringBuilder();
+        appendJson(json, value, "");
+        return json.append(System.lineSeparator()).toString();
+    }
+
+    private static void appendJson(StringBuilder json, Object value, String indent) {
+        String nested = indent + "  ";
+        if (value instanceof Map<?, ?> map) {
+            List<String> keys = map.keySet().stream().map(String::valueOf).sorted().toList();
+            json.append('{');
+            for (int i = 0; i < keys.size(); i++) {
+                json.append(i == 0 ? "\n" : ",\n").append(nested);
+                appendString(json, keys.get(i));
+                json.append(": ");
+                appendJson(json, Objects.requireNonNull(map.get(keys.get(i))), nested);
+            }
+            json.append(keys.isEmpty() ? "" : "\n" + indent).append('}');
+        } else if (value instanceof List<?> list) {
+            json.append('[');
+            for (int i = 0; i < list.size(); i++) {
+                json.append(i == 0 ? "\n" : ",\n").append(nested);
+                appendJson(json, Objects.requireNonNull(list.get(i)), nested);
+            }
+            json.append(list.isEmpty() ? "" : "\n" + indent).append(']');
+        } else if (value instanceof Double number) {
+            json.append(String.format(Locale.ROOT, "%.3f", number));
+        } else if (value instanceof Number || value instanceof Boolean) {
+            json.append(value);
+        } else {
+            appendString(json, String.valueOf(value));
+        }
+    }
+
+    private static void appendString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        json.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        json.append('"');
+    }
+}
@@ -0,0 +1,53 @@
+package info.jab.cli.benchmarks;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BenchmarkHarnessTest {
+
+    @Test
+    void shouldComputeNearestRankPercentiles() {
+        // Given
+        List<Double> values = IntStream.rangeClosed(1, 100).mapToObj(i -> (double) (101 - i)).toList();
+
+        // Then
+        assertThat(BenchmarkHarness.percentile(values, 50)).isEqualTo(50.0);
+        assertThat(BenchmarkHarness.percentile(values, 95)).isEqualTo(95.0);
+        assertThat(BenchmarkHarness.percentile(values, 99)).isEqualTo(99.0);
+        assertThat(BenchmarkHarness.percentile(values, 100)).isEqualTo(100.0);
+        assertThat(BenchmarkHarness.percentile(List.of(), 50)).isZero();
+    }
+
+    @Test
+    void shouldWriteJson() {
+        // Given
+        Map<String, Object> report = Map.of(
+            "option", "--cursor \"quoted\"",
+            "forks", 5,
+            "coldStartMs", Map.of("p50", 12.5),
+            "args", List.of("init", "--gitignore"));
+
+        // When
+        String json = BenchmarkHarness.toJson(report);
+
+        // Then
+        assertThat(json).isEqualTo("""
+            {
+              "args": [
+                "init",
+                "--gitignore"
+              ],
+              "coldStartMs": {
+                "p50": 12.500
+              },
+              "forks": 5,
+              "option": "--cursor \\"quoted\\""
+            }
+            """.replace("\n", System.lineSeparator()));
+    }
+}
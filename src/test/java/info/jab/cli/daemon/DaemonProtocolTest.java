@@ -0,0 +1,129 @@
+package info.jab.cli.daemon;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DaemonProtocolTest {
+
+    @Test
+    void shouldRoundTripARequest() throws IOException {
+        // Given
+        DaemonProtocol.Request request = new DaemonProtocol.Request(
+            List.of("init", "--cursor", "https://github.com/jabrena/cursor-rules-java", ".cursor/rules"),
+            Paths.get("/tmp/project"),
+            Map.of("PATH", "/usr/bin", "HOME", "/home/user"));
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+        // When
+        DaemonProtocol.writeRequest(new DataOutputStream(buffer), request);
+        DaemonProtocol.Request decoded = DaemonProtocol.readRequest(
+            new DataInputStream(new ByteArrayInputStream(buffer.toByteArray())));
+
+        // Then
+        assertThat(decoded).isEqualTo(request);
+    }
+
+    @Test
+    void shouldRoundTripAnEnvironmentValueOver64Kb() throws IOException {
+        // Given: writeUTF is limited to 65535 bytes
+        String classpath = "/opt/lib/dependency.jar:".repeat(5_000);
+        DaemonProtocol.Request request = new DaemonProtocol.Request(
+            List.of("init", "--gitignore"), Paths.get("/tmp/project"), Map.of("CLASSPATH", classpath, "LANG", "ca_ES.UTF-8 ·"));
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+        // When
+        DaemonProtocol.writeRequest(new DataOutputStream(buffer), request);
+        DaemonProtocol.Request decoded = DaemonProtocol.readRequest(
+            new DataInputStream(new ByteArrayInputStream(buffer.toByteArray())));
+
+        // Then
+        assertThat(decoded).isEqualTo(request);
+    }
+
+    @Test
+    void shouldRejectAnUnknownVersion() throws IOException {
+        // Given
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        new DataOutputStream(buffer).writeInt(DaemonProtocol.VERSION + 1);
+
+        // When / Then
+        assertThatThrownBy(() -> DaemonProtocol.readRequest(
+                new DataInputStream(new ByteArrayInputStream(buffer.toByteArray()))))
+            .isInstanceOf(IOException.class)
+            .hasMessageContaining("Unsupported daemon protocol version");
+    }
+
+    @Test
+    void shouldRejectNegativeOrHugeCounts() throws IOException {
+        for (int count : new int[] {-1, DaemonProtocol.MAX_ENTRIES + 1, Integer.MAX_VALUE}) {
+            // Given
+            ByteArrayOutputStream arguments = new ByteArrayOutputStream();
+            DataOutputStream output = new DataOutputStream(arguments);
+            output.writeInt(DaemonProtocol.VERSION);
+            output.writeInt(count);
+            ByteArrayOutputStream variables = new ByteArrayOutputStream();
+            output = new DataOutputStream(variables);
+            output.writeInt(DaemonProtocol.VERSION);
+            output.writeInt(0);
+            output.writeInt(1);
+            output.write('/');
+            output.writeInt(count);
+
+            // When / Then
+            assertThatThrownBy(() -> DaemonProtocol.readRequest(
+                    new DataInputStream(new ByteArrayInputStream(arguments.toByteArray()))))
+                .isInstanceOf(IOException.class)
+                .hasMessage("Invalid daemon argument count: " + count);
+            assertThatThrownBy(() -> DaemonProtocol.readRequest(
+                    new DataInputStream(new ByteArrayInputStream(variables.toByteArray()))))
+                .isInstanceOf(IOException.class)
+                .hasMessage("Invalid daemon environment variable count: " + count);
+        }
+    }
+
+    @Test
+    void shouldRejectAHugeString() throws IOException {
+        // Given
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(buffer);
+        output.writeInt(DaemonProtocol.VERSION);
+        output.writeInt(1);
+        output.writeInt(DaemonProtocol.MAX_STRING_BYTES + 1);
+
+        // When / Then
+        assertThatThrownBy(() -> DaemonProtocol.readRequest(
+                new DataInputStream(new ByteArrayInputStream(buffer.toByteArray()))))
+            .isInstanceOf(IOException.class)
+            .hasMessageContaining("Invalid daemon string length");
+    }
+
+    @Test
+    void shouldWriteOutputAsFrames() throws IOException {
+        // Given
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(buffer);
+
+        // When
+        new DaemonProtocol.FrameOutputStream(output, DaemonProtocol.STDERR).write("error".getBytes(StandardCharsets.UTF_8));
+        DaemonProtocol.writeExit(output, 2);
+
+        // Then
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(buffer.toByteArray()));
+        assertThat(input.readByte()).isEqualTo(DaemonProtocol.STDERR);
+        assertThat(new String(input.readNBytes(input.readInt()), StandardCharsets.UTF_8)).isEqualTo("error");
+        assertThat(input.readByte()).isEqualTo(DaemonProtocol.EXIT);
+        assertThat(input.readInt()).isEqualTo(2);
+    }
+}
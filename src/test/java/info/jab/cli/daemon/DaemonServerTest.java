@@ -0,0 +1,185 @@
+package info.jab.cli.daemon;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import info.jab.cli.io.ExecutionContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SuppressWarnings("NullAway.Init")
+class DaemonServerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private record Response(int exitCode, String out, String err) {}
+
+    private Response send(Path socket, List<String> args, Path workingDirectory, Map<String, String> environment)
+            throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        int exitCode = new DaemonClient(socket).send(
+            new DaemonProtocol.Request(args, workingDirectory, environment), out, err);
+        return new Response(exitCode, out.toString(StandardCharsets.UTF_8), err.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void shouldServeARequestInTheClientContext() throws Exception {
+        // Given
+        Path socket = tempDir.resolve("daemon.sock");
+        Path project = Files.createDirectory(tempDir.resolve("project"));
+        DaemonServer.RequestHandler handler = args -> {
+            ExecutionContext context = ExecutionContext.current();
+            System.out.println(String.join(" ", args) + " in " + context.workingDirectory());
+            System.err.println("GREETING=" + context.environment().get("GREETING"));
+            return 3;
+        };
+
+        try (DaemonServer server = new DaemonServer(socket, handler)) {
+            server.start();
+
+            // When
+            Response response = send(socket, List.of("init", "--gitignore"), project, Map.of("GREETING", "hello"));
+
+            // Then
+            assertThat(response.exitCode()).isEqualTo(3);
+            assertThat(response.out()).isEqualTo("init --gitignore in " + project + System.lineSeparator());
+            assertThat(response.err()).isEqualTo("GREETING=hello" + System.lineSeparator());
+        }
+        assertThat(socket).doesNotExist();
+    }
+
+    @Test
+    void shouldServeConcurrentRequestsInIsolation() throws Exception {
+        // Given
+        Path socket = tempDir.resolve("daemon.sock");
+        int clients = 8;
+        CountDownLatch allStarted = new CountDownLatch(clients);
+        DaemonServer.RequestHandler handler = args -> {
+            allStarted.countDown();
+            try {
+                // Every request is in flight at the same time
+                assertThat(allStarted.await(10, TimeUnit.SECONDS)).isTrue();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return 1;
+            }
+            System.out.print(ExecutionContext.current().workingDirectory().getFileName());
+            return 0;
+        };
+
+        try (DaemonServer server = new DaemonServer(socket, handler);
+             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            server.start();
+
+            // When
+            List<Future<Response>> responses = new ArrayList<>();
+            for (int i = 0; i < clients; i++) {
+                Path project = Files.createDirectory(tempDir.resolve("project-" + i));
+                responses.add(executor.submit(() -> send(socket, List.of("init"), project, Map.of())));
+            }
+
+            // Then
+            for (int i = 0; i < clients; i++) {
+                Response response = responses.get(i).get(30, TimeUnit.SECONDS);
+                assertThat(response.exitCode()).isZero();
+                assertThat(response.out()).isEqualTo("project-" + i);
+            }
+        }
+    }
+
+    @Test
+    void shouldReportHandlerFailuresToTheClient() throws Exception {
+        // Given
+        Path socket = tempDir.resolve("daemon.sock");
+        DaemonServer.RequestHandler handler = args -> {
+            throw new IllegalStateException("boom");
+        };
+
+        try (DaemonServer server = new DaemonServer(socket, handler)) {
+            server.start();
+
+            // When
+            Response response = send(socket, List.of("init"), tempDir, Map.of());
+
+            // Then
+            assertThat(response.exitCode()).isEqualTo(1);
+            assertThat(response.err()).contains("boom");
+        }
+    }
+
+    @Test
+    void shouldRefuseToStartTwiceOnTheSameSocket() throws Exception {
+        // Given
+        Path socket = tempDir.resolve("daemon.sock");
+
+        try (DaemonServer server = new DaemonServer(socket, args -> 0);
+             DaemonServer second = new DaemonServer(socket, args -> 0)) {
+            server.start();
+
+            // When / Then
+            assertThatThrownBy(second::start)
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("already listening");
+        }
+    }
+
+    @Test
+    void shouldKeepTheSocketPrivateToTheUser() throws Exception {
+        // Given
+        Path directory = tempDir.resolve("home").resolve(".setup");
+        Path socket = directory.resolve("daemon.sock");
+
+        try (DaemonServer server = new DaemonServer(socket, args -> 0)) {
+            // When
+            server.start();
+
+            // Then
+            assertThat(PosixFilePermissions.toString(Files.getPosixFilePermissions(directory))).isEqualTo("rwx------");
+            assertThat(PosixFilePermissions.toString(Files.getPosixFilePermissions(socket))).isEqualTo("rw-------");
+        }
+    }
+
+    @Test
+    void shouldReportAStaleSocketAsUnavailable() throws Exception {
+        // Given: a socket file left behind by a killed daemon
+        Path socket = tempDir.resolve("daemon.sock");
+        Files.createFile(socket);
+
+        // When / Then: the client can fall back to running the invocation itself
+        assertThatThrownBy(() -> send(socket, List.of("init"), tempDir, Map.of()))
+            .isInstanceOf(DaemonClient.UnavailableException.class);
+    }
+
+    @Test
+    void shouldReplaceAStaleSocket() throws Exception {
+        // Given: a socket file left behind by a killed daemon
+        Path socket = tempDir.resolve("daemon.sock");
+        Files.createFile(socket);
+
+        try (DaemonServer server = new DaemonServer(socket, args -> 0)) {
+            // When
+            server.start();
+
+            // Then
+            assertThat(send(socket, List.of("init"), tempDir, Map.of()).exitCode()).isZero();
+        }
+    }
+}
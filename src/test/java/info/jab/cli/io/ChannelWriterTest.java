@@ -0,0 +1,78 @@
+package info.jab.cli.io;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SuppressWarnings("NullAway.Init")
+class ChannelWriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void shouldEncodeContentLargerThanTheBuffer() throws IOException {
+        // Given
+        String line = "name: build ✓ ünïcödé 😀\n";
+        String content = line.repeat(ChannelWriter.BUFFER_SIZE / line.length() * 3);
+        Path file = tempDir.resolve("large.yml");
+
+        // When
+        ChannelWriter writer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            writer = new ChannelWriter(channel);
+            writer.append(content);
+            writer.close();
+        }
+
+        // Then
+        byte[] expected = content.getBytes(StandardCharsets.UTF_8);
+        CRC32C crc = new CRC32C();
+        crc.update(expected);
+        assertThat(Files.readAllBytes(file)).isEqualTo(expected);
+        assertThat(writer.size()).isEqualTo(expected.length);
+        assertThat(writer.crc32c()).isEqualTo(crc.getValue());
+    }
+
+    @Test
+    void shouldJoinSurrogatePairsSplitAcrossWrites() throws IOException {
+        // Given
+        String emoji = "😀";
+        Path file = tempDir.resolve("emoji.txt");
+
+        // When
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             ChannelWriter writer = new ChannelWriter(channel)) {
+            writer.write("a" + emoji.charAt(0));
+            writer.write(emoji.charAt(1));
+            writer.write("b");
+        }
+
+        // Then
+        assertThat(file).hasContent("a" + emoji + "b");
+    }
+
+    @Test
+    void shouldRejectAnUnpairedSurrogateOnClose() throws IOException {
+        // Given
+        Path file = tempDir.resolve("broken.txt");
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            ChannelWriter writer = new ChannelWriter(channel);
+            writer.write("a" + "😀".charAt(0));
+
+            // When / Then
+            assertThatThrownBy(writer::close).isInstanceOf(IOException.class);
+        }
+    }
+}
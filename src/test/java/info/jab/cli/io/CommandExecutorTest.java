@@ -5,8 +5,10 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
 import java.io.File;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Locale;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -149,4 +151,41 @@ class CommandExecutorTest {
         // Then - should return error
         assertThat(result.isLeft()).isTrue();
     }
+
+    @Test
+    void isOnPath_shouldFindExecutablesWithoutSpawningThem() throws Exception {
+        // Given
+        Path bin = tempDir.resolve("bin");
+        Files.createDirectories(bin);
+        Path tool = Files.writeString(bin.resolve("tool"), "#!/bin/sh\n");
+        assertThat(tool.toFile().setExecutable(true)).isTrue();
+        ExecutionContext context = new ExecutionContext(tempDir, Map.of("PATH", bin.toString()));
+
+        // When
+        boolean found = ExecutionContext.callWith(context, () -> commandExecutor.isOnPath("tool"));
+        boolean missing = ExecutionContext.callWith(context, () -> commandExecutor.isOnPath("mvn"));
+
+        // Then
+        assertThat(found).isTrue();
+        assertThat(missing).isFalse();
+    }
+
+    @Test
+    void execute_shouldRunTheExecutableFoundOnThePathOfTheInvocation() throws Exception {
+        // Given: a PATH only the invocation has, not this process
+        Path bin = tempDir.resolve("request-bin");
+        Files.createDirectories(bin);
+        Path tool = Files.writeString(bin.resolve("setup-test-tool"), "#!/bin/sh\necho from the request PATH\n");
+        assertThat(tool.toFile().setExecutable(true)).isTrue();
+        ExecutionContext context = new ExecutionContext(tempDir, Map.of("PATH", bin.toString()));
+
+        // When
+        var result = ExecutionContext.callWith(context, () -> commandExecutor.execute("setup-test-tool"));
+        var missing = ExecutionContext.callWith(context, () -> commandExecutor.execute("sh -c true"));
+
+        // Then
+        assertThat(result.isRight()).isTrue();
+        assertThat(result.get()).contains("from the request PATH");
+        assertThat(missing.getLeft()).isEqualTo("Command not found on PATH: sh");
+    }
 }
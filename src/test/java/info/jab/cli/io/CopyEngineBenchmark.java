@@ -0,0 +1,95 @@
+package info.jab.cli.io;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import info.jab.cli.benchmarks.BenchmarkHarness;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Sequential copy (concurrency 1, the former SimpleFileVisitor behaviour) against the
+ * parallel CopyEngine for template trees of 10, 1k and 50k files.
+ *
+ * Every iteration copies into a new destination, so all files are written.
+ * The report target/benchmarks/copy-engine.json is meant to be compared across releases.
+ *
+ * ./mvnw clean verify -Pbenchmarks -Dbenchmark.concurrency=16
+ */
+@SuppressWarnings("NullAway.Init")
+class CopyEngineBenchmark {
+
+    private static final String FOLDER = "tree";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void compareSequentialAndParallelCopies() throws Exception {
+        int concurrency = Integer.getInteger("benchmark.concurrency", CopyEngine.DEFAULT_CONCURRENCY);
+        Map<Integer, Integer> iterationsBySize = Map.of(10, 50, 1_000, 10, 50_000, 3);
+
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (int files : List.of(10, 1_000, 50_000)) {
+            Path classpath = createTree(files);
+            int iterations = Objects.requireNonNull(iterationsBySize.get(files));
+            for (int mode : List.of(1, concurrency)) {
+                List<Double> millis = measure(classpath, files, mode, iterations);
+                Map<String, Object> result = new HashMap<>();
+                result.put("files", files);
+                result.put("mode", mode == 1 ? "sequential" : "parallel");
+                result.put("concurrency", mode);
+                result.put("copyMs", BenchmarkHarness.distribution(millis));
+                results.add(result);
+            }
+        }
+
+        Map<String, Object> report = new HashMap<>();
+        report.put("java", Objects.requireNonNull(System.getProperty("java.version")));
+        report.put("results", results);
+        String json = BenchmarkHarness.toJson(report);
+        System.out.print(json);
+        Files.writeString(BenchmarkHarness.outputDirectory().resolve("copy-engine.json"), json, StandardCharsets.UTF_8);
+        assertThat(results).hasSize(6);
+    }
+
+    // 100 files per directory, 1 KiB each
+    private Path createTree(int files) throws IOException {
+        Path classpath = Files.createTempDirectory(tempDir, "classpath");
+        String content = "x".repeat(1024);
+        for (int i = 0; i < files; i++) {
+            Path directory = classpath.resolve(FOLDER).resolve("dir" + (i / 100));
+            Files.createDirectories(directory);
+            Files.writeString(directory.resolve("file" + i + ".txt"), content, StandardCharsets.UTF_8);
+        }
+        return classpath;
+    }
+
+    private List<Double> measure(Path classpath, int files, int concurrency, int iterations) throws IOException {
+        List<Double> millis = new ArrayList<>();
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[] {classpath.toUri().toURL()}, null)) {
+            CopyFiles copyFiles = new CopyFiles(classLoader, new JarFileSystems(),
+                new CopyEngine(concurrency));
+            for (int i = 0; i < iterations; i++) {
+                Path destination = Files.createTempDirectory(tempDir, "destination");
+                long start = System.nanoTime();
+                copyFiles.copyClasspathFolder(FOLDER, destination);
+                millis.add((System.nanoTime() - start) / 1_000_000.0);
+            }
+            assertThat(copyFiles.report().written()).isEqualTo(files * iterations);
+        }
+        return millis;
+    }
+}
@@ -0,0 +1,108 @@
+package info.jab.cli.io;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CopyEngineTest {
+
+    @Test
+    void shouldCountWrittenDestinations() throws IOException {
+        // Given
+        CopyEngine engine = new CopyEngine(4);
+        List<CopyEngine.Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            boolean written = i % 2 == 0;
+            tasks.add(() -> written);
+        }
+
+        // When
+        int written = engine.run(tasks);
+
+        // Then
+        assertThat(written).isEqualTo(5);
+    }
+
+    @Test
+    void shouldNeverExceedTheConcurrencyCap() throws IOException {
+        // Given
+        CopyEngine engine = new CopyEngine(3);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<CopyEngine.Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            tasks.add(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(2);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    running.decrementAndGet();
+                }
+                return true;
+            });
+        }
+
+        // When
+        int written = engine.run(tasks);
+
+        // Then
+        assertThat(written).isEqualTo(50);
+        assertThat(maxRunning.get()).isBetween(1, 3);
+    }
+
+    @Test
+    void shouldAggregateEveryFailure() {
+        // Given
+        CopyEngine engine = new CopyEngine(8);
+        AtomicInteger completed = new AtomicInteger();
+        List<CopyEngine.Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            int file = i;
+            tasks.add(() -> {
+                if (file % 5 == 0) {
+                    throw new IOException("cannot write file" + file);
+                }
+                completed.incrementAndGet();
+                return true;
+            });
+        }
+
+        // When / Then
+        assertThatThrownBy(() -> engine.run(tasks))
+            .isInstanceOf(IOException.class)
+            .hasMessageStartingWith("4 of 20 files could not be copied")
+            .satisfies(error -> assertThat(error.getSuppressed()).hasSize(4));
+        assertThat(completed.get()).isEqualTo(16);
+    }
+
+    @Test
+    void shouldAggregateFailuresWhenSequential() {
+        // Given
+        CopyEngine engine = new CopyEngine(1);
+        List<CopyEngine.Task> tasks = List.of(
+            () -> { throw new IOException("first"); },
+            () -> true,
+            () -> { throw new IllegalStateException("second"); });
+
+        // When / Then
+        assertThatThrownBy(() -> engine.run(tasks))
+            .hasMessage("2 of 3 files could not be copied, first: first")
+            .satisfies(error -> assertThat(error.getSuppressed()).hasSize(2));
+    }
+
+    @Test
+    void shouldRejectConcurrencyBelowOne() {
+        // When / Then
+        assertThatThrownBy(() -> new CopyEngine(0))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("at least 1");
+    }
+}
@@ -1,13 +1,25 @@
 package info.jab.cli.io;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.CharBuffer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
@@ -302,4 +314,468 @@ class CopyFilesTest {
                 .isInstanceOf(RuntimeException.class)
                 .hasMessageContaining("Error copying content to file");
     }
+
+    @Test
+    void shouldReuseOneJarFileSystemAcrossCopiesUntilClosed() throws IOException {
+        // Given
+        Path jar = tempDir.resolve("templates.jar");
+        try (OutputStream out = Files.newOutputStream(jar);
+             ZipOutputStream zip = new ZipOutputStream(out)) {
+            zip.putNextEntry(new ZipEntry("templates/"));
+            zip.putNextEntry(new ZipEntry("templates/file1.txt"));
+            zip.write("jar content".getBytes(StandardCharsets.UTF_8));
+        }
+        JarFileSystems fileSystems = new JarFileSystems();
+
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[] {jar.toUri().toURL()}, null)) {
+            CopyFiles jarCopyFiles = new CopyFiles(classLoader, fileSystems);
+
+            // When
+            jarCopyFiles.copyClasspathFolder("templates", destinationDir);
+            jarCopyFiles.copyClasspathFileWithRename("templates/file1.txt", tempDir.resolve("renamed.txt"));
+            jarCopyFiles.copyClasspathFolderExcludingFiles("templates", tempDir.resolve("excluded"), List.of("file1.txt"));
+
+            // Then
+            assertThat(fileSystems.openFileSystems()).isEqualTo(1);
+            assertThat(destinationDir.resolve("file1.txt")).hasContent("jar content");
+            assertThat(tempDir.resolve("renamed.txt")).hasContent("jar content");
+            assertThat(tempDir.resolve("excluded").resolve("file1.txt")).doesNotExist();
+
+            jarCopyFiles.copyClasspathFolder("templates", destinationDir);
+            assertThat(jarCopyFiles.report().unchanged()).isEqualTo(1);
+
+            jarCopyFiles.close();
+            assertThat(fileSystems.openFileSystems()).isZero();
+        }
+    }
+
+    @Test
+    void shouldCopyIndexedTemplatesWithoutWalkingTheFolder() throws IOException {
+        // Given
+        Path classpath = tempDir.resolve("classpath");
+        Files.createDirectories(classpath.resolve("templates/feature/nested"));
+        Files.writeString(classpath.resolve("templates/feature/a.txt"), "indexed a", StandardCharsets.UTF_8);
+        Files.writeString(classpath.resolve("templates/feature/nested/b.txt"), "indexed b", StandardCharsets.UTF_8);
+        Files.createDirectories(classpath.resolve("META-INF"));
+        Files.writeString(classpath.resolve(TemplateIndex.RESOURCE),
+            TemplateIndex.build(classpath, "templates", OutputStream.nullOutputStream()), StandardCharsets.UTF_8);
+        // Not in the index, so it must not be copied
+        Files.writeString(classpath.resolve("templates/feature/unindexed.txt"), "walked", StandardCharsets.UTF_8);
+
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[] {classpath.toUri().toURL()}, null)) {
+            CopyFiles indexedCopyFiles = new CopyFiles(classLoader, new JarFileSystems());
+
+            // When
+            indexedCopyFiles.copyClasspathFolder("templates/feature/", destinationDir);
+            indexedCopyFiles.copyClasspathFolderExcludingFiles("templates/feature", tempDir.resolve("excluded"), List.of("a.txt"));
+            indexedCopyFiles.copyClasspathFileWithRename("templates/feature/a.txt", tempDir.resolve("renamed.txt"));
+
+            // Then
+            assertThat(destinationDir.resolve("a.txt")).hasContent("indexed a");
+            assertThat(destinationDir.resolve("nested/b.txt")).hasContent("indexed b");
+            assertThat(destinationDir.resolve("unindexed.txt")).doesNotExist();
+            assertThat(tempDir.resolve("excluded/a.txt")).doesNotExist();
+            assertThat(tempDir.resolve("excluded/nested/b.txt")).hasContent("indexed b");
+            assertThat(tempDir.resolve("renamed.txt")).hasContent("indexed a");
+        }
+    }
+
+    @Test
+    void shouldWriteTemplatesFromTheBundleOfAJar() throws IOException {
+        // Given: Only the index and the bundle are packaged, the loose templates are not
+        Path jar = packageBundle(List.of(), "");
+
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[] {jar.toUri().toURL()}, null)) {
+            CopyFiles bundledCopyFiles = new CopyFiles(classLoader, new JarFileSystems());
+
+            // When
+            bundledCopyFiles.copyClasspathFolder("templates/feature", destinationDir);
+            bundledCopyFiles.copyClasspathFileWithRename("templates/feature/b.txt", tempDir.resolve("renamed.txt"));
+
+            // Then
+            assertThat(destinationDir.resolve("a.txt")).hasContent("bundled a");
+            assertThat(destinationDir.resolve("b.txt")).hasContent("bundled b");
+            assertThat(tempDir.resolve("renamed.txt")).hasContent("bundled b");
+            bundledCopyFiles.copyClasspathFolder("templates/feature", destinationDir);
+            assertThat(bundledCopyFiles.report()).isEqualTo(new CopyFiles.Report(3, 2));
+        }
+    }
+
+    @Test
+    void shouldStreamTheTemplatesWhenTheBundleDoesNotMatchTheIndex() throws IOException {
+        // Given: A bundle longer than the index describes, the loose templates are packaged
+        Path jar = packageBundle(List.of("templates/feature/a.txt", "templates/feature/b.txt"), "trailing");
+
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[] {jar.toUri().toURL()}, null)) {
+            CopyFiles streamingCopyFiles = new CopyFiles(classLoader, new JarFileSystems());
+
+            // When
+            streamingCopyFiles.copyClasspathFolder("templates/feature", destinationDir);
+
+            // Then
+            assertThat(destinationDir.resolve("a.txt")).hasContent("bundled a");
+            assertThat(destinationDir.resolve("b.txt")).hasContent("bundled b");
+        }
+    }
+
+    // A jar with the index, the bundle followed by the given trailing bytes and the given loose templates
+    private Path packageBundle(List<String> templates, String trailing) throws IOException {
+        Path classpath = tempDir.resolve("classpath");
+        Files.createDirectories(classpath.resolve("templates/feature"));
+        Files.writeString(classpath.resolve("templates/feature/a.txt"), "bundled a", StandardCharsets.UTF_8);
+        Files.writeString(classpath.resolve("templates/feature/b.txt"), "bundled b", StandardCharsets.UTF_8);
+        TemplateIndex.main(new String[] {classpath.toString()});
+        Files.writeString(classpath.resolve(TemplateBundle.RESOURCE), trailing, StandardCharsets.UTF_8,
+            StandardOpenOption.APPEND);
+        Path jar = tempDir.resolve("templates.jar");
+        List<String> resources = new ArrayList<>(List.of(TemplateIndex.RESOURCE, TemplateBundle.RESOURCE));
+        resources.addAll(templates);
+        try (OutputStream out = Files.newOutputStream(jar);
+             ZipOutputStream zip = new ZipOutputStream(out)) {
+            for (String resource : resources) {
+                zip.putNextEntry(new ZipEntry(resource));
+                zip.write(Files.readAllBytes(classpath.resolve(resource)));
+            }
+        }
+        return jar;
+    }
+
+    @Test
+    void shouldSkipDestinationsThatAreAlreadyUpToDate() throws IOException {
+        // Given
+        copyFiles.copyClasspathFolder("test-folder", destinationDir);
+        Path copiedFile1 = destinationDir.resolve("file1.txt");
+        FileTime untouched = FileTime.fromMillis(0);
+        Files.setLastModifiedTime(copiedFile1, untouched);
+
+        // When
+        copyFiles.copyClasspathFolder("test-folder", destinationDir);
+
+        // Then
+        assertThat(copyFiles.report()).isEqualTo(new CopyFiles.Report(2, 2));
+        assertThat(Files.getLastModifiedTime(copiedFile1)).isEqualTo(untouched);
+    }
+
+    @Test
+    void shouldRewriteDestinationsWithDifferentContent() throws IOException {
+        // Given
+        copyFiles.copyClasspathFolder("test-folder", destinationDir);
+        Path copiedFile1 = destinationDir.resolve("file1.txt");
+        String original = Files.readString(copiedFile1);
+        // Same size, different content
+        Files.writeString(copiedFile1, "X".repeat(original.getBytes(StandardCharsets.UTF_8).length));
+
+        // When
+        copyFiles.copyClasspathFolder("test-folder", destinationDir);
+
+        // Then
+        assertThat(copiedFile1).hasContent(original);
+        assertThat(copyFiles.report()).isEqualTo(new CopyFiles.Report(3, 1));
+    }
+
+    @Test
+    void shouldSkipContentThatIsAlreadyWritten() throws IOException {
+        // Given
+        Path destinationFile = tempDir.resolve("content.txt");
+        copyFiles.copyContentToFile("same content", destinationFile);
+
+        // When
+        copyFiles.copyContentToFile("same content", destinationFile);
+        copyFiles.copyContentToFile("new content", destinationFile);
+
+        // Then
+        assertThat(destinationFile).hasContent("new content");
+        assertThat(copyFiles.report()).isEqualTo(new CopyFiles.Report(2, 1));
+    }
+
+    @Test
+    void shouldPruneExcludedSubtreesWhenCopyingWithAFilter() throws IOException {
+        // Given
+        Path classpath = tempDir.resolve("classpath");
+        Files.createDirectories(classpath.resolve("project/docs/guide"));
+        Files.createDirectories(classpath.resolve("project/src"));
+        Files.writeString(classpath.resolve("project/docs/guide/index.md"), "docs", StandardCharsets.UTF_8);
+        Files.writeString(classpath.resolve("project/src/Main.java"), "class Main {}", StandardCharsets.UTF_8);
+        Files.writeString(classpath.resolve("project/src/Main.java.bak"), "backup", StandardCharsets.UTF_8);
+        Files.writeString(classpath.resolve("project/pom.xml"), "<project/>", StandardCharsets.UTF_8);
+
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[] {classpath.toUri().toURL()}, null)) {
+            CopyFiles filteredCopyFiles = new CopyFiles(classLoader, new JarFileSystems());
+
+            // When
+            filteredCopyFiles.copyClasspathFolder("project", destinationDir,
+                CopyFilter.of(List.of(), List.of("docs/**", "*.bak")));
+
+            // Then
+            assertThat(destinationDir.resolve("src/Main.java")).hasContent("class Main {}");
+            assertThat(destinationDir.resolve("pom.xml")).exists();
+            assertThat(destinationDir.resolve("src/Main.java.bak")).doesNotExist();
+            assertThat(destinationDir.resolve("docs")).doesNotExist();
+        }
+    }
+
+    @Test
+    void shouldPublishAStagedCopyIntoANewDestination() throws IOException {
+        // Given
+        CopyFiles stagedCopyFiles = new CopyFiles(CopyFiles.WriteMode.STAGED);
+
+        // When
+        stagedCopyFiles.copyClasspathFolder("test-folder", destinationDir);
+
+        // Then
+        assertThat(destinationDir.resolve("file1.txt")).exists();
+        assertThat(destinationDir.resolve("file2.txt")).exists();
+        if (Files.getFileStore(tempDir).supportsFileAttributeView("posix")) {
+            // Published with the default permissions, not the owner-only ones of temporary files
+            assertThat(Files.getPosixFilePermissions(destinationDir)).contains(PosixFilePermission.OTHERS_READ);
+            assertThat(Files.getPosixFilePermissions(destinationDir.resolve("file1.txt")))
+                .contains(PosixFilePermission.OTHERS_READ);
+        }
+        try (var siblings = Files.list(tempDir)) {
+            assertThat(siblings).noneMatch(path -> path.getFileName().toString().startsWith(CopyOutput.STAGING_PREFIX));
+        }
+    }
+
+    @Test
+    void shouldKeepOtherFilesWhenStagingIntoAnExistingDestination() throws IOException {
+        // Given
+        Files.createDirectories(destinationDir);
+        Files.writeString(destinationDir.resolve("other.yml"), "kept", StandardCharsets.UTF_8);
+        CopyFiles stagedCopyFiles = new CopyFiles(CopyFiles.WriteMode.STAGED);
+
+        // When
+        stagedCopyFiles.copyClasspathFolder("test-folder", destinationDir);
+        stagedCopyFiles.copyContentToFile("content", destinationDir.resolve("content.txt"));
+
+        // Then
+        assertThat(destinationDir.resolve("other.yml")).hasContent("kept");
+        assertThat(destinationDir.resolve("content.txt")).hasContent("content");
+        try (var files = Files.list(destinationDir)) {
+            assertThat(files).extracting(path -> path.getFileName().toString())
+                .containsExactlyInAnyOrder("file1.txt", "file2.txt", "other.yml", "content.txt");
+        }
+        try (var siblings = Files.list(tempDir)) {
+            assertThat(siblings).noneMatch(path -> path.getFileName().toString().startsWith(CopyOutput.STAGING_PREFIX));
+        }
+    }
+
+    @Test
+    void shouldKeepThePermissionsOfTheFilesAStagedCopyReplaces() throws IOException {
+        // Given
+        if (!Files.getFileStore(tempDir).supportsFileAttributeView("posix")) {
+            return;
+        }
+        Files.createDirectories(destinationDir);
+        Path replaced = destinationDir.resolve("file1.txt");
+        Files.writeString(replaced, "old", StandardCharsets.UTF_8);
+        Files.setPosixFilePermissions(replaced, PosixFilePermissions.fromString("rwxr-xr-x"));
+        CopyFiles stagedCopyFiles = new CopyFiles(CopyFiles.WriteMode.STAGED);
+
+        // When
+        stagedCopyFiles.copyClasspathFolder("test-folder", destinationDir);
+
+        // Then
+        assertThat(replaced).content(StandardCharsets.UTF_8).isNotEqualTo("old");
+        assertThat(Files.getPosixFilePermissions(replaced)).isEqualTo(PosixFilePermissions.fromString("rwxr-xr-x"));
+    }
+
+    @Test
+    void shouldRestoreAnExistingDestinationWhenAStagedCopyCannotBePublished() throws IOException {
+        // Given
+        Path classpath = tempDir.resolve("classpath");
+        Files.createDirectories(classpath.resolve("templates/feature"));
+        Files.writeString(classpath.resolve("templates/feature/a.txt"), "new a", StandardCharsets.UTF_8);
+        Files.writeString(classpath.resolve("templates/feature/b.txt"), "new b", StandardCharsets.UTF_8);
+        Files.createDirectories(classpath.resolve("META-INF"));
+        Files.writeString(classpath.resolve(TemplateIndex.RESOURCE),
+            TemplateIndex.build(classpath, "templates", OutputStream.nullOutputStream()), StandardCharsets.UTF_8);
+        Files.createDirectories(destinationDir);
+        Files.writeString(destinationDir.resolve("a.txt"), "old a", StandardCharsets.UTF_8);
+        // a.txt is published first, then b.txt cannot replace a directory
+        Files.createDirectories(destinationDir.resolve("b.txt"));
+        Files.writeString(destinationDir.resolve("b.txt/kept.txt"), "kept", StandardCharsets.UTF_8);
+
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[] {classpath.toUri().toURL()}, null)) {
+            CopyFiles stagedCopyFiles = new CopyFiles(classLoader, new JarFileSystems(),
+                new CopyEngine(1), CopyFiles.WriteMode.STAGED);
+
+            // When / Then
+            assertThatThrownBy(() -> stagedCopyFiles.copyClasspathFolder("templates/feature", destinationDir))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("Error copying folder from templates/feature");
+            assertThat(destinationDir.resolve("a.txt")).hasContent("old a");
+            assertThat(destinationDir.resolve("b.txt/kept.txt")).hasContent("kept");
+            try (var files = Files.list(destinationDir)) {
+                assertThat(files).extracting(path -> path.getFileName().toString())
+                    .containsExactlyInAnyOrder("a.txt", "b.txt");
+            }
+            try (var siblings = Files.list(tempDir)) {
+                assertThat(siblings).noneMatch(path -> path.getFileName().toString().startsWith(CopyOutput.STAGING_PREFIX));
+            }
+        }
+    }
+
+    @Test
+    void shouldRejectAnUnknownCopyMode() {
+        // Given
+        System.setProperty(CopyFiles.MODE_PROPERTY, "fast");
+        try {
+            // When / Then
+            assertThatThrownBy(CopyFiles::new)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Unknown copy mode setup.copy.mode=fast, expected direct or staged");
+        } finally {
+            System.clearProperty(CopyFiles.MODE_PROPERTY);
+        }
+    }
+
+    @Test
+    void shouldDiscardAStagedCopyThatFails() throws IOException {
+        // Given
+        Path classpath = tempDir.resolve("classpath");
+        Files.createDirectories(classpath.resolve("templates/feature"));
+        Files.writeString(classpath.resolve("templates/feature/a.txt"), "a", StandardCharsets.UTF_8);
+        Files.writeString(classpath.resolve("templates/feature/b.txt"), "b", StandardCharsets.UTF_8);
+        Files.createDirectories(classpath.resolve("META-INF"));
+        Files.writeString(classpath.resolve(TemplateIndex.RESOURCE),
+            TemplateIndex.build(classpath, "templates", OutputStream.nullOutputStream()), StandardCharsets.UTF_8);
+        // Indexed but missing, so its copy fails after a.txt is staged
+        Files.delete(classpath.resolve("templates/feature/b.txt"));
+
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[] {classpath.toUri().toURL()}, null)) {
+            CopyFiles stagedCopyFiles = new CopyFiles(classLoader, new JarFileSystems(),
+                new CopyEngine(1), CopyFiles.WriteMode.STAGED);
+
+            // When / Then
+            assertThatThrownBy(() -> stagedCopyFiles.copyClasspathFolder("templates/feature", destinationDir))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("Error copying folder from templates/feature");
+            assertThat(destinationDir).doesNotExist();
+            try (var siblings = Files.list(tempDir)) {
+                assertThat(siblings).noneMatch(path -> path.getFileName().toString().startsWith(CopyOutput.STAGING_PREFIX));
+            }
+        }
+    }
+
+    @Test
+    void shouldStreamGeneratedContentToFile() throws IOException {
+        // Given
+        Path destinationFile = tempDir.resolve("workflow.yml");
+
+        // When
+        copyFiles.writeContentToFile(destinationFile, writer -> {
+            writer.write("jobs:\n");
+            for (int i = 0; i < 10_000; i++) {
+                writer.append("  job").append(String.valueOf(i)).append(": ✓\n");
+            }
+        });
+
+        // Then
+        List<String> lines = Files.readAllLines(destinationFile, StandardCharsets.UTF_8);
+        assertThat(lines).hasSize(10_001).startsWith("jobs:", "  job0: ✓").endsWith("  job9999: ✓");
+        try (var siblings = Files.list(tempDir)) {
+            assertThat(siblings).noneMatch(path -> path.getFileName().toString().startsWith(CopyOutput.STAGING_PREFIX));
+        }
+    }
+
+    @Test
+    void shouldSkipStreamedContentThatIsAlreadyWritten() throws IOException {
+        // Given
+        Path destinationFile = tempDir.resolve("devcontainer.json");
+        CharSequence content = CharBuffer.wrap("{ \"name\": \"java\" }");
+        copyFiles.copyContentToFile(content, destinationFile);
+        FileTime untouched = FileTime.fromMillis(0);
+        Files.setLastModifiedTime(destinationFile, untouched);
+
+        // When
+        copyFiles.copyContentToFile(content, destinationFile);
+
+        // Then
+        assertThat(Files.getLastModifiedTime(destinationFile)).isEqualTo(untouched);
+        assertThat(copyFiles.report()).isEqualTo(new CopyFiles.Report(1, 1));
+    }
+
+    @Test
+    void shouldWriteStreamedContentInPlaceThroughLinks() throws IOException {
+        // Given
+        Path shared = tempDir.resolve("shared.editorconfig");
+        Files.writeString(shared, "previous", StandardCharsets.UTF_8);
+        Path hardLink = Files.createLink(tempDir.resolve("hard.editorconfig"), shared);
+        Path symbolicLink = Files.createSymbolicLink(tempDir.resolve(".editorconfig"), shared);
+
+        // When
+        copyFiles.copyContentToFile("root = true", symbolicLink);
+
+        // Then
+        assertThat(Files.isSymbolicLink(symbolicLink)).isTrue();
+        assertThat(shared).hasContent("root = true");
+        assertThat(hardLink).hasContent("root = true");
+    }
+
+    @Test
+    void shouldGenerateTheContentOnceInEveryMode() throws IOException {
+        for (CopyFiles.WriteMode mode : CopyFiles.WriteMode.values()) {
+            // Given
+            CopyFiles modeCopyFiles = new CopyFiles(mode);
+            Path destinationFile = tempDir.resolve(mode + ".txt");
+            Files.writeString(destinationFile, "previous", StandardCharsets.UTF_8);
+            List<String> calls = new ArrayList<>();
+            CopyFiles.ContentWriter content = writer -> {
+                calls.add("generated");
+                writer.write("generated");
+            };
+
+            // When
+            modeCopyFiles.writeContentToFile(destinationFile, content);
+            modeCopyFiles.writeContentToFile(destinationFile, content);
+
+            // Then
+            assertThat(destinationFile).hasContent("generated");
+            assertThat(calls).as(mode.name()).hasSize(2);
+            try (var siblings = Files.list(tempDir)) {
+                assertThat(siblings).noneMatch(path -> path.getFileName().toString().startsWith(CopyOutput.STAGING_PREFIX));
+            }
+        }
+    }
+
+    @Test
+    void shouldKeepTheDestinationWhenTheContentWriterFails() throws IOException {
+        // Given
+        Path destinationFile = tempDir.resolve("build.gradle");
+        Files.writeString(destinationFile, "previous", StandardCharsets.UTF_8);
+
+        // When / Then
+        assertThatThrownBy(() -> copyFiles.writeContentToFile(destinationFile, writer -> {
+            writer.write("partial");
+            throw new IOException("generator failed");
+        }))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("Error copying content to file");
+        assertThat(destinationFile).hasContent("previous");
+    }
+
+    @Test
+    void shouldPlanAFolderCopyWithoutWritingAnything() throws IOException {
+        // Given
+        Files.createDirectories(destinationDir);
+        copyFiles.copyClasspathFileWithRename("test-folder/file1.txt", destinationDir.resolve("file1.txt"));
+        Files.writeString(destinationDir.resolve("file2.txt"), "stale", StandardCharsets.UTF_8);
+        Path newDestination = tempDir.resolve("new");
+
+        // When
+        Plan existing = copyFiles.planClasspathFolder("test-folder", destinationDir);
+        Plan created = copyFiles.planClasspathFolder("test-folder", newDestination);
+
+        // Then
+        assertThat(existing.files())
+            .extracting(Plan.FileChange::path, Plan.FileChange::action)
+            .containsExactlyInAnyOrder(
+                tuple(destinationDir.resolve("file1.txt"), Plan.Action.UNCHANGED),
+                tuple(destinationDir.resolve("file2.txt"), Plan.Action.OVERWRITE));
+        assertThat(existing.bytesToWrite()).isEqualTo(Files.size(Path.of("src/test/resources/test-folder/file2.txt")));
+        assertThat(created.count(Plan.Action.CREATE)).isEqualTo(2);
+        assertThat(destinationDir.resolve("file2.txt")).hasContent("stale");
+        assertThat(newDestination).doesNotExist();
+        assertThat(copyFiles.report()).isEqualTo(new CopyFiles.Report(1, 0));
+    }
 }
@@ -0,0 +1,68 @@
+package info.jab.cli.io;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CopyFilterTest {
+
+    @Test
+    void shouldIncludeEverythingByDefault() {
+        // When / Then
+        assertThat(CopyFilter.ALL.accepts("a/b/c.txt")).isTrue();
+        assertThat(CopyFilter.ALL.prunes("a")).isFalse();
+    }
+
+    @Test
+    void shouldMatchLiteralNamesAtAnyDepth() {
+        // Given
+        CopyFilter filter = CopyFilter.excluding(List.of("README.md", "node_modules"));
+
+        // When / Then
+        assertThat(filter.includes("README.md")).isFalse();
+        assertThat(filter.includes("docs/README.md")).isFalse();
+        assertThat(filter.includes("docs/README.txt")).isTrue();
+        assertThat(filter.prunes("web/node_modules")).isTrue();
+        assertThat(filter.accepts("web/node_modules/lib/index.js")).isFalse();
+    }
+
+    @Test
+    void shouldMatchNameGlobsAgainstTheFileName() {
+        // Given
+        CopyFilter filter = CopyFilter.excluding(List.of("*.bak"));
+
+        // When / Then
+        assertThat(filter.includes("notes.bak")).isFalse();
+        assertThat(filter.includes("deep/nested/notes.bak")).isFalse();
+        assertThat(filter.includes("notes.txt")).isTrue();
+    }
+
+    @Test
+    void shouldPruneSubtreesOfPathGlobs() {
+        // Given
+        CopyFilter filter = CopyFilter.excluding(List.of("docs/**", "build/"));
+
+        // When / Then
+        assertThat(filter.prunes("docs")).isTrue();
+        assertThat(filter.prunes("build")).isTrue();
+        assertThat(filter.prunes("src")).isFalse();
+        assertThat(filter.accepts("docs/guide/index.md")).isFalse();
+        assertThat(filter.accepts("src/docs/index.md")).isTrue();
+    }
+
+    @Test
+    void shouldOnlyCopyIncludedFilesThatAreNotExcluded() {
+        // Given
+        CopyFilter filter = CopyFilter.of(List.of("*.yml", ".github/**"), List.of("secret.yml"));
+
+        // When / Then
+        assertThat(filter.accepts("ci.yml")).isTrue();
+        assertThat(filter.accepts(".github/workflows/build.yaml")).isTrue();
+        assertThat(filter.accepts("secret.yml")).isFalse();
+        assertThat(filter.accepts("README.md")).isFalse();
+        // Includes never prune, a directory may hold included files
+        assertThat(filter.prunes("docs")).isFalse();
+    }
+}
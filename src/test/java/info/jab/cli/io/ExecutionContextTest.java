@@ -0,0 +1,82 @@
+package info.jab.cli.io;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExecutionContextTest {
+
+    @Test
+    void shouldDefaultToTheProcessContext() {
+        // When
+        ExecutionContext context = ExecutionContext.current();
+
+        // Then
+        assertThat(context.workingDirectory()).isEqualTo(Paths.get(System.getProperty("user.dir")).toAbsolutePath());
+        assertThat(context.environment()).isEqualTo(System.getenv());
+    }
+
+    @Test
+    void shouldBindAndRestoreTheContext(@TempDir Path tempDir) {
+        // Given
+        ExecutionContext context = new ExecutionContext(tempDir, Map.of("SETUP_TEST", "bound"));
+
+        // When
+        ExecutionContext bound = ExecutionContext.callWith(context, ExecutionContext::current);
+
+        // Then
+        assertThat(bound).isEqualTo(context);
+        assertThat(bound.resolve("pom.xml")).isEqualTo(tempDir.resolve("pom.xml"));
+        assertThat(ExecutionContext.current().workingDirectory()).isNotEqualTo(tempDir);
+    }
+
+    @Test
+    void shouldNotBeInheritedByThreadsStartedInTheContext(@TempDir Path tempDir) throws Exception {
+        // Given: background work a request starts, such as a GitCache eviction
+        ExecutionContext context = new ExecutionContext(tempDir, Map.of());
+        AtomicReference<Path> seen = new AtomicReference<>();
+
+        // When
+        Thread thread = ExecutionContext.callWith(context, () ->
+            Thread.ofVirtual().start(() -> seen.set(ExecutionContext.current().workingDirectory())));
+        thread.join();
+
+        // Then
+        assertThat(seen.get()).isNotEqualTo(tempDir);
+    }
+
+    @Test
+    void shouldRunWrappedTasksWithTheContextAndTheCarriedState(@TempDir Path tempDir) throws Exception {
+        // Given
+        ThreadLocal<String> request = new ThreadLocal<>();
+        ExecutionContext.carry(request);
+        ExecutionContext context = new ExecutionContext(tempDir, Map.of());
+        request.set("request");
+        Callable<String> task;
+        try {
+            task = ExecutionContext.callWith(context, () ->
+                ExecutionContext.wrap(() -> ExecutionContext.current().workingDirectory() + " " + request.get()));
+        } finally {
+            request.remove();
+        }
+
+        // When
+        String seen;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            seen = executor.submit(task).get();
+        }
+
+        // Then
+        assertThat(seen).isEqualTo(tempDir + " request");
+        assertThat(request.get()).isNull();
+    }
+}
@@ -8,6 +8,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Map;
 
 class FileSystemCheckerTest {
 
@@ -76,4 +77,19 @@ class FileSystemCheckerTest {
         // Then: Should return true
         assertThat(result).as("Expected fileExists to return true for file with special characters").isTrue();
     }
+
+    @Test
+    void testFileExists_WithANameRelativeToTheRequestWorkingDirectory(@TempDir Path tempDir) throws IOException {
+        // Given: a daemon request served in another directory than the daemon's
+        Files.createFile(tempDir.resolve("pom.xml"));
+        ExecutionContext context = new ExecutionContext(tempDir, Map.of());
+
+        // When
+        boolean inRequestDirectory = ExecutionContext.callWith(context, () -> fileSystemChecker.fileExists("pom.xml"));
+        boolean inProcessDirectory = fileSystemChecker.fileExists("relative-test-missing.txt");
+
+        // Then
+        assertThat(inRequestDirectory).isTrue();
+        assertThat(inProcessDirectory).isFalse();
+    }
 }
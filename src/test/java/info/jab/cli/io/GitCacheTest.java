@@ -0,0 +1,267 @@
+package info.jab.cli.io;
+
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jgit.api.Git;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import info.jab.cli.Setup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SuppressWarnings("NullAway.Init")
+class GitCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    void awaitBackgroundWork() {
+        assertThat(GitCache.awaitBackgroundWork(Duration.ofMinutes(1))).isTrue();
+    }
+
+    @Test
+    void shouldShareTheMirrorOfEquivalentUrls() {
+        // When
+        String key = GitCache.key("https://github.com/jabrena/cursor-rules-java");
+
+        // Then
+        assertThat(key).startsWith("https_github.com_jabrena_cursor-rules-java-");
+        assertThat(GitCache.key("HTTPS://GitHub.com/jabrena/cursor-rules-java.git")).isEqualTo(key);
+        assertThat(GitCache.key("https://github.com/jabrena/cursor-rules-java/")).isEqualTo(key);
+        assertThat(GitCache.key("https://github.com/jabrena/cursor-rules-agile")).isNotEqualTo(key);
+        assertThat(GitCache.key("https://gitlab.com/jabrena/cursor-rules-java")).isNotEqualTo(key);
+    }
+
+    @Test
+    void shouldNotShareTheMirrorOfAnotherSchemeOrUser() {
+        // When
+        String key = GitCache.key("https://github.com/jabrena/cursor-rules-java");
+
+        // Then
+        assertThat(GitCache.key("http://github.com/jabrena/cursor-rules-java")).isNotEqualTo(key);
+        assertThat(GitCache.key("ssh://git@github.com/jabrena/cursor-rules-java.git")).isNotEqualTo(key);
+        assertThat(GitCache.key("git://github.com/jabrena/cursor-rules-java.git")).isNotEqualTo(key);
+        assertThat(GitCache.key("git@github.com:jabrena/cursor-rules-java.git")).isNotEqualTo(key);
+        assertThat(GitCache.key("https://token@github.com/jabrena/cursor-rules-java"))
+            .isNotEqualTo(key)
+            .startsWith("https_github.com_jabrena_cursor-rules-java-")
+            .doesNotContain("token");
+    }
+
+    @Test
+    void shouldKeepAMirrorOnlyOnceSomethingWasFetched() throws Exception {
+        // Given
+        GitCache cache = GitCache.at(tempDir);
+        String url = "https://github.com/jabrena/cursor-rules-java";
+
+        // When
+        Path abandoned;
+        try (GitCache.Mirror mirror = cache.open(url)) {
+            abandoned = mirror.directory();
+        }
+        Path kept;
+        try (GitCache.Mirror mirror = cache.open(url)) {
+            kept = mirror.directory();
+            mirror.fetched();
+        }
+
+        // Then
+        assertThat(abandoned).isEqualTo(tempDir.resolve(GitCache.key(url)));
+        assertThat(kept).isEqualTo(abandoned);
+        assertThat(kept.resolve("HEAD")).isRegularFile();
+        try (GitCache.Mirror mirror = cache.open(url)) {
+            assertThat(mirror.repository().isBare()).isTrue();
+        }
+        assertThat(kept).isDirectory();
+    }
+
+    @Test
+    void shouldDeleteTheTemporaryRepositoryWhenDisabled() throws Exception {
+        // When
+        Path temporary;
+        try (GitCache.Mirror mirror = GitCache.disabled().open("https://github.com/jabrena/cursor-rules-java")) {
+            temporary = mirror.directory();
+            mirror.fetched();
+            assertThat(Files.isDirectory(temporary)).isTrue();
+        }
+
+        // Then
+        assertThat(temporary).doesNotExist();
+    }
+
+    @Test
+    void shouldCloneIntoTheScratchDirectoryAndDeleteInTheBackground() throws Exception {
+        // Given: A temporary repository left behind by a process stopped before deleting it
+        Path scratch = tempDir.resolve("scratch");
+        Path leftover = scratch.resolve("git-clone1.evicted-1");
+        Files.createDirectories(leftover.resolve("objects"));
+
+        // When
+        Path temporary;
+        try (GitCache.Mirror mirror = GitCache.disabled(scratch).open("https://github.com/jabrena/cursor-rules-java")) {
+            temporary = mirror.directory();
+            mirror.fetched();
+        }
+
+        // Then: The repository is out of the way on close and deleted with the leftover later
+        assertThat(temporary.getParent()).isEqualTo(scratch);
+        assertThat(temporary).doesNotExist();
+        assertThat(GitCache.awaitBackgroundWork(Duration.ofMinutes(1))).isTrue();
+        assertThat(scratch).isEmptyDirectory();
+    }
+
+    @Test
+    void shouldEvictTheLeastRecentlyUsedMirrorsOverTheBudget() throws Exception {
+        // Given: Three mirrors used one after the other, a budget for the two last ones
+        Instant now = Instant.parse("2025-10-01T10:00:00Z");
+        Path first = use("https://github.com/org/first", now.minusSeconds(30));
+        Path second = use("https://github.com/org/second", now.minusSeconds(20));
+        Path third = use("https://github.com/org/third", now.minusSeconds(10));
+        long budget = GitCache.size(second) + GitCache.size(third);
+
+        // When
+        List<String> evicted = GitCache.at(tempDir, budget, Duration.ofDays(30), Clock.fixed(now, ZoneOffset.UTC)).evict();
+
+        // Then
+        assertThat(evicted).containsExactly(first.getFileName().toString());
+        assertThat(first).doesNotExist();
+        assertThat(second).isDirectory();
+        assertThat(third).isDirectory();
+        assertThat(tempDir.resolve("index.properties")).content()
+            .doesNotContain(first.getFileName().toString())
+            .contains(second.getFileName().toString(), third.getFileName().toString());
+    }
+
+    @Test
+    void shouldEvictMirrorsNotUsedWithinTheTtl() throws Exception {
+        // Given
+        Instant now = Instant.parse("2025-10-01T10:00:00Z");
+        Path stale = use("https://github.com/org/stale", now.minus(Duration.ofDays(31)));
+        Path recent = use("https://github.com/org/recent", now.minus(Duration.ofDays(1)));
+
+        // When
+        List<String> evicted = GitCache.at(tempDir, Long.MAX_VALUE, Duration.ofDays(30), Clock.fixed(now, ZoneOffset.UTC))
+            .evict();
+
+        // Then
+        assertThat(evicted).containsExactly(stale.getFileName().toString());
+        assertThat(recent).isDirectory();
+    }
+
+    @Test
+    void shouldNotEvictAMirrorInUse() throws Exception {
+        // Given
+        use("https://github.com/org/idle", Instant.now());
+        GitCache unbounded = GitCache.at(tempDir, Long.MAX_VALUE, Duration.ofDays(30), Clock.systemUTC());
+
+        try (GitCache.Mirror mirror = unbounded.open("https://github.com/org/busy")) {
+            mirror.fetched();
+
+            // When
+            List<String> evicted = GitCache.at(tempDir, 0, Duration.ofDays(30), Clock.systemUTC()).evict();
+
+            // Then
+            assertThat(evicted).containsExactly(GitCache.key("https://github.com/org/idle"));
+            assertThat(mirror.directory()).isDirectory();
+        }
+    }
+
+    @Test
+    void shouldFinishAnInterruptedEviction() throws Exception {
+        // Given: A mirror renamed for eviction by a process stopped before deleting it
+        Path leftover = tempDir.resolve(GitCache.key("https://github.com/org/rules") + ".evicted-1");
+        Files.createDirectories(leftover.resolve("objects"));
+        Files.writeString(leftover.resolve("HEAD"), "ref: refs/heads/main");
+
+        // When
+        GitCache.at(tempDir).evict();
+        assertThat(GitCache.awaitBackgroundWork(Duration.ofMinutes(1))).isTrue();
+
+        // Then
+        assertThat(leftover).doesNotExist();
+    }
+
+    @Test
+    void shouldFinishTheEvictionBeforeTheCliExits() throws Exception {
+        // Given: The mirror of an unreachable repository and a stale mirror, over a budget of 0 bytes
+        String url = "https://127.0.0.1:9/rules.git";
+        Path cache = tempDir.resolve("cache");
+        Git.init().setBare(true).setDirectory(cache.resolve(GitCache.key(url)).toFile()).call().close();
+        Path stale = cache.resolve("stale-mirror");
+        Files.createDirectories(stale.resolve("objects"));
+        // Enough files for the eviction to outlive an exit that does not wait for it
+        for (int i = 0; i < 5_000; i++) {
+            Files.writeString(stale.resolve("objects").resolve("object-" + i), "x");
+        }
+
+        // When: The fetch fails, the mirror is touched and the eviction starts just before the exit
+        runCli(List.of("-D" + GitCache.PROPERTY + "=" + cache, "-D" + GitCache.MAX_BYTES_PROPERTY + "=0"),
+            "init", "--cursor", url);
+
+        // Then
+        assertThat(stale).doesNotExist();
+        assertThat(cache.resolve(GitCache.key(url))).doesNotExist();
+        try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(cache, "*.evicted-*")) {
+            assertThat(leftovers).isEmpty();
+        }
+    }
+
+    @Test
+    void shouldDeleteTheTemporaryClonesBeforeTheCliExits() throws Exception {
+        // Given: A temporary clone a killed process left in the scratch directory
+        Path scratch = tempDir.resolve("scratch");
+        Path leftover = scratch.resolve("git-clone1.evicted-1");
+        Files.createDirectories(leftover.resolve("objects"));
+        // Enough files for the sweep to outlive an exit that does not wait for it
+        for (int i = 0; i < 30_000; i++) {
+            Files.writeString(leftover.resolve("objects").resolve("object-" + i), "x");
+        }
+
+        // When: The fetch into a new temporary clone fails and the process exits
+        runCli(List.of("-D" + GitCache.PROPERTY + "=", "-D" + GitCache.SCRATCH_PROPERTY + "=" + scratch),
+            "init", "--cursor", "https://127.0.0.1:9/rules.git");
+
+        // Then: The leftover and the temporary clone are deleted
+        assertThat(scratch).isEmptyDirectory();
+    }
+
+    // Runs the CLI in a new JVM, which exits through Setup.main
+    private void runCli(List<String> properties, String... args) throws Exception {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(Objects.requireNonNull(System.getProperty("java.home")), "bin", "java").toString());
+        command.add("-D" + RunHistory.PROPERTY + "=");
+        command.addAll(properties);
+        command.add("-cp");
+        command.add(Objects.requireNonNull(System.getProperty("java.class.path")));
+        command.add(Setup.class.getName());
+        command.addAll(List.of(args));
+        Process process = new ProcessBuilder(command)
+            .directory(Files.createDirectories(tempDir.resolve("project")).toFile())
+            .redirectErrorStream(true)
+            .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+            .start();
+        assertThat(process.waitFor(60, TimeUnit.SECONDS)).isTrue();
+    }
+
+    // Opens, fetches nothing into and closes the mirror of a URL at a given time
+    private Path use(String url, Instant at) throws Exception {
+        GitCache cache = GitCache.at(tempDir, Long.MAX_VALUE, Duration.ofDays(365), Clock.fixed(at, ZoneOffset.UTC));
+        try (GitCache.Mirror mirror = cache.open(url)) {
+            mirror.fetched();
+            return mirror.directory();
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package info.jab.cli.io;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.eclipse.jgit.api.Git;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import info.jab.cli.benchmarks.BenchmarkHarness;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Full clone (all history and branches, the former GitFolderCopy behaviour) against the
+ * depth 1, single-branch fetch of GitFolderCopy, without and with a mirror of the repository
+ * already in the cache, on a local repository with a deep history. Copies of the repository
+ * measure the merge of several sources, fetched one after the other and concurrently.
+ *
+ * The fixture has 2,000 commits on the default branch and 20 branches of 50 commits, each
+ * commit rewriting sources next to a small .cursor/rules folder, so most of the repository
+ * is history the copy does not need. The report target/benchmarks/git-folder-copy.json
+ * holds the durations and the size of the fetched .git directory of both modes.
+ *
+ * ./mvnw clean verify -Pbenchmarks
+ */
+@SuppressWarnings("NullAway.Init")
+class GitFolderCopyBenchmark {
+
+    private static final int COMMITS = 2_000;
+    private static final int BRANCHES = 20;
+    private static final int BRANCH_COMMITS = 50;
+    private static final int ITERATIONS = 5;
+    private static final int SOURCES = 4;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void compareFullAndShallowClones() throws Exception {
+        Path repository = createRepository();
+        String url = repository.toUri().toString();
+
+        List<Double> fullMillis = new ArrayList<>();
+        long fullBytes = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            Path clone = Files.createTempDirectory(tempDir, "full");
+            long start = System.nanoTime();
+            Git.cloneRepository().setURI(url).setDirectory(clone.toFile()).call().close();
+            fullMillis.add((System.nanoTime() - start) / 1_000_000.0);
+            fullBytes = size(clone.resolve(".git"));
+        }
+
+        List<Double> shallowMillis = copy(new GitFolderCopy(GitCache.disabled()), url);
+        // Once the mirror exists, a copy only lists the refs of the remote
+        GitFolderCopy cached = new GitFolderCopy(GitCache.at(tempDir.resolve("cache")));
+        cached.copyFolderFromRepo(url, ".cursor/rules", Files.createTempDirectory(tempDir, "warmup").toString());
+        List<Double> cachedMillis = copy(cached, url);
+
+        // Several sources are fetched concurrently, a merged copy costs about the slowest fetch
+        List<String> urls = new ArrayList<>(List.of(url));
+        for (int i = 1; i < SOURCES; i++) {
+            urls.add(copyDirectory(repository, tempDir.resolve("repository-" + i)).toUri().toString());
+        }
+        GitFolderCopy uncached = new GitFolderCopy(GitCache.disabled());
+        List<Double> sequentialMillis = new ArrayList<>();
+        List<Double> concurrentMillis = new ArrayList<>();
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            for (String source : urls) {
+                uncached.copyFolderFromRepo(source, ".cursor/rules", Files.createTempDirectory(tempDir, "sequential").toString());
+            }
+            sequentialMillis.add((System.nanoTime() - start) / 1_000_000.0);
+            Path destination = Files.createTempDirectory(tempDir, "concurrent");
+            start = System.nanoTime();
+            uncached.copyFolderFromRepos(urls, ".cursor/rules", destination.toString());
+            concurrentMillis.add((System.nanoTime() - start) / 1_000_000.0);
+            assertThat(destination.resolve("100-java.mdc")).exists();
+        }
+
+        // A copy without cache deletes its repository, the size is measured on a separate fetch
+        Path shallow = Files.createTempDirectory(tempDir, "shallow");
+        try (Git git = Git.init().setDirectory(shallow.toFile()).call()) {
+            GitFolderCopy.fetch(git.getRepository(), GitFolderCopy.Remote.parse(url));
+        }
+        long shallowBytes = size(shallow.resolve(".git"));
+
+        Map<String, Object> report = new HashMap<>();
+        report.put("java", Objects.requireNonNull(System.getProperty("java.version")));
+        report.put("commits", COMMITS + BRANCHES * BRANCH_COMMITS);
+        report.put("branches", BRANCHES + 1);
+        report.put("full", Map.of("cloneMs", BenchmarkHarness.distribution(fullMillis), "gitBytes", fullBytes));
+        report.put("shallow", Map.of("copyMs", BenchmarkHarness.distribution(shallowMillis), "gitBytes", shallowBytes));
+        report.put("cached", Map.of("copyMs", BenchmarkHarness.distribution(cachedMillis)));
+        report.put("sources", Map.of("count", SOURCES,
+            "sequentialMs", BenchmarkHarness.distribution(sequentialMillis),
+            "concurrentMs", BenchmarkHarness.distribution(concurrentMillis)));
+        String json = BenchmarkHarness.toJson(report);
+        System.out.print(json);
+        Files.writeString(BenchmarkHarness.outputDirectory().resolve("git-folder-copy.json"), json, StandardCharsets.UTF_8);
+        assertThat(shallowBytes).isLessThan(fullBytes);
+    }
+
+    private List<Double> copy(GitFolderCopy gitFolderCopy, String url) throws IOException {
+        List<Double> millis = new ArrayList<>();
+        for (int i = 0; i < ITERATIONS; i++) {
+            Path destination = Files.createTempDirectory(tempDir, "destination");
+            long start = System.nanoTime();
+            gitFolderCopy.copyFolderFromRepo(url, ".cursor/rules", destination.toString());
+            millis.add((System.nanoTime() - start) / 1_000_000.0);
+            assertThat(destination.resolve("100-java.mdc")).exists();
+        }
+        return millis;
+    }
+
+    // Random sources do not compress, so every commit adds to the size of the history
+    private Path createRepository() throws Exception {
+        Path repository = tempDir.resolve("repository");
+        Random random = new Random(42);
+        try (Git git = Git.init().setDirectory(repository.toFile()).setInitialBranch("main").call()) {
+            Path rules = Files.createDirectories(repository.resolve(".cursor/rules"));
+            Files.writeString(rules.resolve("100-java.mdc"), "java rule", StandardCharsets.UTF_8);
+            Files.writeString(rules.resolve("200-maven.mdc"), "maven rule", StandardCharsets.UTF_8);
+            Files.createDirectories(repository.resolve("src"));
+            for (int i = 0; i < COMMITS; i++) {
+                commit(git, repository, random, "main " + i);
+            }
+            for (int branch = 0; branch < BRANCHES; branch++) {
+                git.checkout().setCreateBranch(true).setName("branch-" + branch).setStartPoint("main").call();
+                for (int i = 0; i < BRANCH_COMMITS; i++) {
+                    commit(git, repository, random, "branch-" + branch + " " + i);
+                }
+            }
+            git.checkout().setName("main").call();
+        }
+        return repository;
+    }
+
+    private static void commit(Git git, Path repository, Random random, String message) throws Exception {
+        for (int file = 0; file < 4; file++) {
+            byte[] content = new byte[2048];
+            random.nextBytes(content);
+            Files.writeString(repository.resolve("src/source" + file + ".txt"), HexFormat.of().formatHex(content),
+                StandardCharsets.UTF_8);
+        }
+        git.add().addFilepattern(".").call();
+        git.commit().setMessage(message).setAuthor("setup", "setup@example.com")
+            .setCommitter("setup", "setup@example.com").setSign(false).call();
+    }
+
+    private static Path copyDirectory(Path source, Path target) throws IOException {
+        try (Stream<Path> files = Files.walk(source)) {
+            for (Path file : files.toList()) {
+                Files.copy(file, target.resolve(source.relativize(file).toString()));
+            }
+        }
+        return target;
+    }
+
+    private static long size(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(Files::isRegularFile).mapToLong(file -> {
+                try {
+                    return Files.size(file);
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }).sum();
+        }
+    }
+}
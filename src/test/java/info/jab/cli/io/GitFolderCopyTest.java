@@ -1,20 +1,47 @@
 package info.jab.cli.io;
 
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.assertj.core.api.InstanceOfAssertFactories;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.tuple;
 
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+@SuppressWarnings("NullAway.Init")
 class GitFolderCopyTest {
 
+    @TempDir
+    Path cacheDir;
+
     private GitFolderCopy gitFolderCopy;
 
     @BeforeEach
     void setUp() {
-        gitFolderCopy = new GitFolderCopy();
+        gitFolderCopy = new GitFolderCopy(GitCache.at(cacheDir));
+    }
+
+    @AfterEach
+    void tearDown() {
+        // Discarded repositories are deleted in the background, before the temporary directories
+        assertThat(GitCache.awaitBackgroundWork(Duration.ofMinutes(1))).isTrue();
     }
 
     @Test
@@ -81,4 +108,514 @@ class GitFolderCopyTest {
             gitFolderCopy.copyFolderFromRepo(repoUrl, folderPath, destinationPath);
         }).as("Should handle special characters in paths gracefully").doesNotThrowAnyException();
     }
+
+    @Test
+    void testPlanFolderFromRepo_ComparesRulesWithoutWritingToDisk(@TempDir Path tempDir) throws Exception {
+        // Given: A local repository with two rules and a non rule file
+        Path repository = tempDir.resolve("repository");
+        Files.createDirectories(repository.resolve(".cursor/rules"));
+        Files.writeString(repository.resolve(".cursor/rules/100-java.mdc"), "java rule", StandardCharsets.UTF_8);
+        Files.writeString(repository.resolve(".cursor/rules/200-maven.mdc"), "maven rule", StandardCharsets.UTF_8);
+        Files.writeString(repository.resolve(".cursor/rules/script.sh"), "echo", StandardCharsets.UTF_8);
+        try (Git git = Git.init().setDirectory(repository.toFile()).call()) {
+            git.add().addFilepattern(".").call();
+            git.commit().setMessage("rules").setAuthor("setup", "setup@example.com")
+                .setCommitter("setup", "setup@example.com").setSign(false).call();
+        }
+        Path destination = tempDir.resolve("destination");
+        Files.createDirectories(destination);
+        Files.writeString(destination.resolve("100-java.mdc"), "java rule", StandardCharsets.UTF_8);
+
+        // When
+        Plan plan = gitFolderCopy.planFolderFromRepo(repository.toUri().toString(), "./.cursor/rules/", destination.toString());
+
+        // Then
+        assertThat(plan.files())
+            .extracting(Plan.FileChange::path, Plan.FileChange::bytes, Plan.FileChange::action)
+            .containsExactly(
+                tuple(destination.resolve("100-java.mdc"), 9L, Plan.Action.UNCHANGED),
+                tuple(destination.resolve("200-maven.mdc"), 10L, Plan.Action.CREATE));
+        try (var files = Files.list(destination)) {
+            assertThat(files).containsExactly(destination.resolve("100-java.mdc"));
+        }
+    }
+
+    @Test
+    void testPlanFolderFromRepo_ReadsACommitTheMirrorHoldsWithoutTheRemote(@TempDir Path tempDir) throws Exception {
+        // Given: A copy of a commit filled the mirror, then the remote went away
+        Path repository = tempDir.resolve("repository");
+        ObjectId commit = commitRule(repository, "100-java.mdc", "java rule");
+        String url = repository.toUri().toString();
+        gitFolderCopy.copyFolderFromRepo(url + "#" + commit.name(), ".cursor/rules", tempDir.resolve("first").toString());
+        GitCache.deleteDirectory(repository);
+
+        // When
+        Plan plan = gitFolderCopy.planFolderFromRepo(url + "#" + commit.name(), ".cursor/rules", tempDir.resolve("second").toString());
+
+        // Then
+        assertThat(plan.files())
+            .extracting(file -> file.path().getFileName().toString(), Plan.FileChange::action)
+            .containsExactly(tuple("100-java.mdc", Plan.Action.CREATE));
+    }
+
+    @Test
+    void testPlanFolderFromRepo_LeavesTheMirrorAsItIsWhenItMissesTheCommit(@TempDir Path tempDir) throws Exception {
+        // Given: A mirror behind the remote
+        Path repository = tempDir.resolve("repository");
+        commitRule(repository, "100-java.mdc", "version 1");
+        String url = repository.toUri().toString();
+        gitFolderCopy.copyFolderFromRepo(url, ".cursor/rules", tempDir.resolve("first").toString());
+        Path packs = cacheDir.resolve(GitCache.key(url)).resolve("objects/pack");
+        List<Path> mirrored = list(packs);
+        commitRule(repository, "200-maven.mdc", "maven rule");
+
+        // When
+        Plan plan = gitFolderCopy.planFolderFromRepo(url, ".cursor/rules", tempDir.resolve("second").toString());
+
+        // Then: The new commit was fetched into memory only
+        assertThat(plan.files())
+            .extracting(file -> file.path().getFileName().toString(), Plan.FileChange::action)
+            .containsExactly(tuple("100-java.mdc", Plan.Action.CREATE), tuple("200-maven.mdc", Plan.Action.CREATE));
+        assertThat(list(packs)).isEqualTo(mirrored);
+    }
+
+    @Test
+    void testCopyFolderFromRepo_CopiesTheDefaultBranch(@TempDir Path tempDir) throws Exception {
+        // Given: A local repository with a rule changed in a second commit
+        Path repository = tempDir.resolve("repository");
+        commitRule(repository, "100-java.mdc", "version 1");
+        commitRule(repository, "100-java.mdc", "version 2");
+        Path destination = tempDir.resolve("destination");
+
+        // When
+        gitFolderCopy.copyFolderFromRepo(repository.toUri().toString(), ".cursor/rules", destination.toString());
+
+        // Then
+        assertThat(destination.resolve("100-java.mdc")).hasContent("version 2");
+    }
+
+    @Test
+    void testCopyFolderFromRepo_CopiesOnlyTheFilesOfTheRuleFilter(@TempDir Path tempDir) throws Exception {
+        // Given: Rules, templates, drafts and a file that is not a rule
+        Path repository = tempDir.resolve("repository");
+        commitRule(repository, "100-java.mdc", "java rule");
+        commitRule(repository, "README.MD", "readme");
+        commitRule(repository, "notes.txt", "notes");
+        commitRule(repository, "drafts/300-draft.mdc", "draft rule");
+        commitRule(repository, "templates/epic-template.md", "epic");
+        Path destination = tempDir.resolve("destination");
+        GitFolderCopy filtered = new GitFolderCopy(GitCache.at(cacheDir),
+            RuleFilter.of(List.of("mdc", "md"), CopyFilter.excluding(List.of("drafts"))));
+
+        // When
+        filtered.copyFolderFromRepo(repository.toUri().toString(), ".cursor/rules", destination.toString());
+
+        // Then
+        assertThat(RulesLock.read(RulesLock.fileFor(destination)))
+            .hasValueSatisfying(lock -> assertThat(lock.files())
+                .containsOnlyKeys("100-java.mdc", "README.MD", "templates/epic-template.md"));
+        assertThat(destination.resolve("drafts")).doesNotExist();
+    }
+
+    @Test
+    void testCopyFolderFromRepo_CopiesTheRefAfterTheHash(@TempDir Path tempDir) throws Exception {
+        // Given: A tag on the first commit and a branch ahead of the default branch
+        Path repository = tempDir.resolve("repository");
+        commitRule(repository, "100-java.mdc", "version 1");
+        try (Git git = Git.open(repository.toFile())) {
+            git.tag().setName("v1").setAnnotated(true).setMessage("v1").setSigned(false)
+                .setTagger(new PersonIdent("setup", "setup@example.com")).call();
+            commitRule(repository, "100-java.mdc", "version 2");
+            git.checkout().setCreateBranch(true).setName("next").call();
+            commitRule(repository, "100-java.mdc", "version 3");
+            git.checkout().setName("master").call();
+        }
+        String url = repository.toUri().toString();
+
+        // When
+        gitFolderCopy.copyFolderFromRepo(url + "#v1", ".cursor/rules", tempDir.resolve("tag").toString());
+        gitFolderCopy.copyFolderFromRepo(url + "#next", ".cursor/rules", tempDir.resolve("branch").toString());
+        gitFolderCopy.copyFolderFromRepo(url + "#unknown", ".cursor/rules", tempDir.resolve("unknown").toString());
+
+        // Then
+        assertThat(tempDir.resolve("tag/100-java.mdc")).hasContent("version 1");
+        assertThat(tempDir.resolve("branch/100-java.mdc")).hasContent("version 3");
+        assertThat(tempDir.resolve("unknown")).doesNotExist();
+    }
+
+    @Test
+    void testCopyFolderFromRepo_FetchesOnlyWhenTheRemoteChanged(@TempDir Path tempDir) throws Exception {
+        // Given: A first copy that creates the mirror of the repository
+        Path repository = tempDir.resolve("repository");
+        commitRule(repository, "100-java.mdc", "version 1");
+        String url = repository.toUri().toString();
+        gitFolderCopy.copyFolderFromRepo(url, ".cursor/rules", tempDir.resolve("first").toString());
+        Path packs = cacheDir.resolve(GitCache.key(url)).resolve("objects/pack");
+        List<Path> firstPacks = list(packs);
+
+        // When
+        gitFolderCopy.copyFolderFromRepo(url, ".cursor/rules", tempDir.resolve("second").toString());
+        List<Path> secondPacks = list(packs);
+        commitRule(repository, "100-java.mdc", "version 2");
+        gitFolderCopy.copyFolderFromRepo(url, ".cursor/rules", tempDir.resolve("third").toString());
+
+        // Then
+        assertThat(firstPacks).isNotEmpty();
+        assertThat(secondPacks).isEqualTo(firstPacks);
+        assertThat(list(packs)).hasSizeGreaterThan(firstPacks.size());
+        assertThat(tempDir.resolve("second/100-java.mdc")).hasContent("version 1");
+        assertThat(tempDir.resolve("third/100-java.mdc")).hasContent("version 2");
+    }
+
+    @Test
+    void testCopyFolderFromRepo_KeepsThePinnedCommitUntilUpdated(@TempDir Path tempDir) throws Exception {
+        // Given: Rules copied and pinned before a new commit of the repository
+        Path repository = tempDir.resolve("repository");
+        ObjectId first = commitRule(repository, "100-java.mdc", "version 1");
+        String url = repository.toUri().toString();
+        Path destination = tempDir.resolve("rules");
+        gitFolderCopy.copyFolderFromRepo(url, ".cursor/rules", destination.toString());
+        ObjectId second = commitRule(repository, "100-java.mdc", "version 2");
+        Files.delete(destination.resolve("100-java.mdc"));
+
+        // When
+        gitFolderCopy.copyFolderFromRepo(url, ".cursor/rules", destination.toString());
+        String pinned = Files.readString(destination.resolve("100-java.mdc"), StandardCharsets.UTF_8);
+        Plan plan = gitFolderCopy.planFolderUpdateFromRepo(url, ".cursor/rules", destination.toString());
+        gitFolderCopy.updateFolderFromRepo(url, ".cursor/rules", destination.toString());
+
+        // Then
+        assertThat(pinned).isEqualTo("version 1");
+        assertThat(plan.files()).extracting(Plan.FileChange::action).containsExactly(Plan.Action.OVERWRITE);
+        assertThat(plan.notes()).containsExactly("Pin commit " + second.name() + " in " + tempDir.resolve("rules.lock").toAbsolutePath());
+        assertThat(destination.resolve("100-java.mdc")).hasContent("version 2");
+        assertThat(RulesLock.read(tempDir.resolve("rules.lock"))).get()
+            .extracting(lock -> lock.sources().get(0).commit()).isNotEqualTo(first).isEqualTo(second);
+    }
+
+    @Test
+    void testCopyFolderFromRepo_RestoresPinnedRulesWithoutTheRemote(@TempDir Path tempDir) throws Exception {
+        // Given: Pinned rules, one deleted and one edited locally, whose repository is gone
+        Path repository = tempDir.resolve("repository");
+        commitRule(repository, "100-java.mdc", "java rule");
+        commitRule(repository, "200-maven.mdc", "maven rule");
+        String url = repository.toUri().toString();
+        Path destination = tempDir.resolve("rules");
+        gitFolderCopy.copyFolderFromRepo(url, ".cursor/rules", destination.toString());
+        GitCache.deleteDirectory(repository);
+        Files.delete(destination.resolve("100-java.mdc"));
+        Files.writeString(destination.resolve("200-maven.mdc"), "edited", StandardCharsets.UTF_8);
+
+        // When
+        gitFolderCopy.copyFolderFromRepo(url, ".cursor/rules", destination.toString());
+
+        // Then
+        assertThat(destination.resolve("100-java.mdc")).hasContent("java rule");
+        assertThat(destination.resolve("200-maven.mdc")).hasContent("edited");
+    }
+
+    @Test
+    void testUpdateFolderFromRepo_SyncsThreeWaysWithTheLocalRules(@TempDir Path tempDir) throws Exception {
+        // Given: Synced rules, then changed both upstream and locally
+        Path repository = tempDir.resolve("repository");
+        commitRule(repository, "100-java.mdc", "java 1");
+        commitRule(repository, "200-maven.mdc", "maven 1");
+        commitRule(repository, "300-spring.mdc", "spring 1");
+        commitRule(repository, "templates/epic-template.md", "epic 1");
+        String url = repository.toUri().toString();
+        Path destination = tempDir.resolve("rules");
+        gitFolderCopy.copyFolderFromRepo(url, ".cursor/rules", destination.toString());
+        commitRule(repository, "100-java.mdc", "java 2");
+        commitRule(repository, "300-spring.mdc", "spring 2");
+        removeRules(repository, "200-maven.mdc", "templates/epic-template.md");
+        Files.writeString(destination.resolve("300-spring.mdc"), "my spring", StandardCharsets.UTF_8);
+        Files.writeString(destination.resolve("400-local.mdc"), "my rule", StandardCharsets.UTF_8);
+
+        // When
+        Plan plan = gitFolderCopy.planFolderUpdateFromRepo(url, ".cursor/rules", destination.toString());
+        gitFolderCopy.updateFolderFromRepo(url, ".cursor/rules", destination.toString());
+
+        // Then
+        assertThat(plan.files())
+            .extracting(file -> destination.relativize(file.path()).toString(), Plan.FileChange::action)
+            .containsExactlyInAnyOrder(
+                tuple("100-java.mdc", Plan.Action.OVERWRITE),
+                tuple("300-spring.mdc", Plan.Action.KEEP),
+                tuple("200-maven.mdc", Plan.Action.DELETE),
+                tuple("templates/epic-template.md", Plan.Action.DELETE));
+        assertThat(destination.resolve("100-java.mdc")).hasContent("java 2");
+        assertThat(destination.resolve("200-maven.mdc")).doesNotExist();
+        assertThat(destination.resolve("templates")).doesNotExist();
+        assertThat(destination.resolve("300-spring.mdc")).hasContent("my spring");
+        assertThat(destination.resolve("400-local.mdc")).hasContent("my rule");
+        assertThat(RulesLock.read(tempDir.resolve("rules.lock"))).get()
+            .extracting(lock -> lock.files().keySet()).asInstanceOf(InstanceOfAssertFactories.COLLECTION)
+            .containsExactly("100-java.mdc", "300-spring.mdc");
+    }
+
+    @Test
+    void testUpdateFolderFromRepo_ReplacesARuleInsteadOfTruncatingIt(@TempDir Path tempDir) throws Exception {
+        // Given: A hard link to a synced rule, which a write in place would change too
+        Path repository = tempDir.resolve("repository");
+        commitRule(repository, "100-java.mdc", "java 1");
+        String url = repository.toUri().toString();
+        Path destination = tempDir.resolve("rules");
+        gitFolderCopy.copyFolderFromRepo(url, ".cursor/rules", destination.toString());
+        Path link = Files.createLink(tempDir.resolve("100-java.link"), destination.resolve("100-java.mdc"));
+        commitRule(repository, "100-java.mdc", "java 2");
+
+        // When
+        gitFolderCopy.updateFolderFromRepo(url, ".cursor/rules", destination.toString());
+
+        // Then: The rule was written aside and renamed over the old one
+        assertThat(destination.resolve("100-java.mdc")).hasContent("java 2");
+        assertThat(link).hasContent("java 1");
+        try (var files = Files.list(destination)) {
+            assertThat(files.map(file -> file.getFileName().toString())).containsExactly("100-java.mdc");
+        }
+    }
+
+    @Test
+    void testUpdateFolderFromRepo_KeepsARuleModifiedLocallyAndRemovedUpstream(@TempDir Path tempDir) throws Exception {
+        // Given
+        Path repository = tempDir.resolve("repository");
+        commitRule(repository, "100-java.mdc", "java rule");
+        commitRule(repository, "200-maven.mdc", "maven rule");
+        String url = repository.toUri().toString();
+        Path destination = tempDir.resolve("rules");
+        gitFolderCopy.copyFolderFromRepo(url, ".cursor/rules", destination.toString());
+        removeRules(repository, "200-maven.mdc");
+        Files.writeString(destination.resolve("200-maven.mdc"), "my maven", StandardCharsets.UTF_8);
+
+        // When
+        gitFolderCopy.updateFolderFromRepo(url, ".cursor/rules", destination.toString());
+        gitFolderCopy.updateFolderFromRepo(url, ".cursor/rules", destination.toString());
+
+        // Then
+        assertThat(destination.resolve("200-maven.mdc")).hasContent("my maven");
+        assertThat(RulesLock.read(tempDir.resolve("rules.lock"))).get()
+            .extracting(lock -> lock.files().keySet()).asInstanceOf(InstanceOfAssertFactories.COLLECTION)
+            .containsExactly("100-java.mdc");
+    }
+
+    @Test
+    void testCopyFolderFromRepo_LeavesRulesMatchingTheirPinWithoutOpeningTheCache(@TempDir Path tempDir) throws Exception {
+        // Given: Pinned rules without their mirror
+        Path repository = tempDir.resolve("repository");
+        commitRule(repository, "100-java.mdc", "java rule");
+        String url = repository.toUri().toString();
+        Path destination = tempDir.resolve("rules");
+        gitFolderCopy.copyFolderFromRepo(url, ".cursor/rules", destination.toString());
+        GitCache.deleteDirectory(cacheDir.resolve(GitCache.key(url)));
+
+        // When
+        gitFolderCopy.copyFolderFromRepo(url, ".cursor/rules", destination.toString());
+        Plan plan = gitFolderCopy.planFolderFromRepo(url, ".cursor/rules", destination.toString());
+
+        // Then
+        assertThat(cacheDir.resolve(GitCache.key(url))).doesNotExist();
+        assertThat(plan.isNoOp()).isTrue();
+        assertThat(destination.resolve("100-java.mdc")).hasContent("java rule");
+    }
+
+    @Test
+    void testCopyFolderFromRepos_MergesTheRulesWithTheLastRepositoryTakingPrecedence(@TempDir Path tempDir) throws Exception {
+        // Given: A baseline and team rules overriding one of its rules
+        Path baseline = tempDir.resolve("baseline");
+        commitRule(baseline, "100-java.mdc", "baseline java");
+        commitRule(baseline, "200-maven.mdc", "baseline maven");
+        Path team = tempDir.resolve("team");
+        commitRule(team, "100-java.mdc", "team java");
+        commitRule(team, "templates/team-template.md", "team template");
+        List<String> urls = List.of(baseline.toUri().toString(), team.toUri().toString());
+        Path destination = tempDir.resolve("rules");
+
+        // When
+        Plan plan = gitFolderCopy.planFolderFromRepos(urls, ".cursor/rules", destination.toString());
+        gitFolderCopy.copyFolderFromRepos(urls, ".cursor/rules", destination.toString());
+        commitRule(baseline, "200-maven.mdc", "baseline maven 2");
+        gitFolderCopy.copyFolderFromRepos(urls, ".cursor/rules", destination.toString());
+        String pinned = Files.readString(destination.resolve("200-maven.mdc"), StandardCharsets.UTF_8);
+        gitFolderCopy.updateFolderFromRepos(urls, ".cursor/rules", destination.toString());
+
+        // Then
+        assertThat(plan.files()).extracting(Plan.FileChange::action).containsOnly(Plan.Action.CREATE).hasSize(3);
+        assertThat(plan.notes()).hasSize(2).allMatch(note -> note.startsWith("Pin commit "))
+            .anyMatch(note -> note.contains(" of " + urls.get(1) + " in "));
+        assertThat(destination.resolve("100-java.mdc")).hasContent("team java");
+        assertThat(destination.resolve("templates/team-template.md")).hasContent("team template");
+        assertThat(pinned).isEqualTo("baseline maven");
+        assertThat(destination.resolve("200-maven.mdc")).hasContent("baseline maven 2");
+        assertThat(RulesLock.read(tempDir.resolve("rules.lock"))).get()
+            .extracting(lock -> lock.sources().stream().map(RulesLock.Source::url).toList())
+            .isEqualTo(urls);
+    }
+
+    @Test
+    void testCopyFolderFromRepos_CopiesNothingWhenOneRepositoryFails(@TempDir Path tempDir) throws Exception {
+        // Given
+        Path baseline = tempDir.resolve("baseline");
+        commitRule(baseline, "100-java.mdc", "baseline java");
+        List<String> urls = List.of(baseline.toUri().toString(), tempDir.resolve("missing").toUri().toString());
+        Path destination = tempDir.resolve("rules");
+
+        // When
+        gitFolderCopy.copyFolderFromRepos(urls, ".cursor/rules", destination.toString());
+
+        // Then
+        assertThat(destination).doesNotExist();
+        assertThat(tempDir.resolve("rules.lock")).doesNotExist();
+    }
+
+    @Test
+    void testCopyFolderFromRepo_SharesTheMirrorBetweenConcurrentCopies(@TempDir Path tempDir) throws Exception {
+        // Given
+        Path repository = tempDir.resolve("repository");
+        commitRule(repository, "100-java.mdc", "java rule");
+        String url = repository.toUri().toString();
+
+        // When: Copies of the same repository run at once, as in the daemon or parallel CI jobs
+        List<Future<?>> copies = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 8; i++) {
+                String destination = tempDir.resolve("destination" + i).toString();
+                copies.add(executor.submit(() -> new GitFolderCopy(GitCache.at(cacheDir))
+                    .copyFolderFromRepo(url, ".cursor/rules", destination)));
+            }
+        }
+        for (Future<?> copy : copies) {
+            copy.get();
+        }
+
+        // Then
+        for (int i = 0; i < 8; i++) {
+            assertThat(tempDir.resolve("destination" + i).resolve("100-java.mdc")).hasContent("java rule");
+        }
+        assertThat(cacheDir.resolve(GitCache.key(url))).isDirectory();
+    }
+
+    @Test
+    void testCopyFolderFromRepo_KeepsNoMirrorWhenTheFetchFails(@TempDir Path tempDir) throws Exception {
+        // Given
+        String url = tempDir.resolve("missing").toUri().toString();
+
+        // When
+        gitFolderCopy.copyFolderFromRepo(url, ".cursor/rules", tempDir.resolve("destination").toString());
+
+        // Then
+        assertThat(cacheDir.resolve(GitCache.key(url))).doesNotExist();
+        assertThat(tempDir.resolve("destination")).doesNotExist();
+    }
+
+    @Test
+    void testFetch_FetchesOneCommitWithoutHistoryOrTags(@TempDir Path tempDir) throws Exception {
+        // Given: A repository with two commits and a tag on the first one
+        Path repository = tempDir.resolve("repository");
+        ObjectId first = commitRule(repository, "100-java.mdc", "version 1");
+        try (Git git = Git.open(repository.toFile())) {
+            git.tag().setName("v1").setAnnotated(false).call();
+        }
+        ObjectId second = commitRule(repository, "100-java.mdc", "version 2");
+
+        // When
+        ObjectId fetched;
+        try (Git clone = Git.init().setDirectory(tempDir.resolve("clone").toFile()).call()) {
+            fetched = GitFolderCopy.fetch(clone.getRepository(),
+                GitFolderCopy.Remote.parse(repository.toUri().toString()));
+
+            // Then
+            assertThat(fetched).isEqualTo(second);
+            assertThat(clone.getRepository().getObjectDatabase().has(first)).isFalse();
+            assertThat(clone.getRepository().getRefDatabase().getRefsByPrefix(Constants.R_TAGS)).isEmpty();
+            assertThat(tempDir.resolve("clone/.git/shallow")).hasContent(second.name());
+        }
+    }
+
+    @Test
+    void testFetch_FetchesAFullCommitId(@TempDir Path tempDir) throws Exception {
+        // Given
+        Path repository = tempDir.resolve("repository");
+        ObjectId first = commitRule(repository, "100-java.mdc", "version 1");
+        commitRule(repository, "100-java.mdc", "version 2");
+
+        // When
+        try (Git clone = Git.init().setDirectory(tempDir.resolve("clone").toFile()).call()) {
+            ObjectId fetched = GitFolderCopy.fetch(clone.getRepository(),
+                GitFolderCopy.Remote.parse(repository.toUri() + "#" + first.name()));
+
+            // Then
+            assertThat(fetched).isEqualTo(first);
+            assertThat(clone.getRepository().getObjectDatabase().has(first)).isTrue();
+        }
+    }
+
+    @Test
+    void testExtractFolder_WritesOnlyChangedRuleFilesOfTheFolder(@TempDir Path tempDir) throws Exception {
+        // Given: Rules, a template, a non rule file and a file outside of the folder
+        Path repository = tempDir.resolve("repository");
+        commitRule(repository, "100-java.mdc", "java rule");
+        commitRule(repository, "templates/epic-template.md", "epic");
+        commitRule(repository, "script.sh", "echo");
+        Files.writeString(repository.resolve("README.md"), "readme", StandardCharsets.UTF_8);
+        ObjectId commit = commitRule(repository, "200-maven.mdc", "maven rule");
+        Path destination = tempDir.resolve("destination");
+        Files.createDirectories(destination);
+        Files.writeString(destination.resolve("100-java.mdc"), "java rule", StandardCharsets.UTF_8);
+
+        try (Git git = Git.open(repository.toFile())) {
+            // When
+            int written = GitFolderCopy.extractFolder(git.getRepository(), commit, ".cursor/rules", destination);
+            int rewritten = GitFolderCopy.extractFolder(git.getRepository(), commit, ".cursor/rules", destination);
+
+            // Then
+            assertThat(written).isEqualTo(2);
+            assertThat(rewritten).isZero();
+        }
+        try (var files = Files.walk(destination)) {
+            assertThat(files.filter(Files::isRegularFile).map(destination::relativize).map(Path::toString))
+                .containsExactlyInAnyOrder("100-java.mdc", "200-maven.mdc", "templates/epic-template.md");
+        }
+        assertThat(destination.resolve("templates/epic-template.md")).hasContent("epic");
+    }
+
+    @Test
+    void testRemoteParse_SplitsTheRefAfterTheLastHash() {
+        // When / Then
+        assertThat(GitFolderCopy.Remote.parse("https://github.com/org/rules"))
+            .isEqualTo(new GitFolderCopy.Remote("https://github.com/org/rules", null));
+        assertThat(GitFolderCopy.Remote.parse("https://github.com/org/rules#release/1.x"))
+            .isEqualTo(new GitFolderCopy.Remote("https://github.com/org/rules", "release/1.x"));
+        assertThat(GitFolderCopy.Remote.parse("https://github.com/org/rules#"))
+            .isEqualTo(new GitFolderCopy.Remote("https://github.com/org/rules", null));
+    }
+
+    private static List<Path> list(Path directory) throws Exception {
+        try (var files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private static void removeRules(Path repository, String... names) throws Exception {
+        try (Git git = Git.open(repository.toFile())) {
+            for (String name : names) {
+                git.rm().addFilepattern(".cursor/rules/" + name).call();
+            }
+            git.commit().setMessage("remove").setAuthor("setup", "setup@example.com")
+                .setCommitter("setup", "setup@example.com").setSign(false).call();
+        }
+    }
+
+    // Commits a rule in .cursor/rules, creating the repository on first use
+    private static ObjectId commitRule(Path repository, String name, String content) throws Exception {
+        Path rule = repository.resolve(".cursor/rules").resolve(name);
+        Files.createDirectories(Objects.requireNonNull(rule.getParent()));
+        Files.writeString(rule, content, StandardCharsets.UTF_8);
+        try (Git git = Files.isDirectory(repository.resolve(".git"))
+                ? Git.open(repository.toFile())
+                : Git.init().setDirectory(repository.toFile()).setInitialBranch("master").call()) {
+            git.add().addFilepattern(".").call();
+            return git.commit().setMessage(content).setAuthor("setup", "setup@example.com")
+                .setCommitter("setup", "setup@example.com").setSign(false).call().getId();
+        }
+    }
 }
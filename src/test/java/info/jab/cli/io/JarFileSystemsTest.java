@@ -0,0 +1,149 @@
+package info.jab.cli.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SuppressWarnings("NullAway.Init")
+class JarFileSystemsTest {
+
+    @TempDir
+    Path tempDir;
+
+    private JarFileSystems fileSystems;
+    private URI templateUri;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        fileSystems = new JarFileSystems();
+        Path jar = tempDir.resolve("templates.jar");
+        try (OutputStream out = Files.newOutputStream(jar);
+             ZipOutputStream zip = new ZipOutputStream(out)) {
+            zip.putNextEntry(new ZipEntry("templates/"));
+            zip.putNextEntry(new ZipEntry("templates/file1.txt"));
+            zip.write("template content".getBytes(StandardCharsets.UTF_8));
+        }
+        templateUri = URI.create("jar:" + jar.toUri() + "!/templates/file1.txt");
+    }
+
+    @Test
+    void shouldShareOneFileSystemBetweenLeases() throws IOException {
+        // Given
+        JarFileSystems.Lease first = fileSystems.acquire(templateUri);
+        JarFileSystems.Lease second = fileSystems.acquire(templateUri);
+
+        // When
+        FileSystem fileSystem = first.fileSystem();
+
+        // Then
+        assertThat(second.fileSystem()).isSameAs(fileSystem);
+        assertThat(fileSystems.openFileSystems()).isEqualTo(1);
+        assertThat(Files.readString(first.resolve(templateUri))).isEqualTo("template content");
+
+        first.close();
+        second.close();
+    }
+
+    @Test
+    void shouldCloseFileSystemWhenLastLeaseIsReleased() throws IOException {
+        // Given
+        JarFileSystems.Lease first = fileSystems.acquire(templateUri);
+        JarFileSystems.Lease second = fileSystems.acquire(templateUri);
+        FileSystem fileSystem = first.fileSystem();
+
+        // When
+        first.close();
+        first.close();
+
+        // Then
+        assertThat(fileSystem.isOpen()).isTrue();
+        second.close();
+        assertThat(fileSystem.isOpen()).isFalse();
+        assertThat(fileSystems.openFileSystems()).isZero();
+    }
+
+    @Test
+    void shouldReopenFileSystemAfterClose() throws IOException {
+        // Given
+        try (JarFileSystems.Lease lease = fileSystems.acquire(templateUri)) {
+            assertThat(lease.fileSystem().isOpen()).isTrue();
+        }
+
+        // When
+        try (JarFileSystems.Lease lease = fileSystems.acquire(templateUri)) {
+            // Then
+            assertThat(Files.readString(lease.resolve(templateUri))).isEqualTo("template content");
+        }
+    }
+
+    @Test
+    void shouldNotCloseFileSystemOpenedOutsideThePool() throws IOException {
+        // Given
+        try (FileSystem external = FileSystems.newFileSystem(templateUri, Collections.emptyMap())) {
+
+            // When
+            try (JarFileSystems.Lease lease = fileSystems.acquire(templateUri)) {
+                assertThat(lease.fileSystem()).isSameAs(external);
+            }
+
+            // Then
+            assertThat(external.isOpen()).isTrue();
+        }
+    }
+
+    @Test
+    void shouldOpenFileSystemOnceForConcurrentLeases() throws Exception {
+        // Given
+        List<Future<JarFileSystems.Lease>> futures = new ArrayList<>();
+
+        // When
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 32; i++) {
+                futures.add(executor.submit(() -> fileSystems.acquire(templateUri)));
+            }
+        }
+
+        // Then
+        List<JarFileSystems.Lease> leases = new ArrayList<>();
+        for (Future<JarFileSystems.Lease> future : futures) {
+            leases.add(future.get());
+        }
+        assertThat(leases).extracting(JarFileSystems.Lease::fileSystem).containsOnly(leases.get(0).fileSystem());
+        for (JarFileSystems.Lease lease : leases) {
+            lease.close();
+        }
+        assertThat(leases.get(0).fileSystem().isOpen()).isFalse();
+    }
+
+    @Test
+    void shouldKeyFileSystemsByArchive() {
+        // Given
+        URI uri = URI.create("jar:file:/opt/setup.jar!/templates/gitignore/.gitignore");
+
+        // When
+        String key = JarFileSystems.key(uri);
+
+        // Then
+        assertThat(key).isEqualTo("jar:file:/opt/setup.jar");
+        assertThat(JarFileSystems.key(URI.create("resource:/templates/x"))).isEqualTo("resource:");
+    }
+}
@@ -0,0 +1,70 @@
+package info.jab.cli.io;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PlanTest {
+
+    private static final Path PROJECT = Path.of("project").toAbsolutePath();
+
+    @Test
+    void shouldRenderFilesCommandsAndTheEstimate() {
+        // Given
+        Plan plan = Plan.ofFiles(List.of(
+                new Plan.FileChange(PROJECT.resolve(".editorconfig"), 300, Plan.Action.CREATE),
+                new Plan.FileChange(PROJECT.resolve(".gitignore"), 200, Plan.Action.UNCHANGED)))
+            .and(Plan.ofCommand("mvn --version"))
+            .and(Plan.ofNote("Creates the maven-demo folder"));
+
+        // When
+        String text = ExecutionContext.callWith(new ExecutionContext(PROJECT, Map.of()),
+            () -> plan.render("--maven", Optional.of(Duration.ofMillis(1500))));
+
+        // Then
+        assertThat(text.lines()).containsExactly(
+            "Plan for --maven: 1 to create, 0 to overwrite, 1 unchanged, 300 bytes to write, 1 command, about 1500 ms",
+            "  create    .editorconfig (300 bytes)",
+            "  unchanged .gitignore (200 bytes)",
+            "  run       mvn --version",
+            "  note      Creates the maven-demo folder");
+        assertThat(plan.isNoOp()).isFalse();
+    }
+
+    @Test
+    void shouldBeANoOpWhenEveryFileIsUnchanged() {
+        // Given
+        Plan plan = Plan.ofFiles(List.of(new Plan.FileChange(PROJECT.resolve(".sdkmanrc"), 20, Plan.Action.UNCHANGED)));
+
+        // When / Then
+        assertThat(plan.isNoOp()).isTrue();
+        assertThat(plan.bytesToWrite()).isZero();
+        assertThat(plan.render("--sdkman", Optional.empty())).endsWith("Nothing to do");
+    }
+
+    @Test
+    void shouldCountDeletedAndKeptFilesWithoutWritingThem() {
+        // Given
+        Plan plan = Plan.ofFiles(List.of(
+            new Plan.FileChange(PROJECT.resolve(".cursor/rules/100-java.mdc"), 40, Plan.Action.DELETE),
+            new Plan.FileChange(PROJECT.resolve(".cursor/rules/200-maven.mdc"), 50, Plan.Action.KEEP)));
+
+        // When
+        String text = ExecutionContext.callWith(new ExecutionContext(PROJECT, Map.of()),
+            () -> plan.render("--cursor", Optional.empty()));
+
+        // Then
+        assertThat(text.lines()).containsExactly(
+            "Plan for --cursor: 0 to create, 0 to overwrite, 0 unchanged, 1 to delete, 1 kept, 0 bytes to write, 0 commands, no previous run",
+            "  delete    .cursor/rules/100-java.mdc (40 bytes)",
+            "  keep      .cursor/rules/200-maven.mdc (50 bytes)");
+        assertThat(plan.isNoOp()).isFalse();
+        assertThat(Plan.ofFiles(List.of(plan.files().get(1))).isNoOp()).isTrue();
+    }
+}
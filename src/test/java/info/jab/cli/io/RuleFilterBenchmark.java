@@ -0,0 +1,142 @@
+package info.jab.cli.io;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+import org.eclipse.jgit.dircache.DirCache;
+import org.eclipse.jgit.dircache.DirCacheBuilder;
+import org.eclipse.jgit.dircache.DirCacheEntry;
+import org.eclipse.jgit.internal.storage.dfs.DfsRepositoryDescription;
+import org.eclipse.jgit.internal.storage.dfs.InMemoryRepository;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.PathFilter;
+import org.junit.jupiter.api.Test;
+
+import info.jab.cli.benchmarks.BenchmarkHarness;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Per-entry string checks (a lower case copy of the path and endsWith, the former
+ * GitFolderCopy behaviour) against the compiled RuleFilter, on a rules folder of 100k
+ * entries, and the same filter excluding a subtree that holds half of them.
+ *
+ * The fixture has 1,000 directories of 100 files, one in ten a rule, half of the
+ * directories below archive/. The report target/benchmarks/rule-filter.json holds the
+ * duration of a walk of the folder in each mode.
+ *
+ * ./mvnw clean verify -Pbenchmarks
+ */
+class RuleFilterBenchmark {
+
+    private static final String FOLDER = ".cursor/rules";
+    private static final int DIRECTORIES = 1_000;
+    private static final int FILES = 100;
+    private static final int ITERATIONS = 20;
+
+    @Test
+    void compareStringChecksAndCompiledFilter() throws Exception {
+        try (InMemoryRepository repository = new InMemoryRepository(new DfsRepositoryDescription("benchmark"))) {
+            ObjectId tree = createTree(repository);
+            RuleFilter pruning = RuleFilter.of(List.of("mdc", "md"), CopyFilter.excluding(List.of("archive")));
+
+            // Warm up every mode before measuring
+            int stringRules = walkWithStringChecks(repository, tree);
+            int compiledRules = walk(repository, tree, RuleFilter.DEFAULT);
+            int prunedRules = walk(repository, tree, pruning);
+
+            List<Double> stringMillis = new ArrayList<>();
+            List<Double> compiledMillis = new ArrayList<>();
+            List<Double> prunedMillis = new ArrayList<>();
+            for (int i = 0; i < ITERATIONS; i++) {
+                long start = System.nanoTime();
+                walkWithStringChecks(repository, tree);
+                stringMillis.add((System.nanoTime() - start) / 1_000_000.0);
+                start = System.nanoTime();
+                walk(repository, tree, RuleFilter.DEFAULT);
+                compiledMillis.add((System.nanoTime() - start) / 1_000_000.0);
+                start = System.nanoTime();
+                walk(repository, tree, pruning);
+                prunedMillis.add((System.nanoTime() - start) / 1_000_000.0);
+            }
+
+            Map<String, Object> report = new HashMap<>();
+            report.put("java", Objects.requireNonNull(System.getProperty("java.version")));
+            report.put("entries", DIRECTORIES * FILES);
+            report.put("string", Map.of("rules", stringRules, "walkMs", BenchmarkHarness.distribution(stringMillis)));
+            report.put("compiled", Map.of("rules", compiledRules, "walkMs", BenchmarkHarness.distribution(compiledMillis)));
+            report.put("pruned", Map.of("rules", prunedRules, "walkMs", BenchmarkHarness.distribution(prunedMillis)));
+            String json = BenchmarkHarness.toJson(report);
+            System.out.print(json);
+            Files.writeString(BenchmarkHarness.outputDirectory().resolve("rule-filter.json"), json, StandardCharsets.UTF_8);
+            assertThat(compiledRules).isEqualTo(stringRules).isEqualTo(DIRECTORIES * FILES / 10);
+            assertThat(prunedRules).isEqualTo(compiledRules / 2);
+        }
+    }
+
+    // Every tenth file is a rule, alternately .mdc and .MD, the others sources and images
+    private static ObjectId createTree(InMemoryRepository repository) throws IOException {
+        DirCache index = DirCache.newInCore();
+        DirCacheBuilder builder = index.builder();
+        try (ObjectInserter inserter = repository.newObjectInserter()) {
+            ObjectId content = inserter.insert(Constants.OBJ_BLOB, "x".repeat(64).getBytes(StandardCharsets.UTF_8));
+            for (int directory = 0; directory < DIRECTORIES; directory++) {
+                String parent = FOLDER + (directory % 2 == 0 ? "/archive" : "") + "/dir" + directory;
+                for (int file = 0; file < FILES; file++) {
+                    String name = file % 10 != 0 ? "file" + file + (file % 2 == 0 ? ".java" : ".png")
+                        : "rule" + file + (file % 20 == 0 ? ".mdc" : ".MD");
+                    DirCacheEntry entry = new DirCacheEntry(parent + "/" + name);
+                    entry.setFileMode(FileMode.REGULAR_FILE);
+                    entry.setObjectId(content);
+                    builder.add(entry);
+                }
+            }
+            builder.finish();
+            ObjectId tree = index.writeTree(inserter);
+            inserter.flush();
+            return tree;
+        }
+    }
+
+    private static int walk(InMemoryRepository repository, ObjectId tree, RuleFilter filter) throws IOException {
+        int rules = 0;
+        try (TreeWalk treeWalk = new TreeWalk(repository)) {
+            treeWalk.addTree(tree);
+            treeWalk.setRecursive(true);
+            treeWalk.setFilter(filter.in(FOLDER));
+            while (treeWalk.next()) {
+                rules++;
+            }
+        }
+        return rules;
+    }
+
+    private static int walkWithStringChecks(InMemoryRepository repository, ObjectId tree) throws IOException {
+        int rules = 0;
+        try (TreeWalk treeWalk = new TreeWalk(repository)) {
+            treeWalk.addTree(tree);
+            treeWalk.setRecursive(true);
+            treeWalk.setFilter(PathFilter.create(FOLDER));
+            while (treeWalk.next()) {
+                String path = treeWalk.getPathString().toLowerCase(Locale.ENGLISH);
+                FileMode mode = treeWalk.getFileMode(0);
+                if ((path.endsWith(".mdc") || path.endsWith(".md"))
+                        && (mode == FileMode.REGULAR_FILE || mode == FileMode.EXECUTABLE_FILE)) {
+                    rules++;
+                }
+            }
+        }
+        return rules;
+    }
+}
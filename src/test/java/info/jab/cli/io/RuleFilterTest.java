@@ -0,0 +1,99 @@
+package info.jab.cli.io;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jgit.internal.storage.dfs.DfsRepositoryDescription;
+import org.eclipse.jgit.internal.storage.dfs.InMemoryRepository;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.eclipse.jgit.lib.TreeFormatter;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RuleFilterTest {
+
+    @Test
+    void shouldOnlyWalkRegularRuleFilesOfTheFolder() throws IOException {
+        try (InMemoryRepository repository = repository(); ObjectInserter inserter = repository.newObjectInserter()) {
+            // Given
+            TreeFormatter drafts = new TreeFormatter();
+            drafts.append("draft.mdc", FileMode.REGULAR_FILE, blob(inserter, "draft"));
+            ObjectId commitTree = commitTree(inserter, inserter.insert(drafts));
+
+            // When / Then
+            assertThat(walk(repository, commitTree, RuleFilter.DEFAULT, ".cursor/rules")).containsExactly(
+                ".cursor/rules/100-java.mdc",
+                ".cursor/rules/200-Maven.MD",
+                ".cursor/rules/drafts/draft.mdc",
+                ".cursor/rules/run.mdc",
+                ".cursor/rules/templates/epic-template.md");
+            assertThat(walk(repository, commitTree, RuleFilter.DEFAULT, ".cursor/rules/run.mdc"))
+                .containsExactly(".cursor/rules/run.mdc");
+            assertThat(walk(repository, commitTree, RuleFilter.DEFAULT, "")).hasSize(6).contains("README.md");
+        }
+    }
+
+    @Test
+    void shouldApplyExtensionsAndSkipExcludedDirectoriesWithoutReadingThem() throws IOException {
+        try (InMemoryRepository repository = repository(); ObjectInserter inserter = repository.newObjectInserter()) {
+            // Given: A drafts tree missing from the repository, reading it would fail
+            ObjectId commitTree = commitTree(inserter, ObjectId.fromString("0123456789abcdef0123456789abcdef01234567"));
+            RuleFilter filter = RuleFilter.of(List.of(".MDC", " "), CopyFilter.excluding(List.of("drafts", "run.*")));
+
+            // When / Then
+            assertThat(walk(repository, commitTree, filter, ".cursor/rules"))
+                .containsExactly(".cursor/rules/100-java.mdc");
+        }
+    }
+
+    private static InMemoryRepository repository() {
+        return new InMemoryRepository(new DfsRepositoryDescription("rules"));
+    }
+
+    // A commit tree holding rules next to files that are not rule files, entries in git order
+    private static ObjectId commitTree(ObjectInserter inserter, ObjectId drafts) throws IOException {
+        TreeFormatter templates = new TreeFormatter();
+        templates.append("epic-template.md", FileMode.REGULAR_FILE, blob(inserter, "epic"));
+        TreeFormatter rules = new TreeFormatter();
+        rules.append("100-java.mdc", FileMode.REGULAR_FILE, blob(inserter, "java rule"));
+        rules.append("200-Maven.MD", FileMode.REGULAR_FILE, blob(inserter, "maven rule"));
+        rules.append("300-link.mdc", FileMode.SYMLINK, blob(inserter, "100-java.mdc"));
+        rules.append("drafts", FileMode.TREE, drafts);
+        rules.append("notes.txt", FileMode.REGULAR_FILE, blob(inserter, "notes"));
+        rules.append("run.mdc", FileMode.EXECUTABLE_FILE, blob(inserter, "run rule"));
+        rules.append("templates", FileMode.TREE, inserter.insert(templates));
+        TreeFormatter cursor = new TreeFormatter();
+        cursor.append("rules", FileMode.TREE, inserter.insert(rules));
+        TreeFormatter root = new TreeFormatter();
+        root.append(".cursor", FileMode.TREE, inserter.insert(cursor));
+        root.append("README.md", FileMode.REGULAR_FILE, blob(inserter, "readme"));
+        ObjectId tree = inserter.insert(root);
+        inserter.flush();
+        return tree;
+    }
+
+    private static ObjectId blob(ObjectInserter inserter, String content) throws IOException {
+        return inserter.insert(Constants.OBJ_BLOB, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<String> walk(InMemoryRepository repository, ObjectId tree, RuleFilter filter, String folder)
+            throws IOException {
+        List<String> paths = new ArrayList<>();
+        try (TreeWalk treeWalk = new TreeWalk(repository)) {
+            treeWalk.addTree(tree);
+            treeWalk.setRecursive(true);
+            treeWalk.setFilter(filter.in(folder));
+            while (treeWalk.next()) {
+                paths.add(treeWalk.getPathString());
+            }
+        }
+        return paths;
+    }
+}
@@ -0,0 +1,85 @@
+package info.jab.cli.io;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SuppressWarnings("NullAway.Init")
+class RulesLockTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void shouldReadTheLockItWrote() throws IOException {
+        // Given
+        Path lockFile = RulesLock.fileFor(tempDir.resolve(".cursor/rules"));
+        RulesLock lock = new RulesLock(
+            List.of(
+                new RulesLock.Source("https://github.com/org/baseline", ".cursor/rules", blobId("baseline")),
+                new RulesLock.Source("https://github.com/org/rules#release 1.x", ".cursor/rules", blobId("commit"))),
+            new TreeMap<>(Map.of(
+                "200-maven.mdc", blobId("maven rule"),
+                "100-java.mdc", blobId("java rule"),
+                "templates/a=b:c #1.md", blobId("template"))));
+
+        // When
+        lock.write(lockFile);
+
+        // Then
+        assertThat(lockFile).isEqualTo(tempDir.resolve(".cursor/rules.lock").toAbsolutePath());
+        assertThat(RulesLock.read(lockFile)).contains(lock);
+        assertThat(Files.readAllLines(lockFile, StandardCharsets.UTF_8))
+            .filteredOn(line -> line.startsWith("file."))
+            .extracting(line -> line.substring(0, line.indexOf('.', 5)))
+            .containsExactly("file.100-java", "file.200-maven", "file.templates/a\\=b\\:c\\ \\#1");
+        assertThat(Files.readAllLines(lockFile, StandardCharsets.UTF_8))
+            .contains("source.1.url=https://github.com/org/baseline", "source.2.url=https://github.com/org/rules#release 1.x");
+    }
+
+    @Test
+    void shouldIgnoreAMissingOrIncompleteLock() throws IOException {
+        // Given
+        Path lockFile = tempDir.resolve("rules.lock");
+        Files.writeString(lockFile, "source.1.url=https://github.com/org/rules\nsource.1.folder=.cursor/rules\n",
+            StandardCharsets.UTF_8);
+
+        // When / Then
+        assertThat(RulesLock.read(tempDir.resolve("missing.lock"))).isEmpty();
+        assertThat(RulesLock.read(lockFile)).isEmpty();
+    }
+
+    @Test
+    void shouldMatchTheSameRepositoriesInOrderAndFolder() {
+        // Given
+        RulesLock lock = new RulesLock(List.of(
+            new RulesLock.Source("https://github.com/org/baseline", ".cursor/rules", blobId("baseline")),
+            new RulesLock.Source("https://github.com/org/rules", ".cursor/rules", blobId("commit"))), new TreeMap<>());
+
+        // When / Then
+        assertThat(lock.matches(List.of("https://github.com/org/baseline", " https://github.com/org/rules "), ".cursor/rules"))
+            .isTrue();
+        assertThat(lock.matches(List.of("https://github.com/org/rules", "https://github.com/org/baseline"), ".cursor/rules"))
+            .isFalse();
+        assertThat(lock.matches(List.of("https://github.com/org/baseline", "https://github.com/org/rules#main"), ".cursor/rules"))
+            .isFalse();
+        assertThat(lock.matches(List.of("https://github.com/org/baseline"), ".cursor/rules")).isFalse();
+        assertThat(lock.matches(List.of("https://github.com/org/baseline", "https://github.com/org/rules"), "rules")).isFalse();
+    }
+
+    private static ObjectId blobId(String content) {
+        return new ObjectInserter.Formatter().idFor(Constants.OBJ_BLOB, content.getBytes(StandardCharsets.UTF_8));
+    }
+}
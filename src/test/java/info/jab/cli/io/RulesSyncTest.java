@@ -0,0 +1,88 @@
+package info.jab.cli.io;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SuppressWarnings("NullAway.Init")
+class RulesSyncTest {
+
+    private static final ObjectId V1 = blobId("version 1");
+    private static final ObjectId V2 = blobId("version 2");
+    private static final ObjectId EDITED = blobId("edited");
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void shouldSyncOnlyWhatUpstreamChangedAndKeepLocalModifications() {
+        // Given: The base of a previous sync with six rules
+        RulesSync sync = new RulesSync(Map.of(
+            "same.mdc", V1, "changed.mdc", V1, "removed.mdc", V1,
+            "edited.mdc", V1, "conflict.mdc", V1, "edited-removed.mdc", V1));
+
+        // When / Then
+        assertThat(sync.decide("same.mdc", V1, V1)).isEqualTo(RulesSync.Action.UNCHANGED);
+        assertThat(sync.decide("changed.mdc", V2, V1)).isEqualTo(RulesSync.Action.WRITE);
+        assertThat(sync.decide("removed.mdc", null, V1)).isEqualTo(RulesSync.Action.DELETE);
+        assertThat(sync.decide("edited.mdc", V1, EDITED)).isEqualTo(RulesSync.Action.KEEP);
+        assertThat(sync.decide("conflict.mdc", V2, EDITED)).isEqualTo(RulesSync.Action.KEEP);
+        assertThat(sync.decide("edited-removed.mdc", null, EDITED)).isEqualTo(RulesSync.Action.KEEP);
+        assertThat(sync.decide("added.mdc", V2, null)).isEqualTo(RulesSync.Action.WRITE);
+        assertThat(sync.decide("added-locally.mdc", V2, EDITED)).isEqualTo(RulesSync.Action.KEEP);
+        assertThat(sync.report()).isEqualTo(new RulesSync.Report(2, 1, 1, new TreeMap<>(Map.of(
+            "edited.mdc", "modified locally",
+            "conflict.mdc", "modified locally and upstream",
+            "edited-removed.mdc", "modified locally, deleted upstream",
+            "added-locally.mdc", "created locally and upstream"))));
+        assertThat(sync.report().summary()).isEqualTo("2 written, 1 deleted, 1 unchanged, 4 kept");
+    }
+
+    @Test
+    void shouldLetUpstreamWinWithoutAPreviousSync() {
+        // Given
+        RulesSync sync = new RulesSync(null);
+
+        // When / Then
+        assertThat(sync.decide("100-java.mdc", V2, EDITED)).isEqualTo(RulesSync.Action.WRITE);
+        assertThat(sync.decide("200-maven.mdc", V2, V2)).isEqualTo(RulesSync.Action.UNCHANGED);
+        assertThat(sync.removedFrom(Set.of())).isEmpty();
+        assertThat(sync.report().kept()).isEmpty();
+    }
+
+    @Test
+    void shouldListTheFilesRemovedUpstream() {
+        // Given
+        RulesSync sync = new RulesSync(Map.of("a.mdc", V1, "b.mdc", V1, "templates/c.md", V1));
+
+        // When / Then
+        assertThat(sync.removedFrom(Set.of("b.mdc", "d.mdc"))).containsExactly("a.mdc", "templates/c.md");
+    }
+
+    @Test
+    void shouldHashFilesAsGitBlobs() throws IOException {
+        // Given
+        Path file = tempDir.resolve("100-java.mdc");
+        Files.writeString(file, "version 1", StandardCharsets.UTF_8);
+
+        // When / Then
+        assertThat(RulesSync.blobId(file)).isEqualTo(V1);
+        assertThat(RulesSync.blobId(tempDir.resolve("missing.mdc"))).isNull();
+    }
+
+    private static ObjectId blobId(String content) {
+        return new ObjectInserter.Formatter().idFor(Constants.OBJ_BLOB, content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,90 @@
+package info.jab.cli.io;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SuppressWarnings("NullAway.Init")
+class RunHistoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void shouldAverageRunsAcrossInstances() {
+        // Given
+        Path file = tempDir.resolve("setup/history.properties");
+        RunHistory first = RunHistory.at(file);
+        first.record("gitignore", Duration.ofMillis(100));
+        first.save();
+
+        // When
+        RunHistory second = RunHistory.at(file);
+        second.record("gitignore", Duration.ofMillis(200));
+        second.save();
+
+        // Then
+        RunHistory history = RunHistory.at(file);
+        assertThat(history.estimate("gitignore")).contains(Duration.ofMillis(130));
+        assertThat(history.estimate("maven")).isEmpty();
+    }
+
+    @Test
+    void shouldIgnoreAnUnreadableHistory() throws IOException {
+        // Given
+        Path file = tempDir.resolve("history.properties");
+        Files.writeString(file, "gitignore=not-a-number\nsdkman=\\u12", StandardCharsets.UTF_8);
+
+        // When
+        RunHistory history = RunHistory.at(file);
+
+        // Then
+        assertThat(history.estimate("gitignore")).isEmpty();
+        history.record("gitignore", Duration.ofMillis(40));
+        assertThat(history.estimate("gitignore")).contains(Duration.ofMillis(40));
+    }
+
+    @Test
+    void shouldWriteTheRecordedRunsOnlyOnSave() {
+        // Given
+        Path file = tempDir.resolve("history.properties");
+        RunHistory history = RunHistory.at(file);
+
+        // When
+        history.record("gitignore", Duration.ofMillis(100));
+        history.record("gitignore", Duration.ofMillis(200));
+
+        // Then
+        assertThat(file).doesNotExist();
+        assertThat(history.estimate("gitignore")).contains(Duration.ofMillis(130));
+        history.save();
+        assertThat(file).exists();
+        assertThat(RunHistory.at(file).estimate("gitignore")).contains(Duration.ofMillis(130));
+    }
+
+    @Test
+    void shouldMergeTheRunsOfInstancesSavingTheSameFile() {
+        // Given
+        Path file = tempDir.resolve("history.properties");
+        RunHistory first = RunHistory.at(file);
+        RunHistory second = RunHistory.at(file);
+        first.record("gitignore", Duration.ofMillis(100));
+        second.record("sdkman", Duration.ofMillis(50));
+
+        // When
+        first.save();
+        second.save();
+
+        // Then
+        RunHistory history = RunHistory.at(file);
+        assertThat(history.estimate("gitignore")).contains(Duration.ofMillis(100));
+        assertThat(history.estimate("sdkman")).contains(Duration.ofMillis(50));
+    }
+}
@@ -0,0 +1,84 @@
+package info.jab.cli.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.CRC32C;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SuppressWarnings("NullAway.Init")
+class TemplateIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void shouldIndexEveryTemplateWithSizeAndChecksum() throws IOException {
+        // Given
+        Files.createDirectories(tempDir.resolve("templates/feature/nested"));
+        Files.writeString(tempDir.resolve("templates/feature/a.txt"), "first", StandardCharsets.UTF_8);
+        Files.writeString(tempDir.resolve("templates/feature/nested/b.txt"), "second", StandardCharsets.UTF_8);
+        CRC32C crc = new CRC32C();
+        crc.update("first".getBytes(StandardCharsets.UTF_8));
+        ByteArrayOutputStream bundle = new ByteArrayOutputStream();
+
+        // When
+        TemplateIndex index = TemplateIndex.parse(TemplateIndex.build(tempDir, "templates", bundle));
+
+        // Then
+        assertThat(index.file("templates/feature/a.txt"))
+            .contains(new TemplateIndex.Entry("templates/feature/a.txt", 5, crc.getValue(), 0));
+        assertThat(index.file("templates/feature/nested/b.txt"))
+            .hasValueSatisfying(entry -> assertThat(entry.offset()).isEqualTo(5));
+        assertThat(bundle.toString(StandardCharsets.UTF_8)).isEqualTo("firstsecond");
+        assertThat(index.bundleSize()).isEqualTo(11);
+        assertThat(index.folder("templates/feature/")).hasValueSatisfying(entries ->
+            assertThat(entries).extracting(TemplateIndex.Entry::path)
+                .containsExactly("templates/feature/a.txt", "templates/feature/nested/b.txt"));
+        assertThat(index.folder("templates/feature/nested")).hasValueSatisfying(entries ->
+            assertThat(entries).extracting(entry -> entry.relativeTo("templates/feature/nested/"))
+                .containsExactly("b.txt"));
+    }
+
+    @Test
+    void shouldReportFoldersOutsideTheIndex() {
+        // Given
+        TemplateIndex index = TemplateIndex.parse("5 1a2b 0 templates/feature/a.txt\n");
+
+        // When / Then
+        assertThat(index.folder("test-folder")).isEmpty();
+        assertThat(index.file("templates/feature/missing.txt")).isEmpty();
+        assertThat(index.folder("templates")).isPresent();
+    }
+
+    @Test
+    void shouldKeepSpacesInTemplatePaths() {
+        // Given
+        String content = "3 ff 0 templates/my feature/a file.txt\n";
+
+        // When
+        TemplateIndex index = TemplateIndex.parse(content);
+
+        // Then
+        assertThat(index.file("templates/my feature/a file.txt"))
+            .contains(new TemplateIndex.Entry("templates/my feature/a file.txt", 3, 0xff, 0));
+    }
+
+    @Test
+    void shouldBeEmptyWithoutThePackagedIndex() {
+        // Given
+        ClassLoader classLoader = new ClassLoader(null) { };
+
+        // When
+        TemplateIndex index = TemplateIndex.load(classLoader);
+
+        // Then
+        assertThat(index.folder("templates")).isEmpty();
+    }
+}